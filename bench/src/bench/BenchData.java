@@ -0,0 +1,149 @@
+package bench;
+
+import norelations.Table;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Generator of synthetic tables for the benchmarks. The rows are in the format of the Table(ArrayList) constructor,
+ * a header line of column names and then one line of comma separated values per row. Column 0 is an Integer key
+ * drawn uniformly below the number of keys, by default the row count, so a selection key < selectivity * rows keeps
+ * about that share of the rows
+ * and an equi-join of two generated tables keeps about one row per row. The other columns cycle through Double,
+ * String and Integer values. The same seed always generates the same rows, so runs can be compared.
+ */
+public final class BenchData {
+    public static final long SEED = 42;
+
+    private BenchData() {
+    }
+
+    /**
+     * Generates the rows of a table with keys from 0 to the row count
+     *
+     * @param prefix  - String the column names start with, followed by the column number
+     * @param rows    - Number of rows
+     * @param columns - Number of columns, at least 1
+     * @param seed    - Seed of the random values
+     * @return ArrayList of the header line and the rows
+     */
+    public static ArrayList<String> rows(String prefix, int rows, int columns, long seed) {
+        return rows(prefix, rows, columns, rows, seed);
+    }
+
+    /**
+     * Generates the rows of a table
+     *
+     * @param prefix  - String the column names start with, followed by the column number
+     * @param rows    - Number of rows
+     * @param columns - Number of columns, at least 1
+     * @param keys    - Number of distinct keys the values of column 0 are drawn from
+     * @param seed    - Seed of the random values
+     * @return ArrayList of the header line and the rows
+     */
+    public static ArrayList<String> rows(String prefix, int rows, int columns, int keys, long seed) {
+        ArrayList<String> lines = new ArrayList<>(rows + 1);
+        lines.add(header(prefix, columns, ", "));
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < rows; row++) {
+            sb.setLength(0);
+            appendRow(sb, random, keys, columns, ", ", '\'');
+            lines.add(sb.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * Generates a table
+     *
+     * @param prefix  - String the column names start with, followed by the column number
+     * @param rows    - Number of rows
+     * @param columns - Number of columns, at least 1
+     * @param seed    - Seed of the random values
+     * @return New Table with the generated rows
+     */
+    public static Table table(String prefix, int rows, int columns, long seed) {
+        return new Table(rows(prefix, rows, columns, seed));
+    }
+
+    /**
+     * Returns the rows of a table from one row up to, but not including, another, e.g. to build two tables that
+     * share part of their rows for the set operations
+     *
+     * @param lines - ArrayList of the header line and the rows
+     * @param from  - Index of the first row
+     * @param to    - Index after the last row
+     * @return ArrayList of the header line and the rows in the range
+     */
+    public static ArrayList<String> slice(ArrayList<String> lines, int from, int to) {
+        ArrayList<String> slice = new ArrayList<>(to - from + 1);
+        slice.add(lines.get(0));
+        slice.addAll(lines.subList(from + 1, to + 1));
+        return slice;
+    }
+
+    /**
+     * Builds a query nesting selections and projections to a depth, e.g. π a0, a1 (σ a0 >= 0 (... (T)))
+     *
+     * @param table - String representing the name of the table the query reads
+     * @param depth - Number of nested operators
+     * @return String representing the query
+     */
+    public static String nestedQuery(String table, int depth) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            sb.append(i % 2 == 0 ? "σ a0 >= " + i + " (" : "π a0, a1 (");
+        }
+        sb.append(table);
+        sb.append(")".repeat(depth));
+        return sb.toString();
+    }
+
+    /**
+     * Writes a generated table to a CSV file, which load[name, path]. reads
+     * Usage: BenchData path rows columns [seed]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: BenchData path rows columns [seed]");
+            return;
+        }
+        int rows = Integer.parseInt(args[1]);
+        int columns = Integer.parseInt(args[2]);
+        SplittableRandom random = new SplittableRandom(args.length > 3 ? Long.parseLong(args[3]) : SEED);
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            writer.write(header("a", columns, ","));
+            writer.newLine();
+            StringBuilder sb = new StringBuilder();
+            for (int row = 0; row < rows; row++) {
+                sb.setLength(0);
+                appendRow(sb, random, rows, columns, ",", '"');
+                writer.append(sb).append('\n');
+            }
+        }
+        System.out.println("Wrote " + rows + " rows of " + columns + " columns to " + args[0] + ".");
+    }
+
+    private static String header(String prefix, int columns, String separator) {
+        StringJoiner header = new StringJoiner(separator);
+        for (int col = 0; col < columns; col++) header.add(prefix + col);
+        return header.toString();
+    }
+
+    private static void appendRow(StringBuilder sb, SplittableRandom random, int keys, int columns, String separator, char quote) {
+        sb.append(random.nextInt(Math.max(keys, 1)));
+        for (int col = 1; col < columns; col++) {
+            sb.append(separator);
+            switch (col % 3) {
+                case 1 -> sb.append(random.nextInt(1000)).append('.').append(1 + random.nextInt(99));  // Never a whole number, so always a Double
+                case 2 -> sb.append(quote).append("s").append(random.nextInt(1000)).append(quote);
+                default -> sb.append(random.nextInt(1_000_000));
+            }
+        }
+    }
+}
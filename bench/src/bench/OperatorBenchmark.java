@@ -0,0 +1,85 @@
+package bench;
+
+import norelations.Condition;
+import norelations.Table;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the relational operators of Table on generated tables, see BenchData.
+ * The right table of the joins has columns named b0, b1, ..., the tables of the set operations share half their rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+public class OperatorBenchmark {
+    private static final int INEQUALITY_JOIN_ROWS = 16;  // Rows of the right table of the inequality join, a left row matches about half
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"3", "8"})
+    public int columns;
+
+    @Param({"0.01", "0.5"})
+    public double selectivity;
+
+    private Table left;
+    private Table right;
+    private Table small;
+    private Table overlapping;
+    private Condition selection;
+    private TreeSet<String> projected;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ArrayList<String> lines = BenchData.rows("a", rows + rows / 2, columns, BenchData.SEED);
+        left = new Table(BenchData.slice(lines, 0, rows));
+        overlapping = new Table(BenchData.slice(lines, rows / 2, rows + rows / 2));
+        right = BenchData.table("b", rows, columns, BenchData.SEED + 1);
+        small = new Table(BenchData.rows("b", INEQUALITY_JOIN_ROWS, columns, rows, BenchData.SEED + 2));
+        selection = Condition.parse("a0<" + (int) (selectivity * rows));
+        projected = new TreeSet<>();
+        for (int col = 0; col < (columns + 1) / 2; col++) projected.add("a" + col);
+    }
+
+    @Benchmark
+    public Table select() {
+        return left.select(selection);
+    }
+
+    @Benchmark
+    public Table projection() {
+        return left.projection(projected);
+    }
+
+    @Benchmark
+    public Table equiJoin() {
+        return left.join(right, "a0=b0");
+    }
+
+    @Benchmark
+    public Table inequalityJoin() {
+        return left.join(small, "a0<b0");
+    }
+
+    @Benchmark
+    public Table union() {
+        return left.setOperation(overlapping, '∪');
+    }
+
+    @Benchmark
+    public Table intersection() {
+        return left.setOperation(overlapping, '∩');
+    }
+
+    @Benchmark
+    public Table difference() {
+        return left.setOperation(overlapping, '-');
+    }
+}
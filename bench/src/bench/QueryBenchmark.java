@@ -0,0 +1,47 @@
+package bench;
+
+import norelations.PreparedQuery;
+import norelations.Query;
+import norelations.Table;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of Query.parseQuery on queries nesting selections and projections, see BenchData.nestedQuery.
+ * The result cache is disabled, so every invocation parses, optimizes and executes the query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class QueryBenchmark {
+    @Param({"10", "100", "300"})
+    public int depth;
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    private Query query;
+    private String nested;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        query = new Query();
+        query.setCacheCapacity(0);
+        query.saveTable("T", BenchData.table("a", rows, 3, BenchData.SEED));
+        nested = BenchData.nestedQuery("T", depth);
+    }
+
+    @Benchmark
+    public PreparedQuery prepare() {
+        return query.prepare(nested);
+    }
+
+    @Benchmark
+    public Table parseQuery() {
+        return query.parseQuery(nested).get();
+    }
+}
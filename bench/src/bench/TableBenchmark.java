@@ -0,0 +1,69 @@
+package bench;
+
+import norelations.ExportToCSV;
+import norelations.Table;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks of building tables from rows and writing them out, by printTable and to CSV files
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+public class TableBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"3", "8"})
+    public int columns;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ArrayList<String> lines;
+    private Table table;
+    private PrintStream discard;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        lines = BenchData.rows("a", rows, columns, BenchData.SEED);
+        table = new Table(new ArrayList<>(lines));
+        discard = new PrintStream(OutputStream.nullOutputStream());
+        directory = Files.createTempDirectory("bench");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public Table construct() {
+        return new Table(new ArrayList<>(lines));  // A copy, the constructor may change the list it is given
+    }
+
+    @Benchmark
+    public void printTable() {
+        table.printTable(discard);
+    }
+
+    @Benchmark
+    public boolean exportToCSV() {
+        return ExportToCSV.exportToCSV(table, directory.resolve("table").toString(), gzip);
+    }
+}
@@ -1,6 +0,0 @@
-public class Main {
-    public static void main(String[] args) {
-        Controller controller = new Controller();
-        controller.start();
-    }
-}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package norelations;
+
+/**
+ * Receives the rows of a streamed plan a batch at a time. Each batch is a Table with the output columns of the plan,
+ * so an operator only holds one batch of its input in memory, unless it has to see all of its input first.
+ */
+@FunctionalInterface
+public interface BatchConsumer {
+    /**
+     * Receives a batch of rows
+     *
+     * @param batch - Table holding the rows of the batch
+     * @return True to receive more batches, false if processing the batch failed and streaming must stop
+     */
+    boolean accept(Table batch);
+}
@@ -0,0 +1,105 @@
+package norelations;
+
+import java.util.*;
+
+/**
+ * Column of Boolean values stored in a BitSet
+ */
+public class BooleanColumn extends Column implements Column.BooleanValues {
+    private final BitSet values;
+    private final int size;
+
+    BooleanColumn(BitSet values, int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    @Override
+    public boolean getBoolean(int row) {
+        return values.get(row);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Object get(int row) {
+        return values.get(row);
+    }
+
+    @Override
+    public Column gather(int[] rows) {
+        BitSet newValues = new BitSet(rows.length);
+        for (int i = 0; i < rows.length; i++) {
+            if (values.get(rows[i])) newValues.set(i);
+        }
+        return new BooleanColumn(newValues, rows.length);
+    }
+
+    @Override
+    public int hashAt(int row) {
+        return Boolean.hashCode(values.get(row));
+    }
+
+    @Override
+    public boolean equalsAt(int row, Column other, int otherRow) {
+        if (other instanceof BooleanColumn booleanColumn) return values.get(row) == booleanColumn.values.get(otherRow);
+        return super.equalsAt(row, other, otherRow);
+    }
+
+    @Override
+    public int compareAt(int row, Column other, int otherRow) {
+        if (other instanceof BooleanColumn booleanColumn) return Boolean.compare(values.get(row), booleanColumn.values.get(otherRow));
+        return super.compareAt(row, other, otherRow);
+    }
+
+    @Override
+    public int[] sortedRows() {
+        // false sorts before true, so list the clear bits first
+        int[] rows = new int[size];
+        int i = 0;
+        for (int row = values.nextClearBit(0); row < size; row = values.nextClearBit(row + 1)) rows[i++] = row;
+        for (int row = values.nextSetBit(0); row >= 0 && row < size; row = values.nextSetBit(row + 1)) rows[i++] = row;
+        return rows;
+    }
+
+    /**
+     * Concatenates BooleanColumns
+     */
+    static BooleanColumn concatColumns(List<Column> parts) {
+        BitSet values = new BitSet();
+        int size = 0;
+        for (Column part : parts) {
+            BooleanColumn booleans = (BooleanColumn) part;
+            for (int row = booleans.values.nextSetBit(0); row >= 0; row = booleans.values.nextSetBit(row + 1)) {
+                values.set(size + row);
+            }
+            size += booleans.size;
+        }
+        return new BooleanColumn(values, size);
+    }
+
+    static class Builder extends TypedBuilder {
+        private final BitSet values;
+        private int size;
+
+        Builder(int capacity) {
+            values = new BitSet(capacity);
+        }
+
+        @Override
+        boolean add(Object value) {
+            if (!(value instanceof Boolean b)) return false;
+            if (b) values.set(size);
+            size++;
+            return true;
+        }
+
+        @Override
+        Column build() {
+            return new BooleanColumn((BitSet) values.clone(), size);
+        }
+    }
+}
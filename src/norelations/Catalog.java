@@ -0,0 +1,162 @@
+package norelations;
+
+import org.apache.logging.log4j.*;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * The named tables of a Query and its sessions as immutable, versioned snapshots. A reader takes the current Snapshot
+ * with one volatile read and no lock, and sees the same tables however long it runs. A writer copies the current
+ * snapshot with its change and publishes the copy as the next version; writers take turns, so no change is lost, and
+ * build the indexes of the tables they publish before their turn.
+ * A query is parsed, executed and cached against one snapshot, so it never mixes tables of two versions of the catalog.
+ */
+public final class Catalog {
+    private static final Logger log = LogManager.getLogger(Catalog.class.getName());
+    private volatile Snapshot current = new Snapshot(0, Map.of(), Map.of(), Map.of());
+
+    /**
+     * A version of the catalog, never changed once published
+     *
+     * @param version  - Version of the catalog, one more than the snapshot it replaced
+     * @param tables   - Map of the tables by name
+     * @param versions - Map of the version of the snapshot each table was put in, by name
+     * @param indexes  - Map of the indexed columns by table name, indexed again when the table is replaced
+     */
+    public record Snapshot(long version, Map<String, Table> tables, Map<String, Long> versions, Map<String, Set<String>> indexes) {
+        public Table get(String name) {
+            return tables.get(name);
+        }
+
+        public boolean contains(String name) {
+            return tables.containsKey(name);
+        }
+    }
+
+    /**
+     * Returns the current version of the catalog, without locking
+     *
+     * @return Snapshot of the catalog
+     */
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    /**
+     * Publishes tables in one new snapshot, replacing the tables of the same names. Their statistics should be
+     * computed before, see Table.getStatistics(). The columns indexed in a table replaced are indexed in the new one,
+     * the indexes of columns it lacks are dropped.
+     *
+     * @param tables - Map of the tables by name
+     * @return Snapshot holding the tables
+     */
+    public Snapshot put(Map<String, Table> tables) {
+        return put(tables, snapshot -> true);
+    }
+
+    /**
+     * Publishes a table unless its name is taken in the current snapshot
+     *
+     * @param name  - Name of the table
+     * @param table - Table to be added
+     * @return Snapshot holding the table, or null if the name is taken
+     */
+    public Snapshot add(String name, Table table) {
+        return put(Map.of(name, table), snapshot -> !snapshot.contains(name));
+    }
+
+    /**
+     * Publishes a table in place of another, unless the name was given a different table since it was read
+     *
+     * @param name     - Name of the table
+     * @param expected - Table read under the name
+     * @param table    - Table replacing it
+     * @return Snapshot holding the table, or null if the name holds a different table
+     */
+    public Snapshot replace(String name, Table expected, Table table) {
+        return put(Map.of(name, table), snapshot -> snapshot.get(name) == expected);
+    }
+
+    /**
+     * Publishes tables if the current snapshot allows it. The indexes of the tables they replace are built before the
+     * write lock is taken, so other writers do not wait for them; only the indexes created on the replaced tables in
+     * the meantime are built under the lock.
+     *
+     * @param tables    - Map of the tables by name
+     * @param condition - Predicate the current snapshot must satisfy, tested under the write lock
+     * @return Snapshot holding the tables, or null if the condition is not satisfied
+     */
+    private Snapshot put(Map<String, Table> tables, Predicate<Snapshot> condition) {
+        Snapshot seen = current;
+        if (!condition.test(seen)) return null;
+        Map<String, Set<String>> built = new HashMap<>();
+        for (Map.Entry<String, Table> entry : tables.entrySet()) {
+            Set<String> indexed = seen.indexes().get(entry.getKey());
+            if (indexed != null) built.put(entry.getKey(), createIndexes(entry.getKey(), entry.getValue(), indexed));
+        }
+        synchronized (this) {
+            Snapshot snapshot = current;
+            if (!condition.test(snapshot)) return null;
+            long version = snapshot.version() + 1;
+            Map<String, Table> nextTables = new HashMap<>(snapshot.tables());
+            Map<String, Long> nextVersions = new HashMap<>(snapshot.versions());
+            Map<String, Set<String>> nextIndexes = new HashMap<>(snapshot.indexes());
+            for (Map.Entry<String, Table> entry : tables.entrySet()) {
+                String name = entry.getKey();
+                nextTables.put(name, entry.getValue());
+                nextVersions.put(name, version);
+                Set<String> indexed = snapshot.indexes().get(name);
+                if (indexed == null) continue;
+                nextIndexes.put(name, indexed.equals(seen.indexes().get(name)) ? built.get(name)
+                        : createIndexes(name, entry.getValue(), indexed));
+            }
+            return publish(new Snapshot(version, nextTables, nextVersions, nextIndexes));
+        }
+    }
+
+    /**
+     * Indexes the columns of a table replacing an indexed one
+     *
+     * @return Set of the columns indexed, without those the table lacks
+     */
+    private static Set<String> createIndexes(String name, Table table, Set<String> columns) {
+        Set<String> kept = new LinkedHashSet<>();
+        for (String column : columns) {
+            if (table.createIndex(column)) kept.add(column);
+            else log.error("Dropped the index of column " + column + " missing from table " + name);
+        }
+        return Collections.unmodifiableSet(kept);
+    }
+
+    /**
+     * Indexes a column of a table and publishes a snapshot recording the index, so the table replacing it is indexed
+     * too. The index is added to the columns of the table itself, which queries on earlier snapshots may use. It is
+     * built before the write lock is taken, and built again on the new table if the table is replaced meanwhile.
+     *
+     * @param name   - Name of the table
+     * @param column - Name of the column
+     * @return Snapshot recording the index, or null if there is no such table or column
+     */
+    public Snapshot index(String name, String column) {
+        while (true) {
+            Table table = current.get(name);
+            if (table == null || !table.createIndex(column)) return null;
+            synchronized (this) {
+                Snapshot snapshot = current;
+                if (snapshot.get(name) != table) continue;
+                Map<String, Set<String>> nextIndexes = new HashMap<>(snapshot.indexes());
+                Set<String> indexed = new LinkedHashSet<>(snapshot.indexes().getOrDefault(name, Set.of()));
+                indexed.add(column);
+                nextIndexes.put(name, Collections.unmodifiableSet(indexed));
+                return publish(new Snapshot(snapshot.version() + 1, snapshot.tables(), snapshot.versions(), nextIndexes));
+            }
+        }
+    }
+
+    private Snapshot publish(Snapshot snapshot) {
+        current = new Snapshot(snapshot.version(), Collections.unmodifiableMap(snapshot.tables()),
+                Collections.unmodifiableMap(snapshot.versions()), Collections.unmodifiableMap(snapshot.indexes()));
+        return current;
+    }
+}
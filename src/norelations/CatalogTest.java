@@ -0,0 +1,94 @@
+package norelations;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogTest {
+    private static Table table(String... rows) {
+        return new Table(new ArrayList<>(Arrays.asList(rows)));
+    }
+
+    @Test
+    void testSnapshots() {
+        Catalog catalog = new Catalog();
+        Table people = table("Name, Age", "'John', 25");
+        Catalog.Snapshot first = catalog.put(Map.of("people", people));
+        assertSame(first, catalog.snapshot());
+        assertThrows(UnsupportedOperationException.class, () -> first.tables().put("pets", people));
+
+        Table replaced = table("Name, Age", "'Jane', 23");
+        Catalog.Snapshot second = catalog.put(Map.of("people", replaced, "pets", table("Owner, Pet", "'Jane', 'Rex'")));
+        assertSame(people, first.get("people"));  // A reader of the first snapshot still sees the table it started with
+        assertFalse(first.contains("pets"));
+        assertSame(replaced, second.get("people"));
+        assertEquals(second.version(), (long) second.versions().get("pets"));
+        assertTrue(second.versions().get("people") > first.versions().get("people"));
+
+        assertNull(catalog.add("pets", people));
+        assertNull(catalog.replace("people", people, table("Name, Age", "'Mo', 31")));
+        assertSame(replaced, catalog.snapshot().get("people"));
+    }
+
+    @Test
+    void testIndexes() {
+        Catalog catalog = new Catalog();
+        catalog.put(Map.of("people", table("Name, Age", "'John', 25")));
+        assertNull(catalog.index("people", "missing"));
+        assertEquals(Set.of("Age"), catalog.index("people", "Age").indexes().get("people"));
+
+        // The index is created again on the table replacing the indexed one, and dropped if it lacks the column
+        Table replaced = table("Name, Age", "'Jane', 23");
+        catalog.put(Map.of("people", replaced));
+        assertNotNull(replaced.getColumn(1).getIndex());
+        catalog.put(Map.of("people", table("Name", "'Mo'")));
+        assertEquals(Set.of(), catalog.snapshot().indexes().get("people"));
+    }
+
+    @Test
+    void testConcurrentWriters() throws Exception {
+        Catalog catalog = new Catalog();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String name = "t" + i;
+                writers.add(executor.submit(() -> catalog.add(name, table("x", "1"))));
+            }
+            for (Future<?> writer : writers) writer.get();
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(200, catalog.snapshot().tables().size());  // No update was lost
+        assertEquals(200, catalog.snapshot().version());
+    }
+
+    @Test
+    void testAtomicDefinitions() throws Exception {
+        Query query = new Query();
+        query.parseQuery("a = {x\n0}\nb = {x\n0}\n");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 1; i <= 500; i++) query.session().parseQuery("a = {x\n" + i + "}\nb = {x\n" + i + "}\n");
+            });
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                readers.add(executor.submit(() -> {
+                    Query session = query.session();
+                    int mixed = 0;  // Results reading a and b of different definitions
+                    while (!writer.isDone()) if (session.parseQuery("a ∪ b").get().getRowCount() != 1) mixed++;
+                    return mixed;
+                }));
+            }
+            writer.get();
+            for (Future<Integer> reader : readers) assertEquals(0, (int) reader.get());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(List.of(List.of(500)), query.getTable("a").getTable());
+    }
+}
@@ -0,0 +1,287 @@
+package norelations;
+
+import java.util.*;
+
+/**
+ * A single column of a Table, stored in a primitive array of the column's type.
+ * Columns are immutable once built, so tables share them freely (e.g. projection reuses the columns it keeps).
+ */
+public abstract class Column {
+    private volatile ColumnIndex index;  // Secondary index built by createIndex(), null if none
+
+    /**
+     * Returns the secondary index of the column
+     *
+     * @return ColumnIndex of the column, or null if none was created
+     */
+    public ColumnIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Creates a secondary index of the column, unless it has one. The index is derived from the values, so
+     * the column stays immutable and the tables sharing it share the index.
+     *
+     * @return ColumnIndex of the column
+     */
+    public synchronized ColumnIndex createIndex() {
+        if (index == null) index = new ColumnIndex(this);
+        return index;
+    }
+
+    /**
+     * Returns the number of values in the column
+     *
+     * @return Number of values
+     */
+    public abstract int size();
+
+    /**
+     * Returns the value at a row, boxed as an Integer, Double, Boolean or String
+     *
+     * @param row - Index of the row
+     * @return Object representing the value
+     */
+    public abstract Object get(int row);
+
+    /**
+     * Returns a new column containing the values at the specified rows, in the order given
+     *
+     * @param rows - Array of row indexes
+     * @return New Column with the gathered values
+     */
+    public abstract Column gather(int[] rows);
+
+    /**
+     * Returns the hash code of the value at a row, equal to get(row).hashCode()
+     *
+     * @param row - Index of the row
+     * @return Hash code of the value
+     */
+    public abstract int hashAt(int row);
+
+    /**
+     * Checks if the value at a row equals the value at a row of another column
+     *
+     * @param row      - Index of the row in this column
+     * @param other    - Column to compare with
+     * @param otherRow - Index of the row in the other column
+     * @return True if the values are equal, otherwise false
+     */
+    public boolean equalsAt(int row, Column other, int otherRow) {
+        return Objects.equals(get(row), other.get(otherRow));
+    }
+
+    /**
+     * Compares the value at a row with the value at a row of another column, using the values' natural ordering
+     *
+     * @param row      - Index of the row in this column
+     * @param other    - Column to compare with
+     * @param otherRow - Index of the row in the other column
+     * @return 0 if the values are equal, a negative number if this value is smaller, a positive number otherwise
+     */
+    public int compareAt(int row, Column other, int otherRow) {
+        Object leftValue = get(row);
+        Object rightValue = other.get(otherRow);
+        if (leftValue instanceof Comparable && rightValue instanceof Comparable) {
+            @SuppressWarnings("unchecked") Comparable<Object> leftComparable = (Comparable<Object>) leftValue;
+            return leftComparable.compareTo(rightValue);
+        }
+        throw new IllegalArgumentException("Cannot compare non-comparable values");
+    }
+
+    /**
+     * Returns the row indexes of the column sorted by value. Rows with equal values keep their original order.
+     *
+     * @return Array of row indexes in ascending value order
+     */
+    public int[] sortedRows() {
+        Integer[] rows = new Integer[size()];
+        for (int i = 0; i < rows.length; i++) rows[i] = i;
+        Arrays.sort(rows, (row1, row2) -> compareAt(row1, this, row2));
+        return Arrays.stream(rows).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Sorts row indexes by an int key packed into the upper half of a long, keeping equal keys in row order
+     *
+     * @param keys - Array of int keys, one per row
+     * @return Array of row indexes in ascending key order
+     */
+    static int[] sortRowsByKey(int[] keys) {
+        long[] packed = new long[keys.length];
+        for (int row = 0; row < keys.length; row++) {
+            packed[row] = ((long) keys[row] << 32) | row;
+        }
+        Arrays.sort(packed);
+        int[] rows = new int[keys.length];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = (int) packed[i];
+        }
+        return rows;
+    }
+
+    /**
+     * Returns a builder for a column of the specified type
+     *
+     * @param type     - Class of the values in the column (Integer, Double, Boolean or String)
+     * @param capacity - Expected number of values
+     * @return New Builder
+     */
+    public static Builder builder(Class<?> type, int capacity) {
+        return new Builder(type, capacity);
+    }
+
+    /**
+     * Builds a column from one position of each row
+     *
+     * @param type - Class of the values in the column
+     * @param rows - ArrayList of rows
+     * @param col  - Index of the column in each row
+     * @return New Column
+     */
+    public static Column fromRows(Class<?> type, List<? extends List<Object>> rows, int col) {
+        Builder builder = builder(type, rows.size());
+        for (List<Object> row : rows) {
+            builder.add(row.get(col));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Column of int values, stored on the heap or in a mapped file
+     */
+    interface IntValues {
+        int getInt(int row);
+    }
+
+    /**
+     * Column of double values, stored on the heap or in a mapped file
+     */
+    interface DoubleValues {
+        double getDouble(int row);
+    }
+
+    /**
+     * Column of boolean values, stored on the heap or in a mapped file
+     */
+    interface BooleanValues {
+        boolean getBoolean(int row);
+    }
+
+    /**
+     * Column of String values stored as codes into a sorted dictionary, on the heap or in a mapped file
+     */
+    interface StringCodes {
+        int getCode(int row);
+
+        String[] getDictionary();
+    }
+
+    /**
+     * Concatenates columns built separately, e.g. from the chunks of a file loaded in parallel
+     *
+     * @param parts - List of columns, in order
+     * @return New Column with the values of all the columns, of the same kind if they are all of one kind
+     */
+    public static Column concat(List<Column> parts) {
+        if (parts.size() == 1) return parts.getFirst();
+        Class<?> kind = parts.getFirst().getClass();
+        if (parts.stream().allMatch(part -> part.getClass() == kind)) {
+            if (kind == IntColumn.class) return IntColumn.concatColumns(parts);
+            if (kind == DoubleColumn.class) return DoubleColumn.concatColumns(parts);
+            if (kind == BooleanColumn.class) return BooleanColumn.concatColumns(parts);
+            if (kind == StringColumn.class) return StringColumn.concatColumns(parts);
+        }
+        // Columns of different kinds, as when one part fell back to objects
+        Builder builder = builder(Object.class, parts.stream().mapToInt(Column::size).sum());
+        for (Column part : parts) {
+            for (int row = 0; row < part.size(); row++) builder.addFrom(part, row);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Builder for a column of one type. Values that do not fit the column type switch the builder to
+     * storing boxed objects, so mixed columns keep working as they did before typed storage.
+     */
+    public static final class Builder {
+        private TypedBuilder builder;
+
+        private Builder(Class<?> type, int capacity) {
+            if (type == Integer.class) builder = new IntColumn.Builder(capacity);
+            else if (type == Double.class) builder = new DoubleColumn.Builder(capacity);
+            else if (type == Boolean.class) builder = new BooleanColumn.Builder(capacity);
+            else if (type == String.class) builder = new StringColumn.Builder(capacity);
+            else builder = new ObjectColumn.Builder(capacity);
+        }
+
+        /**
+         * Appends a value to the column
+         *
+         * @param value - Object to append
+         * @return True if the value matched the column type, false if the column had to fall back to objects
+         */
+        public boolean add(Object value) {
+            if (builder.add(value)) return true;
+
+            Column built = builder.build();
+            ObjectColumn.Builder objects = new ObjectColumn.Builder(built.size() * 2 + 1);
+            for (int row = 0; row < built.size(); row++) {
+                objects.add(built.get(row));
+            }
+            objects.add(value);
+            builder = objects;
+            return false;
+        }
+
+        /**
+         * Appends an int value without boxing it if the column stores ints
+         *
+         * @param value - int to append
+         */
+        public void addInt(int value) {
+            if (builder instanceof IntColumn.Builder ints) ints.addInt(value);
+            else add(value);
+        }
+
+        /**
+         * Appends a double value without boxing it if the column stores doubles
+         *
+         * @param value - double to append
+         */
+        public void addDouble(double value) {
+            if (builder instanceof DoubleColumn.Builder doubles) doubles.addDouble(value);
+            else add(value);
+        }
+
+        /**
+         * Appends the value at a row of another column
+         *
+         * @param column - Column to copy from
+         * @param row    - Index of the row
+         */
+        public void addFrom(Column column, int row) {
+            add(column.get(row));
+        }
+
+        public Column build() {
+            return builder.build();
+        }
+    }
+
+    /**
+     * Builder for the values of a single column type
+     */
+    abstract static class TypedBuilder {
+        /**
+         * Appends a value if it matches the builder's type
+         *
+         * @param value - Object to append
+         * @return True if the value was appended, false if it has the wrong type
+         */
+        abstract boolean add(Object value);
+
+        abstract Column build();
+    }
+}
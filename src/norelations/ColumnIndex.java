@@ -0,0 +1,159 @@
+package norelations;
+
+import java.util.*;
+
+/**
+ * Secondary index on a column: the rows sorted by value, searched by binary search for ranges, and a hash table of
+ * the distinct values for equality. The rows of a value are contiguous in the sorted order and kept in row order,
+ * so lookups find the same rows as a scan. Columns are immutable, so an index stays valid as long as its column,
+ * including in the projections and reorderings of a table that share the column.
+ */
+public final class ColumnIndex {
+    private final Column column;
+    private final int[] sortedRows;
+    private final int[] slots;  // Position in sortedRows of the first row of a distinct value, -1 for an empty slot
+
+    ColumnIndex(Column column) {
+        this.column = column;
+        sortedRows = column.sortedRows();
+        int distinct = 0;
+        for (int position = 0; position < sortedRows.length; position++) {
+            if (position == 0 || !column.equalsAt(sortedRows[position], column, sortedRows[position - 1])) distinct++;
+        }
+        slots = new int[Integer.highestOneBit(Math.max(distinct, 1) * 2 - 1) * 2];
+        Arrays.fill(slots, -1);
+        for (int position = 0; position < sortedRows.length; position++) {
+            if (position > 0 && column.equalsAt(sortedRows[position], column, sortedRows[position - 1])) continue;
+            int slot = spreadHash(column.hashAt(sortedRows[position])) & (slots.length - 1);
+            while (slots[slot] != -1) slot = (slot + 1) & (slots.length - 1);
+            slots[slot] = position;
+        }
+    }
+
+    /**
+     * Returns the rows of the column sorted by value, as Column.sortedRows() does
+     *
+     * @return Array of row indexes in ascending value order, it must not be modified
+     */
+    public int[] sortedRows() {
+        return sortedRows;
+    }
+
+    public int rowAt(int position) {
+        return sortedRows[position];
+    }
+
+    public int size() {
+        return sortedRows.length;
+    }
+
+    /**
+     * Returns the heap memory of the sorted rows and the hash slots
+     *
+     * @return Number of bytes
+     */
+    public long estimateBytes() {
+        return 4L * sortedRows.length + 4L * slots.length;
+    }
+
+    /**
+     * Finds the first row with the value at a row of another column
+     *
+     * @param other    - Column holding the value to look up
+     * @param otherRow - Index of the row in the other column
+     * @return Position in the sorted rows of the first row with an equal value, or -1 if there is none
+     */
+    public int find(Column other, int otherRow) {
+        int slot = spreadHash(other.hashAt(otherRow)) & (slots.length - 1);
+        for (; slots[slot] != -1; slot = (slot + 1) & (slots.length - 1)) {
+            if (column.equalsAt(sortedRows[slots[slot]], other, otherRow)) return slots[slot];
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if the value at a position of the sorted rows equals the value at a row of another column
+     */
+    public boolean equalsAt(int position, Column other, int otherRow) {
+        return column.equalsAt(sortedRows[position], other, otherRow);
+    }
+
+    /**
+     * Finds the positions in the sorted rows of the rows whose value satisfies a comparison with a constant
+     *
+     * @param op       - String representing the operator, with the column on its left
+     * @param constant - Object representing the constant on the right of the operator
+     * @return Range of positions, or null if the index cannot answer the comparison (for != or a constant of another
+     * type than the column's values)
+     */
+    public Range range(String op, Object constant) {
+        if (!comparable(constant) || op.equals("!=")) return null;
+        return switch (op) {
+            case "=" -> {
+                int slot = spreadHash(constant.hashCode()) & (slots.length - 1);
+                for (; slots[slot] != -1; slot = (slot + 1) & (slots.length - 1)) {
+                    int start = slots[slot];
+                    if (constant.equals(column.get(sortedRows[start]))) {
+                        int end = start + 1;
+                        while (end < sortedRows.length && column.equalsAt(sortedRows[end], column, sortedRows[start])) end++;
+                        yield new Range(this, start, end);
+                    }
+                }
+                yield new Range(this, 0, 0);
+            }
+            case "<" -> new Range(this, 0, bound(constant, false));
+            case "<=" -> new Range(this, 0, bound(constant, true));
+            case ">" -> new Range(this, bound(constant, true), sortedRows.length);
+            case ">=" -> new Range(this, bound(constant, false), sortedRows.length);
+            default -> null;
+        };
+    }
+
+    /**
+     * Positions in the sorted rows of an index, from one position up to, but not including, another
+     */
+    public record Range(ColumnIndex index, int from, int to) {
+        public int size() {
+            return to - from;
+        }
+
+        /**
+         * Returns the rows in the range, in row order
+         *
+         * @return Array of row indexes in ascending order
+         */
+        public int[] rows() {
+            int[] rows = Arrays.copyOfRange(index.sortedRows, from, to);
+            Arrays.sort(rows);
+            return rows;
+        }
+    }
+
+    /**
+     * Checks if a constant is compared with the values of the column the same way by the index and by a scan
+     */
+    private boolean comparable(Object constant) {
+        return column instanceof Column.IntValues && constant instanceof Integer
+                || column instanceof Column.DoubleValues && constant instanceof Double
+                || column instanceof Column.BooleanValues && constant instanceof Boolean
+                || column instanceof Column.StringCodes && constant instanceof String;
+    }
+
+    /**
+     * Finds the first position whose value is greater than (or equal to, if not inclusive) a constant
+     */
+    private int bound(Object constant, boolean inclusive) {
+        int low = 0, high = sortedRows.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int compare = Table.compareValues(column.get(sortedRows[middle]), constant);
+            if (compare < 0 || inclusive && compare == 0) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    private static int spreadHash(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,86 @@
+package norelations;
+
+import java.util.*;
+
+/**
+ * Reuse of common subexpressions of a plan. Structurally identical subtrees, the same operations on the same scanned
+ * tables, are merged into one node, and a node used by more than one parent is wrapped in a PlanNode.Shared, which
+ * executes it once and hands its result to every parent. E.g. in (σ a>1 T) ⨝ x=x (σ a>1 T) the selection runs once
+ * and the join gets the same table on both sides.
+ * Scans are merged but not wrapped, scanning a table costs nothing.
+ */
+public class CommonSubexpressions {
+
+    private CommonSubexpressions() {
+    }
+
+    /**
+     * Merges the identical subtrees of a plan and shares the nodes used more than once
+     *
+     * @param plan - PlanNode at the root of the plan
+     * @return PlanNode at the root of the plan with shared subtrees, or the same plan if nothing is repeated
+     */
+    public static PlanNode share(PlanNode plan) {
+        Merger merger = new Merger();
+        PlanNode merged = merger.merge(plan);
+        IdentityHashMap<PlanNode, Integer> parents = new IdentityHashMap<>();
+        countParents(merged, parents);
+        parents.keySet().removeIf(node -> node instanceof PlanNode.Scan);
+        if (parents.values().stream().noneMatch(count -> count > 1)) return plan;
+        return wrap(merged, parents, new IdentityHashMap<>());
+    }
+
+    /**
+     * Merges subtrees bottom-up, keyed by the operation of a node and the identities of its merged children
+     */
+    private static final class Merger {
+        private final HashMap<String, PlanNode> nodes = new HashMap<>();
+        private final IdentityHashMap<Object, Integer> ids = new IdentityHashMap<>();  // Ids of merged nodes and scanned tables
+
+        private PlanNode merge(PlanNode node) {
+            ArrayList<PlanNode> children = new ArrayList<>(node.children());
+            children.replaceAll(this::merge);
+            node = node.withChildren(children);
+            StringJoiner key = new StringJoiner(",", operation(node) + " (", ")");
+            for (PlanNode child : children) key.add(String.valueOf(id(child)));
+            PlanNode existing = nodes.putIfAbsent(key.toString(), node);
+            return existing != null ? existing : node;
+        }
+
+        private int id(Object object) {
+            return ids.computeIfAbsent(object, key -> ids.size());
+        }
+
+        /**
+         * Describes the operation of a node without its children
+         */
+        private String operation(PlanNode node) {
+            return switch (node) {
+                case PlanNode.Scan scan -> "scan " + id(scan.getTable());
+                case PlanNode.Project project -> "π " + project.getColumns();
+                case PlanNode.Select select -> "σ " + select.getCondition();
+                case PlanNode.Join join -> "⨝ " + join.getCondition();
+                case PlanNode.SetOperation setOperation -> String.valueOf(setOperation.getOperator());
+                case PlanNode.ColumnOrder columnOrder -> "order " + columnOrder.getColumns();
+                default -> "node " + id(node);  // Never merged with another node
+            };
+        }
+    }
+
+    private static void countParents(PlanNode node, IdentityHashMap<PlanNode, Integer> parents) {
+        for (PlanNode child : node.children()) {
+            if (parents.merge(child, 1, Integer::sum) == 1) countParents(child, parents);
+        }
+    }
+
+    private static PlanNode wrap(PlanNode node, IdentityHashMap<PlanNode, Integer> parents, IdentityHashMap<PlanNode, PlanNode> wrapped) {
+        PlanNode done = wrapped.get(node);
+        if (done != null) return done;
+        ArrayList<PlanNode> children = new ArrayList<>(node.children());
+        children.replaceAll(child -> wrap(child, parents, wrapped));
+        PlanNode result = node.withChildren(children);
+        if (parents.getOrDefault(node, 0) > 1) result = new PlanNode.Shared(result);
+        wrapped.put(node, result);
+        return result;
+    }
+}
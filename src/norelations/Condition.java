@@ -0,0 +1,525 @@
+package norelations;
+
+import java.util.*;
+
+/**
+ * A parsed selection condition: a comparison "left op right", or comparisons combined with AND, OR, NOT and parentheses.
+ * The keywords are case-insensitive, and the symbols ∧, ∨ and ¬ can be used instead.
+ * A Condition does not depend on a table, it is compiled for a table into a RowPredicate that evaluates every
+ * combined comparison in a single pass with short-circuiting.
+ */
+public abstract class Condition {
+
+    /**
+     * Compiles the condition for a table
+     *
+     * @param table - Table the condition is evaluated on
+     * @return RowPredicate for the condition
+     */
+    public abstract RowPredicate compile(Table table);
+
+    /**
+     * Estimates the fraction of the rows of a table that satisfy the condition
+     *
+     * @param table - Table the condition is evaluated on
+     * @return Estimated selectivity between 0 and 1
+     */
+    public abstract double selectivity(Table table);
+
+    /**
+     * Checks if some row of a block of a table may satisfy the condition, from the min and max of the block in the
+     * table's MappedColumns
+     *
+     * @param table - Table the condition is evaluated on
+     * @param block - Index of the block, the rows from block * MappedColumn.BLOCK_ROWS
+     * @return False if no row of the block satisfies the condition, true if some may
+     */
+    public abstract boolean mayMatch(Table table, int block);
+
+    /**
+     * Finds the rows that may satisfy the condition with the smallest range of a ColumnIndex, over the comparisons
+     * of an indexed column with a constant that must be satisfied. Every row satisfying the condition is in the range.
+     *
+     * @param table - Table the condition is evaluated on
+     * @return Smallest Range of an index, or null if no such comparison has an index
+     */
+    public ColumnIndex.Range indexRange(Table table) {
+        ColumnIndex.Range smallest = null;
+        for (Condition condition : conjuncts()) {
+            if (!(condition instanceof Comparison comparison)) continue;
+            ColumnIndex.Range range = comparison.lookup(table);
+            if (range != null && (smallest == null || range.size() < smallest.size())) smallest = range;
+        }
+        return smallest;
+    }
+
+    /**
+     * Returns the operands of the condition that are column names, with the table name if one was given
+     *
+     * @return Set of column operands
+     */
+    public abstract Set<String> getColumns();
+
+    /**
+     * Returns the conditions that must all be satisfied for this condition to be satisfied
+     *
+     * @return List of the conditions of an AND, or a list of just this condition
+     */
+    public List<Condition> conjuncts() {
+        return List.of(this);
+    }
+
+    /**
+     * Combines conditions that must all be satisfied, flattening nested ANDs
+     *
+     * @param conditions - List of conditions
+     * @return Condition satisfied when all the conditions are satisfied
+     */
+    public static Condition and(List<Condition> conditions) {
+        ArrayList<Condition> flattened = new ArrayList<>();
+        for (Condition condition : conditions) {
+            flattened.addAll(condition.conjuncts());
+        }
+        return flattened.size() == 1 ? flattened.getFirst() : new And(flattened);
+    }
+
+    /**
+     * Parses a condition
+     *
+     * @param condition - String representing the condition
+     * @return Condition, or null if the condition is invalid
+     */
+    public static Condition parse(String condition) {
+        Parser parser = new Parser(condition, 0);
+        Condition parsed = parser.parse();
+        return parsed == null || parser.pos != condition.length() ? null : parsed;  // The caller reports an invalid condition
+    }
+
+    /**
+     * Finds the length of the condition at the start of a string, e.g. the condition of a selection
+     * followed by the relation it is applied to
+     *
+     * @param text - String starting with a condition
+     * @return Length of the condition, or -1 if the string does not start with a valid condition
+     */
+    public static int parseLength(String text) {
+        Parser parser = new Parser(text, 0);
+        return parser.parse() == null ? -1 : parser.end;
+    }
+
+    /**
+     * Parses the condition starting at a position of a string, without copying the rest of the string
+     *
+     * @param text  - String containing the condition
+     * @param start - Position of the first character of the condition
+     * @return Prefix holding the condition and the position after it, or null if no valid condition starts there
+     */
+    public static Prefix parsePrefix(String text, int start) {
+        Parser parser = new Parser(text, start);
+        Condition condition = parser.parse();
+        return condition == null ? null : new Prefix(condition, parser.end);
+    }
+
+    /**
+     * A condition read from the start of a string, and the position after its last character
+     */
+    public record Prefix(Condition condition, int end) {
+    }
+
+    /**
+     * A single comparison between two operands, each a column name or a constant
+     */
+    public static final class Comparison extends Condition {
+        private final String[] parts;  // left operand, operator, right operand
+
+        public Comparison(String left, String op, String right) {
+            parts = new String[]{left, op, right};
+        }
+
+        public String[] getParts() {
+            return parts.clone();
+        }
+
+        @Override
+        public RowPredicate compile(Table table) {
+            return RowPredicate.compile(table, parts);
+        }
+
+        @Override
+        public double selectivity(Table table) {
+            Object leftConstant = Table.parseConstant(parts[0]);
+            Object rightConstant = Table.parseConstant(parts[2]);
+            if (leftConstant != null && rightConstant != null) {
+                return compile(table).test(0) ? 1 : 0;
+            }
+            double equal = 0.1;
+            String column = leftConstant == null ? parts[0] : parts[2];
+            Object constant = leftConstant == null ? rightConstant : leftConstant;
+            int index = table.getOperandColumn(column);
+            TableStatistics.ColumnStatistics statistics = index != -1 && table.hasStatistics()
+                    ? table.getStatistics().getColumn(table.getOperandColumnName(column)) : null;
+            if (statistics != null && statistics.distinctCount() > 0) {
+                // Each distinct value is assumed to be equally likely
+                equal = 1.0 / statistics.distinctCount();
+            } else if (index != -1 && table.getColumn(index) instanceof Column.StringCodes stringColumn && constant instanceof String s
+                    && table.getRowCount() > 0) {
+                String[] dictionary = stringColumn.getDictionary();
+                equal = Arrays.binarySearch(dictionary, s) < 0 ? 0 : 1.0 / dictionary.length;
+            }
+            double below = statistics == null ? -1 : statistics.fractionBelow(constant);
+            if (below == -1) {
+                return switch (parts[1]) {
+                    case "=" -> equal;
+                    case "!=" -> 1 - equal;
+                    default -> 1.0 / 3;
+                };
+            }
+            // The column is on the left of "column < constant" or on the right of "constant < column"
+            boolean columnBelow = leftConstant == null == (parts[1].charAt(0) == '<');
+            return switch (parts[1]) {
+                case "=" -> equal;
+                case "!=" -> 1 - equal;
+                case "<", ">" -> columnBelow ? below : Math.max(0, 1 - below - equal);
+                default -> columnBelow ? Math.min(1, below + equal) : 1 - below;
+            };
+        }
+
+        @Override
+        public boolean mayMatch(Table table, int block) {
+            Object leftConstant = Table.parseConstant(parts[0].trim());
+            Object rightConstant = Table.parseConstant(parts[2].trim());
+            if ((leftConstant == null) == (rightConstant == null)) return true;
+            int index = table.getOperandColumn(leftConstant == null ? parts[0].trim() : parts[2].trim());
+            if (index == -1 || !(table.getColumn(index) instanceof MappedColumn column)) return true;
+            return leftConstant == null ? column.mayMatch(block, parts[1], RowPredicate.widen(column, rightConstant))
+                    : column.mayMatch(block, RowPredicate.flip(parts[1]), RowPredicate.widen(column, leftConstant));
+        }
+
+        /**
+         * Looks up the comparison in the index of its column, if it compares a column with a constant
+         */
+        private ColumnIndex.Range lookup(Table table) {
+            Object leftConstant = Table.parseConstant(parts[0].trim());
+            Object rightConstant = Table.parseConstant(parts[2].trim());
+            if ((leftConstant == null) == (rightConstant == null)) return null;
+            int index = table.getOperandColumn(leftConstant == null ? parts[0].trim() : parts[2].trim());
+            Column column = index == -1 ? null : table.getColumn(index);
+            ColumnIndex columnIndex = column == null ? null : column.getIndex();
+            if (columnIndex == null) return null;
+            return leftConstant == null ? columnIndex.range(parts[1], RowPredicate.widen(column, rightConstant))
+                    : columnIndex.range(RowPredicate.flip(parts[1]), RowPredicate.widen(column, leftConstant));
+        }
+
+        @Override
+        public Set<String> getColumns() {
+            Set<String> columns = new LinkedHashSet<>();
+            if (Table.parseConstant(parts[0]) == null) columns.add(parts[0]);
+            if (Table.parseConstant(parts[2]) == null) columns.add(parts[2]);
+            return columns;
+        }
+
+        @Override
+        public String toString() {
+            return parts[0] + parts[1] + parts[2];
+        }
+    }
+
+    /**
+     * Conditions that must all be satisfied
+     */
+    public static final class And extends Condition {
+        private final List<Condition> conditions;
+
+        public And(List<Condition> conditions) {
+            this.conditions = List.copyOf(conditions);
+        }
+
+        public List<Condition> getConditions() {
+            return conditions;
+        }
+
+        @Override
+        public RowPredicate compile(Table table) {
+            // Test the most selective conditions first, so most rows are rejected after one comparison
+            RowPredicate[] predicates = conditions.stream()
+                    .sorted(Comparator.comparingDouble(condition -> condition.selectivity(table)))
+                    .map(condition -> condition.compile(table))
+                    .toArray(RowPredicate[]::new);
+            if (predicates.length == 2) {
+                RowPredicate first = predicates[0], second = predicates[1];
+                return row -> first.test(row) && second.test(row);
+            }
+            return row -> {
+                for (RowPredicate predicate : predicates) {
+                    if (!predicate.test(row)) return false;
+                }
+                return true;
+            };
+        }
+
+        @Override
+        public double selectivity(Table table) {
+            double selectivity = 1;
+            for (Condition condition : conditions) selectivity *= condition.selectivity(table);
+            return selectivity;
+        }
+
+        @Override
+        public boolean mayMatch(Table table, int block) {
+            for (Condition condition : conditions) {
+                if (!condition.mayMatch(table, block)) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public Set<String> getColumns() {
+            return columnsOf(conditions);
+        }
+
+        @Override
+        public List<Condition> conjuncts() {
+            return conditions;
+        }
+
+        @Override
+        public String toString() {
+            return join(conditions, " AND ");
+        }
+    }
+
+    /**
+     * Conditions of which at least one must be satisfied
+     */
+    public static final class Or extends Condition {
+        private final List<Condition> conditions;
+
+        public Or(List<Condition> conditions) {
+            this.conditions = List.copyOf(conditions);
+        }
+
+        public List<Condition> getConditions() {
+            return conditions;
+        }
+
+        @Override
+        public RowPredicate compile(Table table) {
+            // Test the least selective conditions first, so most rows are accepted after one comparison
+            RowPredicate[] predicates = conditions.stream()
+                    .sorted(Comparator.comparingDouble(condition -> -condition.selectivity(table)))
+                    .map(condition -> condition.compile(table))
+                    .toArray(RowPredicate[]::new);
+            if (predicates.length == 2) {
+                RowPredicate first = predicates[0], second = predicates[1];
+                return row -> first.test(row) || second.test(row);
+            }
+            return row -> {
+                for (RowPredicate predicate : predicates) {
+                    if (predicate.test(row)) return true;
+                }
+                return false;
+            };
+        }
+
+        @Override
+        public double selectivity(Table table) {
+            double rejected = 1;
+            for (Condition condition : conditions) rejected *= 1 - condition.selectivity(table);
+            return 1 - rejected;
+        }
+
+        @Override
+        public boolean mayMatch(Table table, int block) {
+            for (Condition condition : conditions) {
+                if (condition.mayMatch(table, block)) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Set<String> getColumns() {
+            return columnsOf(conditions);
+        }
+
+        @Override
+        public String toString() {
+            return join(conditions, " OR ");
+        }
+    }
+
+    /**
+     * A condition that must not be satisfied
+     */
+    public static final class Not extends Condition {
+        private final Condition condition;
+
+        public Not(Condition condition) {
+            this.condition = condition;
+        }
+
+        public Condition getCondition() {
+            return condition;
+        }
+
+        @Override
+        public RowPredicate compile(Table table) {
+            RowPredicate predicate = condition.compile(table);
+            return row -> !predicate.test(row);
+        }
+
+        @Override
+        public double selectivity(Table table) {
+            return 1 - condition.selectivity(table);
+        }
+
+        @Override
+        public boolean mayMatch(Table table, int block) {
+            return true;  // The min and max of a block do not tell if every row satisfies the negated condition
+        }
+
+        @Override
+        public Set<String> getColumns() {
+            return condition.getColumns();
+        }
+
+        @Override
+        public String toString() {
+            return "NOT " + (condition instanceof Comparison ? condition : "(" + condition + ")");
+        }
+    }
+
+    private static Set<String> columnsOf(List<Condition> conditions) {
+        Set<String> columns = new LinkedHashSet<>();
+        for (Condition condition : conditions) {
+            columns.addAll(condition.getColumns());
+        }
+        return columns;
+    }
+
+    private static String join(List<Condition> conditions, String separator) {
+        StringJoiner joiner = new StringJoiner(separator);
+        for (Condition condition : conditions) {
+            joiner.add(condition instanceof Comparison || condition instanceof Not ? condition.toString() : "(" + condition + ")");
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Recursive descent parser for conditions:
+     * or := and (OR and)*, and := factor (AND factor)*, factor := NOT factor | ( or ) | operand op operand
+     */
+    private static final class Parser {
+        private final String text;
+        private int pos;  // Position of the next character to read
+        private int end;  // Position after the last character of the condition read so far
+
+        private Parser(String text, int start) {
+            this.text = text;
+            this.pos = start;
+            this.end = start;
+        }
+
+        private Condition parse() {
+            Condition condition = parseOr();
+            skipWhitespace();
+            return condition;
+        }
+
+        private Condition parseOr() {
+            ArrayList<Condition> conditions = new ArrayList<>();
+            do {
+                Condition condition = parseAnd();
+                if (condition == null) return null;
+                conditions.add(condition);
+            } while (keyword("OR", "∨"));
+            return conditions.size() == 1 ? conditions.getFirst() : new Or(conditions);
+        }
+
+        private Condition parseAnd() {
+            ArrayList<Condition> conditions = new ArrayList<>();
+            do {
+                Condition condition = parseFactor();
+                if (condition == null) return null;
+                conditions.add(condition);
+            } while (keyword("AND", "∧"));
+            return conditions.size() == 1 ? conditions.getFirst() : new And(conditions);
+        }
+
+        private Condition parseFactor() {
+            skipWhitespace();
+            if (keyword("NOT", "¬")) {
+                Condition condition = parseFactor();
+                return condition == null ? null : new Not(condition);
+            }
+            if (pos < text.length() && text.charAt(pos) == '(') {
+                pos++;
+                Condition condition = parseOr();
+                skipWhitespace();
+                if (condition == null || pos >= text.length() || text.charAt(pos) != ')') return null;
+                end = ++pos;
+                return condition;
+            }
+            return parseComparison();
+        }
+
+        private Condition parseComparison() {
+            String left = parseOperand();
+            skipWhitespace();
+            String op = null;
+            for (String operator : Table.OPERATORS) {
+                if (text.startsWith(operator, pos)) {
+                    op = operator;
+                    break;
+                }
+            }
+            if (left == null || op == null) return null;
+            pos += op.length();
+            skipWhitespace();
+            String right = parseOperand();
+            if (right == null) return null;
+            end = pos;
+            return new Comparison(left, op, right);
+        }
+
+        /**
+         * Reads a quoted string or a column name or number
+         */
+        private String parseOperand() {
+            int start = pos;
+            if (pos < text.length() && text.charAt(pos) == '\'') {
+                int close = text.indexOf('\'', pos + 1);
+                if (close == -1) return null;
+                pos = close + 1;
+                return text.substring(start, pos);
+            }
+            while (pos < text.length() && !Character.isWhitespace(text.charAt(pos)) && "()<>=!'".indexOf(text.charAt(pos)) == -1) {
+                pos++;
+            }
+            return pos == start ? null : text.substring(start, pos);
+        }
+
+        /**
+         * Reads a keyword if it is next, e.g. AND followed by whitespace or a bracket
+         */
+        private boolean keyword(String word, String symbol) {
+            int start = pos;
+            skipWhitespace();
+            if (text.startsWith(symbol, pos)) {
+                pos += symbol.length();
+                return true;
+            }
+            int after = pos + word.length();
+            if (text.regionMatches(true, pos, word, 0, word.length())
+                    && after < text.length() && (Character.isWhitespace(text.charAt(after)) || text.charAt(after) == '(')) {
+                pos = after;
+                return true;
+            }
+            pos = start;
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package norelations;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.*;
+import java.util.Scanner;
+import com.google.common.base.Optional;
+import org.apache.logging.log4j.*;
+
+public class Controller {
+    private static final Logger logger = LogManager.getLogger(Controller.class);
+    private final Query query;
+    private final ScriptRunner commands;
+    private final Scanner scanner;
+    private final StringBuilder userInputBuilder;
+    private String userInput;
+    private boolean activeStatement;
+
+    public Controller() {
+        query = new Query();
+        commands = new ScriptRunner(query, 1);
+        scanner = new Scanner(System.in);
+        userInputBuilder = new StringBuilder();
+        userInput = "";
+        activeStatement = false;
+    }
+
+    public void start() {
+        try {
+            System.out.println("Enter a query and type 'finish.' to send query, 'help.' for help or commands, or 'exit.' to quit.");
+
+            while (true) {
+                if (!activeStatement) {
+                    printPrompt("Start a new query or type 'help.' for help.");
+                }
+                userInput = scanner.nextLine();
+                activeStatement = true;
+
+                if (userInput.contains("finish.")) {
+                    finishQuery();
+                    printPrompt("");
+                } else if (userInput.contains("explainAnalyze.") || userInput.contains("explain.")) {
+                    explainQuery(userInput.contains("explainAnalyze.") ? "explainAnalyze." : "explain.");
+                    printPrompt("");
+                } else if (userInput.toLowerCase().contains("exit.")) {
+                    printPrompt("Exiting terminal.");
+                    break;
+                } else if (userInput.equals("help.")) {
+                    printHelp();
+                } else if (userInput.equals("clear.")) {
+                    userInputBuilder.setLength(0);
+                    printPrompt("Cleared query.");
+                } else if (userInput.equals("print.")) {
+                    printPrompt(userInputBuilder.toString());
+                } else if (ScriptRunner.isCommand(userInput)) {
+                    handleCommand(userInput);
+                } else {
+                    userInputBuilder.append(userInput).append("\n");
+                }
+            }
+
+            scanner.close();
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs a script of queries and commands without prompting, independent statements at the same time
+     *
+     * @param path    path of the script file
+     * @param threads number of statements run at the same time
+     * @return true if every statement of the script succeeded
+     */
+    public boolean runScript(String path, int threads) {
+        try {
+            int failed = new ScriptRunner(query, threads).run(Files.readAllLines(Paths.get(path)), System.out);
+            if (failed > 0) logger.error(failed + " statements failed.");
+            return failed == 0;
+        } catch (IOException | InvalidPathException e) {
+            logger.error("Cannot read script " + path + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Serves sessions of queries over TCP until the process is stopped, see QueryServer
+     *
+     * @param host address to listen on, e.g. localhost
+     * @param port port to listen on
+     * @return false if the server could not be started
+     */
+    public boolean serve(String host, int port) {
+        try (QueryServer server = new QueryServer(query, InetAddress.getByName(host), port)) {
+            System.out.println("Serving queries on " + server.getAddress() + ".");
+            server.serve();
+            return true;
+        } catch (IOException e) {
+            logger.error("Cannot serve on " + host + ":" + port + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Executes a command, e.g. saveLast[name]. or load[name, path]., the way a script and a server session do
+     *
+     * @param userInput user input
+     */
+    private void handleCommand(String userInput) {
+        try {
+            if (!commands.executeCommand(userInput, query.getLastTable().orNull(), System.out)) logger.error("Command failed: " + userInput);
+        } catch (RuntimeException e) {
+            logger.error("Error: " + e.getMessage());
+            logger.error("Command failed: " + userInput);
+        }
+        printPrompt("");
+    }
+
+    /**
+     * Parses query and prints table.
+     */
+    private void finishQuery() {
+        userInputBuilder.append(userInput, 0, userInput.indexOf("finish."));
+        try {
+            Optional<Table> result = query.parseQuery(userInputBuilder.toString());
+            if(result.isPresent()) printTable(result.get());
+            else System.out.println("No query.");
+        } catch (Exception e) {
+            logger.error("Error: " + e.getMessage());
+            logger.error("Query failed.");
+        }
+        activeStatement = false;
+        userInputBuilder.setLength(0);
+    }
+
+    /**
+     * Prints the operator tree of the query instead of its result.
+     * if the query ends with explain. then the optimized plan is printed without executing it
+     * if the query ends with explainAnalyze. then it is executed and each operator is printed with its metrics
+     *
+     * @param keyword the keyword ending the query
+     */
+    private void explainQuery(String keyword) {
+        userInputBuilder.append(userInput, 0, userInput.indexOf(keyword));
+        try {
+            String text = userInputBuilder.toString();
+            Optional<String> plan = keyword.equals("explain.") ? query.explain(text) : query.explainAnalyze(text);
+            if(plan.isPresent()) System.out.print(plan.get());
+            else System.out.println("No query.");
+        } catch (Exception e) {
+            logger.error("Error: " + e.getMessage());
+            logger.error("Query failed.");
+        }
+        activeStatement = false;
+        userInputBuilder.setLength(0);
+    }
+
+    /**
+     * Prints prompt.
+     *
+     * @param message message to print
+     */
+    private void printPrompt(String message) {
+        if (!message.isEmpty()) {
+            System.out.println(message);
+        }
+        System.out.print(">>> ");
+    }
+
+    /**
+     * Prints help.
+     */
+    private void printHelp() {
+        System.out.println("""
+                Type 'finish.' to send query or 'tableName finish.' to print a saved table
+                'explain.' instead of 'finish.' to print the optimized plan of the query without executing it
+                'explainAnalyze.' instead of 'finish.' to execute the query and print the time, rows, allocated memory and algorithm of each operator
+                'help.' for help,
+                'clear.' to clear query,
+                'print.' to print the current query,
+                'last.' to print last table,
+                'lastAsRelation.' to print last table as relation,
+                'tables.' to print all the name of the tables,
+                'stats.' to print the queries per second, latency percentiles, result cache hit rate and heap memory of each table
+                'saveLast[name].' to save the last query. Replace 'name' in command with new name for table
+                'exportLast[name].' to export the last query as a csv. Replace 'name' in command with new name for table
+                'exportLast[name, gzip].' to export the last query as a gzip compressed csv called name.csv.gz
+                'exportLast.' to export the last query as a csv with default name table.csv
+                'load[name, path].' to load a csv file with a header line as a table. Replace 'name' with the table name and 'path' with the file path
+                'load[name, path, directory].' to load a csv file larger than memory into a disk table in a new directory
+                'store[name, directory].' to move a table to a disk table in a new directory, its values are then read from disk
+                'open[name, directory].' to open a disk table as a table called name
+                'createIndex[table, column].' to index a column, selections comparing it with a constant and joins on it then use the index
+                'persist[directory].' to write all the tables to binary files in a directory
+                'restore[directory].' to read the tables written by 'persist[directory].', also done at startup for a directory given as argument
+                'cache[megabytes].' to cap the memory of cached query results, 'cache[0].' to disable the cache
+                'parallelism[n].' to run selections and joins on n threads, 'parallelism[1].' to run on one thread
+                'streaming[on].' or 'streaming[off].' to stream rows through the operators in batches instead of materializing each result
+                or 'exit.' to quit.""");
+    }
+
+    /**
+     * Reads the tables persisted in a directory, e.g. at startup
+     *
+     * @param directory path of the directory
+     */
+    public void restoreCatalog(String directory) {
+        if (query.restoreCatalog(directory)) System.out.println("Restored tables from " + directory + ".");
+        else logger.error("Failed to restore tables.");
+    }
+
+    /**
+     * Registers the metrics of the queries over JMX, as NoRelations:type=QueryMetrics
+     */
+    public void registerMetrics() {
+        if (!query.registerMetrics()) logger.error("Failed to register the query metrics.");
+    }
+
+    private void printTable(Table table) {
+        table.printTable();
+    }
+}
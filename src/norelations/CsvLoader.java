@@ -0,0 +1,620 @@
+package norelations;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Bulk loader for CSV files. The file is read with a FileChannel in large blocks and tokenized in a single pass over
+ * its bytes, without regular expressions or splitting rows into strings, and the values are appended straight into
+ * the column builders. The first line holds the column names. Column types are inferred from a sample of the first
+ * rows: a column is Integer, Double or Boolean if all its sampled values are, otherwise String.
+ * Fields may be quoted with " (doubled inside the field) or ', quoted fields are always strings. Blank lines are skipped.
+ * When the parallel mode is on, large files are split into byte ranges starting after a newline, which are parsed
+ * concurrently into separate columns that are then concatenated in file order. Each range must start where the last
+ * record of the range before it ends, otherwise, e.g. when it starts at a newline in a quoted field, the file is parsed
+ * again in one range.
+ */
+public final class CsvLoader {
+    static final int SAMPLE_ROWS = 1000;  // Number of rows the column types are inferred from
+    private static final int BUFFER_SIZE = 1 << 20;  // Initial size of the read buffer, it grows for longer rows
+    static final int MIN_CHUNK_BYTES = 8 << 20;  // Smaller files are parsed on the calling thread
+    static final int BATCH_ROWS = 1 << 16;  // Number of rows of the batches of a file loaded in batches
+
+    private CsvLoader() {
+    }
+
+    /**
+     * Loads a CSV file into a table
+     *
+     * @param path - String representing the path of the file
+     * @return New Table with the rows of the file, or null if the file cannot be read or is invalid
+     */
+    public static Table load(String path) {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            return load(channel);
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("Error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Loads a CSV file in batches of rows, so the file does not have to fit on the heap, e.g. to write it to a DiskTable.
+     * The file is parsed on the calling thread, the batches are in file order.
+     *
+     * @param path     - String representing the path of the file
+     * @param consumer - BatchConsumer taking the batches, the last one may be empty
+     * @return True if every row was loaded, false if the file cannot be read or is invalid or the consumer stopped
+     */
+    public static boolean load(String path, BatchConsumer consumer) {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            if (header == null) return false;
+            Chunk chunk = parseChunk(channel, header.dataStart, channel.size(), header, consumer);
+            return reportErrors(List.of(chunk)) && !chunk.stopped;
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static Table load(FileChannel channel) throws IOException {
+        Header header = readHeader(channel);
+        if (header == null) return null;
+
+        // A newline inside a quoted field could be taken for the start of a chunk, files whose sampled rows have one
+        // are parsed in one chunk
+        long dataBytes = channel.size() - header.dataStart;
+        int parallelism = ParallelExecution.getParallelism();
+        int chunkCount = parallelism == 1 || header.multiLineRecords ? 1
+                : (int) Math.max(1, Math.min(parallelism * 4L, dataBytes / MIN_CHUNK_BYTES));
+        long[] bounds = chunkBounds(channel, header.dataStart, chunkCount);
+        ArrayList<Supplier<Chunk>> tasks = new ArrayList<>();
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            long start = bounds[i], end = bounds[i + 1];
+            tasks.add(() -> parseChunk(channel, start, end, header, null));
+        }
+        List<Chunk> chunks = ParallelExecution.computeAll(tasks);
+        if (!recordsAligned(chunks, bounds)) chunks = List.of(parseChunk(channel, header.dataStart, channel.size(), header, null));
+        if (!reportErrors(chunks)) return null;
+
+        int rowCount = 0;
+        for (Chunk chunk : chunks) rowCount += chunk.rowCount;
+        ArrayList<Column> columns = new ArrayList<>();
+        for (int col = 0; col < header.colType.size(); col++) {
+            ArrayList<Column> parts = new ArrayList<>();
+            for (Chunk chunk : chunks) parts.add(chunk.columns.get(col));
+            columns.add(Column.concat(parts));
+        }
+        return new Table(header.colType, header.colIndex, columns, rowCount);
+    }
+
+    /**
+     * Column names and types of a file, and what the rows sampled to infer the types tell about the rest
+     */
+    private static final class Header {
+        private final HashMap<String, Integer> colIndex = new HashMap<>();
+        private ArrayList<Class<?>> colType;
+        private long dataStart;  // Position in the file of the first row
+        private long recordLength;  // Average length of a sampled row
+        private boolean multiLineRecords;  // True if a sampled row has a newline in a quoted field
+    }
+
+    /**
+     * Reads the column names and infers the column types
+     *
+     * @param channel - FileChannel of the file
+     * @return Header of the file, or null if it is empty or its header or sampled rows are invalid
+     */
+    private static Header readHeader(FileChannel channel) throws IOException {
+        Reader reader = new Reader(channel, 0, Long.MAX_VALUE);
+        if (!reader.nextRecord()) {
+            System.out.println("Error: The file is empty");
+            return null;
+        }
+        Header header = new Header();
+        for (int field = 0; field < reader.fieldCount; field++) {
+            String name = reader.text(field);
+            if (name.isEmpty() || header.colIndex.putIfAbsent(name, field) != null) {
+                System.out.println("Error: Invalid or duplicate column name '" + name + "'");
+                return null;
+            }
+        }
+        header.dataStart = reader.position();
+        header.colType = inferTypes(reader, header.colIndex.size());
+        if (header.colType == null) return null;
+        header.recordLength = Math.max(1, reader.averageRecordLength());
+        header.multiLineRecords = reader.multiLineRecords;
+        return header;
+    }
+
+    /**
+     * Checks that each chunk of a file starts at a record: the first chunk starts at the first row, so a chunk does if
+     * the chunk before it does and its last record ends where the chunk starts
+     *
+     * @param chunks - List of the chunks of the file, in file order
+     * @param bounds - Array of the positions the chunks start at, followed by the size of the file
+     * @return True if every chunk up to the first invalid one starts at a record, false otherwise
+     */
+    private static boolean recordsAligned(List<Chunk> chunks, long[] bounds) {
+        for (int i = 0; i + 1 < chunks.size(); i++) {
+            Chunk chunk = chunks.get(i);
+            if (chunk.failure != null || chunk.errorRow != 0) return true;  // The error is in a chunk starting at a record
+            if (chunk.end != bounds[i + 1]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Prints the first invalid row of the chunks of a file. Rows are numbered from the start of their chunk, the rows
+     * of the chunks before it are added.
+     *
+     * @param chunks - List of the chunks of the file, in file order
+     * @return True if every row is valid, false otherwise
+     */
+    private static boolean reportErrors(List<Chunk> chunks) throws IOException {
+        int rowCount = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk.failure != null) throw chunk.failure;
+            if (chunk.errorRow != 0) {
+                int row = rowCount + chunk.errorRow;
+                System.out.println(chunk.errorColumn == -1 ? "Error: Invalid number of columns at row " + row
+                        : "Error: Invalid data type at row " + row + ", column " + chunk.errorColumn);
+                return false;
+            }
+            rowCount += chunk.rowCount;
+        }
+        return true;
+    }
+
+    /**
+     * Columns parsed from a range of the file, or the first invalid row in it
+     */
+    private static final class Chunk {
+        private final ArrayList<Column> columns = new ArrayList<>();
+        private int rowCount;
+        private int errorRow;  // Row number of the first invalid row counted from the start of the chunk, 0 if none
+        private int errorColumn;  // Column with an invalid value in that row, -1 if the row has the wrong number of columns
+        private IOException failure;
+        private boolean stopped;  // True if the consumer of the batches stopped taking them
+        private long end;  // Position in the file after the last record parsed
+    }
+
+    /**
+     * Parses the records starting in a range of the file
+     *
+     * @param channel  - FileChannel of the file
+     * @param start    - Position in the file of the first record
+     * @param end      - Position in the file after the last record
+     * @param header   - Header of the file
+     * @param consumer - BatchConsumer taking batches of BATCH_ROWS rows, or null to collect the rows in the chunk's columns
+     * @return Chunk with the parsed columns
+     */
+    private static Chunk parseChunk(FileChannel channel, long start, long end, Header header, BatchConsumer consumer) {
+        Chunk chunk = new Chunk();
+        List<Class<?>> colType = header.colType;
+        int expectedRows = consumer != null ? BATCH_ROWS : (int) Math.min(Integer.MAX_VALUE - 8, (end - start) / header.recordLength + 16);
+        ArrayList<Column.Builder> builders = new ArrayList<>();
+        for (Class<?> type : colType) builders.add(Column.builder(type, expectedRows));
+        Reader reader = new Reader(channel, start, end);
+        int batchRows = 0;
+        try {
+            while (reader.nextRecord()) {
+                if (reader.isBlank()) continue;
+                chunk.rowCount++;
+                if (reader.fieldCount != builders.size()) {
+                    chunk.errorRow = chunk.rowCount;
+                    chunk.errorColumn = -1;
+                    return chunk;
+                }
+                for (int col = 0; col < builders.size(); col++) {
+                    if (!reader.append(col, builders.get(col), colType.get(col))) {
+                        chunk.errorRow = chunk.rowCount;
+                        chunk.errorColumn = col;
+                        return chunk;
+                    }
+                }
+                if (consumer != null && ++batchRows == BATCH_ROWS) {
+                    if (!consumer.accept(batch(header, builders, batchRows))) {
+                        chunk.stopped = true;
+                        return chunk;
+                    }
+                    for (int col = 0; col < builders.size(); col++) builders.set(col, Column.builder(colType.get(col), BATCH_ROWS));
+                    batchRows = 0;
+                }
+            }
+        } catch (IOException e) {
+            chunk.failure = e;
+            return chunk;
+        }
+        chunk.end = reader.position();
+        if (consumer != null) chunk.stopped = !consumer.accept(batch(header, builders, batchRows));
+        else for (Column.Builder builder : builders) chunk.columns.add(builder.build());
+        return chunk;
+    }
+
+    private static Table batch(Header header, List<Column.Builder> builders, int rows) {
+        ArrayList<Column> columns = new ArrayList<>();
+        for (Column.Builder builder : builders) columns.add(builder.build());
+        return new Table(new ArrayList<>(header.colType), new HashMap<>(header.colIndex), columns, rows);
+    }
+
+    /**
+     * Splits the rows of a file into ranges of about the same size, each starting after a newline
+     *
+     * @param channel    - FileChannel of the file
+     * @param dataStart  - Position in the file of the first row
+     * @param chunkCount - Number of ranges to split into
+     * @return Array of the positions the ranges start at, followed by the size of the file
+     */
+    private static long[] chunkBounds(FileChannel channel, long dataStart, int chunkCount) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[chunkCount + 1];
+        bounds[0] = dataStart;
+        bounds[chunkCount] = size;
+        for (int i = 1; i < chunkCount; i++) {
+            long position = Math.max(bounds[i - 1], dataStart + (size - dataStart) / chunkCount * i);
+            bounds[i] = nextLineStart(channel, position);
+        }
+        return bounds;
+    }
+
+    /**
+     * Finds the start of the first line at or after a position
+     *
+     * @return Position after the first newline from the byte before the position, or the size of the file
+     */
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        long readPosition = position - 1;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, readPosition);
+            if (read <= 0) return channel.size();
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') return readPosition + i + 1;
+            }
+            readPosition += read;
+        }
+    }
+
+    /**
+     * Infers the column types from the rows following the header
+     *
+     * @param reader   - Reader positioned after the header
+     * @param colCount - Number of columns
+     * @return ArrayList of column types, or null if a sampled row has the wrong number of columns
+     */
+    private static ArrayList<Class<?>> inferTypes(Reader reader, int colCount) throws IOException {
+        ArrayList<Class<?>> colType = new ArrayList<>(Collections.nCopies(colCount, null));
+        for (int row = 1; row <= SAMPLE_ROWS && reader.nextRecord(); row++) {
+            if (reader.isBlank()) {
+                row--;
+                continue;
+            }
+            if (reader.fieldCount != colCount) {
+                System.out.println("Error: Invalid number of columns at row " + row);
+                return null;
+            }
+            for (int col = 0; col < colCount; col++) {
+                colType.set(col, widen(colType.get(col), reader.typeOf(col)));
+            }
+        }
+        colType.replaceAll(type -> type == null ? String.class : type);
+        return colType;
+    }
+
+    /**
+     * Finds the type holding the values of two types: Double for Integer and Double, otherwise String if they differ
+     */
+    private static Class<?> widen(Class<?> type, Class<?> valueType) {
+        if (type == null || type == valueType) return valueType;
+        if ((type == Integer.class || type == Double.class) && (valueType == Integer.class || valueType == Double.class)) {
+            return Double.class;
+        }
+        return String.class;
+    }
+
+    /**
+     * Reads the records of a file from a byte position and splits them into fields, without copying the bytes
+     * of a field until its value is needed
+     */
+    private static final class Reader {
+        private final FileChannel channel;
+        private final long end;  // Position in the file before which the last record to read starts
+        private byte[] bytes = new byte[BUFFER_SIZE];
+        private int pos;  // Index in bytes of the next record
+        private int limit;  // Number of bytes read into bytes
+        private long offset;  // Position in the file of bytes[0]
+        private long readPosition;  // Position in the file of the next byte to read
+        private boolean eof;
+        private int[] fieldStart = new int[16];
+        private int[] fieldEnd = new int[16];
+        private byte[] fieldQuote = new byte[16];  // Quote character of each field, 0 if it is not quoted
+        private int fieldCount;
+        private long records;
+        private long recordBytes;
+        private boolean multiLineRecords;  // True once a record with a newline in a quoted field was read
+
+        private Reader(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.end = end;
+            offset = start;
+            readPosition = start;
+        }
+
+        /**
+         * Reads the next record
+         *
+         * @return True if a record was read, false at the end of the file or of the range to read
+         */
+        private boolean nextRecord() throws IOException {
+            if (position() >= end) return false;
+            int recordEnd = findRecordEnd();
+            if (recordEnd == -1) return false;
+            splitFields(pos, recordEnd);
+            recordBytes += recordEnd + 1 - pos;
+            records++;
+            pos = Math.min(recordEnd + 1, limit);
+            return true;
+        }
+
+        /**
+         * Returns the position in the file after the last record read
+         */
+        private long position() {
+            return offset + pos;
+        }
+
+        private long averageRecordLength() {
+            return records == 0 ? 1 : recordBytes / records;
+        }
+
+        /**
+         * Finds the newline ending the next record, reading more of the file as needed. Newlines in quoted fields do
+         * not end a record; a field is quoted, and closed, the way splitFields() reads it.
+         *
+         * @return Index in bytes of the newline, the end of the bytes for a last record without newline, or -1 at the end of the file
+         */
+        private int findRecordEnd() throws IOException {
+            int scan = pos;
+            byte quote = 0;  // Quote character of the open field, 0 outside quotes
+            boolean fieldStart = true;  // True until a byte other than a space is read in the field
+            boolean reopen = false;  // True after a closing ", which another " makes an escaped "
+            boolean closing = false;  // True after a ' followed so far only by spaces, which a comma or newline closes
+            boolean carriageReturn = false;  // True after a \r following such a ', which only a newline closes
+            while (true) {
+                while (scan < limit) {
+                    byte b = bytes[scan++];
+                    if (quote == '\'') {
+                        if (closing) {
+                            if (b == '\n') return scan - 1;
+                            if (b == ',' && !carriageReturn) {
+                                quote = 0;
+                                fieldStart = true;
+                                closing = false;
+                                continue;
+                            }
+                            if (b == '\r' && !carriageReturn) carriageReturn = true;
+                            else if (!(b == ' ' || b == '\t') || carriageReturn) closing = carriageReturn = false;
+                            if (closing) continue;
+                        }
+                        if (b == '\'') closing = true;
+                        else if (b == '\n') multiLineRecords = true;
+                    } else if (quote == '"') {
+                        if (b == '"') {
+                            quote = 0;
+                            reopen = true;
+                        } else if (b == '\n') {
+                            multiLineRecords = true;
+                        }
+                    } else if (reopen && b == '"') {
+                        quote = '"';
+                        reopen = false;
+                    } else {
+                        reopen = false;
+                        if (b == '\n') return scan - 1;
+                        if (b == ',') {
+                            fieldStart = true;
+                        } else if (fieldStart && b != ' ' && b != '\t') {
+                            fieldStart = false;
+                            if (b == '"' || b == '\'') quote = b;
+                        }
+                    }
+                }
+                if (eof) return pos == limit ? -1 : limit;
+                int scanned = scan - pos;
+                fill();
+                scan = pos + scanned;
+            }
+        }
+
+        /**
+         * Moves the unread bytes to the start of the buffer and reads more of the file after them
+         */
+        private void fill() throws IOException {
+            if (pos > 0) {
+                System.arraycopy(bytes, pos, bytes, 0, limit - pos);
+                offset += pos;
+                limit -= pos;
+                pos = 0;
+            }
+            if (limit == bytes.length) bytes = Arrays.copyOf(bytes, bytes.length * 2);  // A record longer than the buffer
+            int read = channel.read(ByteBuffer.wrap(bytes, limit, bytes.length - limit), readPosition);
+            if (read <= 0) {
+                eof = true;
+            } else {
+                readPosition += read;
+                limit += read;
+            }
+        }
+
+        /**
+         * Splits a record into fields at the commas outside quotes, trimming spaces around unquoted fields
+         *
+         * @param from - Index in bytes of the first byte of the record
+         * @param to   - Index in bytes after the last byte of the record
+         */
+        private void splitFields(int from, int to) {
+            if (to > from && bytes[to - 1] == '\r') to--;
+            fieldCount = 0;
+            int i = from;
+            while (true) {
+                while (i < to && (bytes[i] == ' ' || bytes[i] == '\t')) i++;
+                int start = i, end;
+                byte quote = 0;
+                if (i < to && (bytes[i] == '"' || bytes[i] == '\'')) {
+                    quote = bytes[i];
+                    start = ++i;
+                    while (i < to && !closesQuote(i, to, quote)) i += quote == '"' && bytes[i] == '"' ? 2 : 1;
+                    end = Math.min(i, to);
+                    while (i < to && bytes[i] != ',') i++;  // Skip the closing quote and spaces after it
+                } else {
+                    while (i < to && bytes[i] != ',') i++;
+                    end = i;
+                    while (end > start && (bytes[end - 1] == ' ' || bytes[end - 1] == '\t')) end--;
+                }
+                addField(start, end, quote);
+                if (i >= to) return;
+                i++;
+            }
+        }
+
+        /**
+         * Checks if the byte at an index is the quote closing a field: a " not followed by another ", or a ' followed
+         * only by spaces before the next comma or the end of the record
+         */
+        private boolean closesQuote(int i, int to, byte quote) {
+            if (bytes[i] != quote) return false;
+            if (quote == '"') return i + 1 >= to || bytes[i + 1] != '"';
+            int next = i + 1;
+            while (next < to && (bytes[next] == ' ' || bytes[next] == '\t')) next++;
+            return next >= to || bytes[next] == ',';
+        }
+
+        private void addField(int start, int end, byte quote) {
+            if (fieldCount == fieldStart.length) {
+                fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+                fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+                fieldQuote = Arrays.copyOf(fieldQuote, fieldCount * 2);
+            }
+            fieldStart[fieldCount] = start;
+            fieldEnd[fieldCount] = end;
+            fieldQuote[fieldCount++] = quote;
+        }
+
+        private boolean isBlank() {
+            return fieldCount == 1 && fieldStart[0] == fieldEnd[0] && fieldQuote[0] == 0;
+        }
+
+        /**
+         * Returns the text of a field, without its quotes
+         */
+        private String text(int field) {
+            String text = new String(bytes, fieldStart[field], fieldEnd[field] - fieldStart[field], StandardCharsets.UTF_8);
+            return fieldQuote[field] == '"' && text.contains("\"\"") ? text.replace("\"\"", "\"") : text;
+        }
+
+        /**
+         * Finds the type of the value of a field
+         *
+         * @return Integer, Double or Boolean for an unquoted field holding such a value, otherwise String
+         */
+        private Class<?> typeOf(int field) {
+            if (fieldQuote[field] != 0) return String.class;
+            if (isInt(field)) return Integer.class;
+            if (isDouble(field)) return Double.class;
+            if (isBoolean(field)) return Boolean.class;
+            return String.class;
+        }
+
+        /**
+         * Appends the value of a field to a column builder
+         *
+         * @param field   - Index of the field
+         * @param builder - Column.Builder to append to
+         * @param type    - Type of the column
+         * @return True if the value was appended, false if it is not a value of the column type
+         */
+        private boolean append(int field, Column.Builder builder, Class<?> type) {
+            if (type == String.class) {
+                builder.add(text(field));
+                return true;
+            }
+            if (fieldQuote[field] != 0) return false;
+            if (type == Boolean.class) {
+                if (!isBoolean(field)) return false;
+                builder.add(bytes[fieldStart[field]] == 't' || bytes[fieldStart[field]] == 'T');
+            } else if (isInt(field)) {
+                if (type == Integer.class) builder.addInt((int) parseLong(field));
+                else builder.addDouble(parseLong(field));
+            } else if (isDouble(field)) {
+                // A double in an Integer column makes it a column of mixed values, as in tables written in a query
+                double value = Double.parseDouble(new String(bytes, fieldStart[field], fieldEnd[field] - fieldStart[field], StandardCharsets.ISO_8859_1));
+                if (type == Double.class) builder.addDouble(value);
+                else builder.add(value);
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Checks if a field is an int: an optional sign and at most 10 digits that fit in an int
+         */
+        private boolean isInt(int field) {
+            int start = fieldStart[field], end = fieldEnd[field];
+            if (start < end && (bytes[start] == '-' || bytes[start] == '+')) start++;
+            if (start == end || end - start > 10) return false;
+            for (int i = start; i < end; i++) {
+                if (bytes[i] < '0' || bytes[i] > '9') return false;
+            }
+            long value = parseLong(field);
+            return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+        }
+
+        private long parseLong(int field) {
+            int start = fieldStart[field], end = fieldEnd[field];
+            boolean negative = bytes[start] == '-';
+            if (negative || bytes[start] == '+') start++;
+            long value = 0;
+            for (int i = start; i < end; i++) value = value * 10 + (bytes[i] - '0');
+            return negative ? -value : value;
+        }
+
+        /**
+         * Checks if a field is a decimal number: an optional sign, digits with a decimal point, and an optional exponent
+         */
+        private boolean isDouble(int field) {
+            int i = fieldStart[field], end = fieldEnd[field];
+            if (i < end && (bytes[i] == '-' || bytes[i] == '+')) i++;
+            int digits = 0;
+            boolean point = false;
+            for (; i < end && (bytes[i] >= '0' && bytes[i] <= '9' || bytes[i] == '.' && !point); i++) {
+                if (bytes[i] == '.') point = true;
+                else digits++;
+            }
+            if (digits == 0) return false;
+            if (i < end && (bytes[i] == 'e' || bytes[i] == 'E')) {
+                i++;
+                if (i < end && (bytes[i] == '-' || bytes[i] == '+')) i++;
+                int exponentDigits = 0;
+                for (; i < end && bytes[i] >= '0' && bytes[i] <= '9'; i++) exponentDigits++;
+                if (exponentDigits == 0) return false;
+                point = true;
+            }
+            return point && i == end;
+        }
+
+        private boolean isBoolean(int field) {
+            int length = fieldEnd[field] - fieldStart[field];
+            String text = length == 4 || length == 5 ? new String(bytes, fieldStart[field], length, StandardCharsets.ISO_8859_1) : "";
+            return text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false");
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package norelations;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvLoaderTest {
+
+    private static String write(String content) throws IOException {
+        Path file = Files.createTempFile("table", ".csv");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, content);
+        return file.toString();
+    }
+
+    @Test
+    void testLoad() throws IOException {
+        Table table = CsvLoader.load(write("Name, Age, Height, Member\nJohn, 25, 6.0, true\r\n\"Doe, Jane\", 23, 5, false\n'Jack', 27, 5.9, TRUE"));
+        assertNotNull(table);
+        assertEquals(3, table.getRowCount());
+        assertEquals(Arrays.asList("Doe, Jane", 23, 5.0, false), table.getTable().get(1));
+        assertEquals(Arrays.asList("Jack", 27, 5.9, true), table.getTable().get(2));
+        assertInstanceOf(IntColumn.class, table.getColumn(1));
+        assertInstanceOf(DoubleColumn.class, table.getColumn(2));
+        assertEquals(1, table.select("Name='John' AND Height>5.5").getRowCount());
+    }
+
+    @Test
+    void testQuotedFields() throws IOException {
+        // A " in a 'quoted' field is text, a newline in either quoted field is part of it
+        Table table = CsvLoader.load(write("name,len\n'say \"hi',1\n\"it's \"\"two\"\"\nlines\", 2\n'it's\r\nthree' , 3\r\npipe,4\n"));
+        assertNotNull(table);
+        assertEquals(List.of(List.of("say \"hi", 1), List.of("it's \"two\"\nlines", 2), List.of("it's\r\nthree", 3), List.of("pipe", 4)),
+                table.getTable());
+    }
+
+    @Test
+    void testLoadExportedTable() throws IOException {
+        Table table = new Table(new ArrayList<>(Arrays.asList("Name, Age", "'John', 25", "'Jane', 23")));
+        String name = Files.createTempFile("export", "").toString();
+        assertTrue(ExportToCSV.exportToCSV(table, name));
+        new java.io.File(name + ".csv").deleteOnExit();
+        Table loaded = CsvLoader.load(name + ".csv");
+        assertEquals(table.getTable(), loaded.getTable());
+    }
+
+    @Test
+    void testExportQuoting() throws IOException {
+        ArrayList<Class<?>> colType = new ArrayList<>(List.of(String.class, Integer.class, Double.class));
+        HashMap<String, Integer> colIndex = new HashMap<>(Map.of("text", 0, "n", 1, "x", 2));
+        ArrayList<ArrayList<Object>> rows = new ArrayList<>();
+        for (String text : List.of("plain", "a, b", "say \"hi\"", "25", "true", " padded ", "'quoted'", "two\nlines", "")) {
+            rows.add(new ArrayList<>(Arrays.asList(text, rows.size(), rows.size() / 2.0)));
+        }
+        Table table = new Table(colType, colIndex, rows);
+        String name = Files.createTempFile("export", "").toString();
+        assertTrue(ExportToCSV.exportToCSV(table, name));
+        new java.io.File(name + ".csv").deleteOnExit();
+        assertTrue(Files.readString(Path.of(name + ".csv")).startsWith("text,n,x\nplain,0,0.0\n\"a, b\",1,0.5\n"));
+        assertEquals(table.getTable(), CsvLoader.load(name + ".csv").getTable());
+    }
+
+    @Test
+    void testExportGzipAndParallel() throws IOException {
+        StringBuilder csv = new StringBuilder("id,group\n");
+        for (int i = 0; i < 200000; i++) csv.append(i).append(",g").append(i % 10).append('\n');
+        Table table = CsvLoader.load(write(csv.toString()));
+        String name = Files.createTempFile("export", "").toString();
+        try {
+            ParallelExecution.setParallelism(4);
+            assertTrue(ExportToCSV.exportToCSV(table, name));
+            assertTrue(ExportToCSV.exportToCSV(table, name, true));
+        } finally {
+            ParallelExecution.setParallelism(1);
+        }
+        new java.io.File(name + ".csv").deleteOnExit();
+        new java.io.File(name + ".csv.gz").deleteOnExit();
+        assertEquals(csv.toString(), Files.readString(Path.of(name + ".csv")));
+        try (java.util.zip.GZIPInputStream in = new java.util.zip.GZIPInputStream(Files.newInputStream(Path.of(name + ".csv.gz")))) {
+            assertEquals(csv.toString(), new String(in.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testLoadLargeFile() throws IOException {
+        StringBuilder csv = new StringBuilder("id,group,score\n");
+        for (int i = 0; i < 200000; i++) csv.append(i).append(",g").append(i % 10).append(',').append(i % 100 / 4.0).append('\n');
+        Table table = CsvLoader.load(write(csv.toString()));
+        assertEquals(200000, table.getRowCount());
+        assertEquals(Arrays.asList(199999, "g9", 24.75), table.getTable().get(199999));
+    }
+
+    @Test
+    void testParallelLoad() throws IOException {
+        // Large enough for several chunks, with different strings in each chunk so their dictionaries are merged
+        StringBuilder csv = new StringBuilder("id,name,even,score\n");
+        int rows = 3 * CsvLoader.MIN_CHUNK_BYTES / 24;
+        for (int i = 0; i < rows; i++) {
+            csv.append(i).append(",n").append(i / 50000).append(',').append(i % 2 == 0).append(',').append(i % 7 / 2.0).append('\n');
+        }
+        String path = write(csv.toString());
+        String invalid = write(csv + "1,n,true,x\n");
+        Table sequential = CsvLoader.load(path);
+        PrintStream out = System.out;
+        ByteArrayOutputStream messages = new ByteArrayOutputStream();
+        try {
+            ParallelExecution.setParallelism(4);
+            Table parallel = CsvLoader.load(path);
+            assertEquals(rows, parallel.getRowCount());
+            assertInstanceOf(StringColumn.class, parallel.getColumn(1));
+            assertEquals(sequential.getTable(), parallel.getTable());
+            System.setOut(new PrintStream(messages));
+            assertNull(CsvLoader.load(invalid));
+        } finally {
+            System.setOut(out);
+            ParallelExecution.setParallelism(1);
+        }
+        assertEquals("Error: Invalid data type at row " + (rows + 1) + ", column 3", messages.toString().trim());
+    }
+
+    @Test
+    void testQuotedNewlineAfterSample() throws IOException {
+        // The sampled rows have no newline in a quoted field, a later field spans the middle of the file with many
+        StringBuilder csv = new StringBuilder("id,text\n");
+        for (int i = 0; i < CsvLoader.SAMPLE_ROWS; i++) csv.append(i).append(",t").append(i).append('\n');
+        String lines = "line\n".repeat(2 * CsvLoader.MIN_CHUNK_BYTES / 5);
+        csv.append(CsvLoader.SAMPLE_ROWS).append(",\"").append(lines).append("\"\n");
+        for (int i = CsvLoader.SAMPLE_ROWS + 1; i < 2 * CsvLoader.SAMPLE_ROWS; i++) csv.append(i).append(",t").append(i).append('\n');
+        String path = write(csv.toString());
+        Table sequential = CsvLoader.load(path);
+        assertEquals(2 * CsvLoader.SAMPLE_ROWS, sequential.getRowCount());
+        assertEquals(lines, sequential.getTable().get(CsvLoader.SAMPLE_ROWS).get(1));
+        try {
+            ParallelExecution.setParallelism(4);
+            assertEquals(sequential.getTable(), CsvLoader.load(path).getTable());
+        } finally {
+            ParallelExecution.setParallelism(1);
+        }
+    }
+
+    @Test
+    void testInvalidFiles() throws IOException {
+        assertNull(CsvLoader.load(write("a,b\n1,2\n3\n")));
+        // A value that does not match the type inferred from the first rows
+        StringBuilder csv = new StringBuilder("a,b\n");
+        for (int i = 0; i < CsvLoader.SAMPLE_ROWS; i++) csv.append(i).append(",2\n");
+        assertNull(CsvLoader.load(write(csv + "3,x\n")));
+        assertNull(CsvLoader.load(write("a,a\n1,2\n")));
+        assertNull(CsvLoader.load(write("")));
+        assertNull(CsvLoader.load("does/not/exist.csv"));
+    }
+
+    @Test
+    void testLoadCommand() throws IOException {
+        Query query = new Query();
+        assertTrue(query.loadTable("people", write("Name,Age\nJohn,25\nJane,23\n")));
+        assertFalse(query.loadTable("people", write("Name,Age\nJohn,25\n")));
+        assertEquals(1, query.parseQuery("σ Age>24 people").get().getRowCount());
+    }
+}
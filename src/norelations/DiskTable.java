@@ -0,0 +1,346 @@
+package norelations;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Disk-backed tables, stored in a directory with one file of fixed-width values per column and a schema file with
+ * the column names and types, the number of rows, the dictionaries of the String columns and the min and max of each
+ * block of rows of each column. Opening a table maps its column files (see MappedColumn), so it takes no time
+ * and heap space proportional to its rows: values are read from the page cache as queries scan them.
+ * Tables are written by a Writer, which takes batches of rows, so a table larger than the heap can be written from
+ * a CSV file or a streamed query without materializing it.
+ */
+public final class DiskTable {
+    private static final String SCHEMA_FILE = "schema";
+    private static final String COLUMN_FILE = "%d.col";
+    private static final int MAGIC = 0x52544244;
+
+    private DiskTable() {
+    }
+
+    /**
+     * Writes a table to a new directory
+     *
+     * @param table     - Table to write
+     * @param directory - String representing the path of the directory, which must not hold a table yet
+     * @return True if the table was written, false otherwise
+     */
+    public static boolean write(Table table, String directory) {
+        Writer writer = new Writer(directory);
+        writer.accept(table);
+        return writer.finish();
+    }
+
+    /**
+     * Opens a table written to a directory
+     *
+     * @param directory - String representing the path of the directory
+     * @return New Table with mapped columns and statistics estimated from their blocks, or null if the table cannot be opened
+     */
+    public static Table open(String directory) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(directory, SCHEMA_FILE))))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a disk table: " + directory);
+            int colCount = in.readInt();
+            int rowCount = in.readInt();
+            int blocks = (rowCount + MappedColumn.BLOCK_ROWS - 1) / MappedColumn.BLOCK_ROWS;
+            ArrayList<Class<?>> colType = new ArrayList<>();
+            HashMap<String, Integer> colIndex = new HashMap<>();
+            ArrayList<Column> columns = new ArrayList<>();
+            HashMap<String, TableStatistics.ColumnStatistics> statistics = new HashMap<>();
+            for (int col = 0; col < colCount; col++) {
+                String name = in.readUTF();
+                Class<?> type = typeOf(in.readUTF());
+                String[] dictionary = null;
+                if (type == String.class) {
+                    dictionary = new String[in.readInt()];
+                    for (int i = 0; i < dictionary.length; i++) dictionary[i] = readString(in);
+                }
+                double[] blockMin = new double[blocks], blockMax = new double[blocks];
+                for (int block = 0; block < blocks; block++) {
+                    blockMin[block] = in.readDouble();
+                    blockMax[block] = in.readDouble();
+                }
+                Path file = Paths.get(directory, String.format(COLUMN_FILE, col));
+                MappedColumn column;
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    if (channel.size() != (long) rowCount * MappedColumn.width(type)) throw new IOException("Invalid column file " + file);
+                    column = MappedColumn.map(channel, type, rowCount, dictionary, blockMin, blockMax);
+                }
+                if (colIndex.putIfAbsent(name, col) != null) throw new IOException("Duplicate column name '" + name + "'");
+                colType.add(type);
+                columns.add(column);
+                statistics.put(name, column.estimateStatistics());
+            }
+            Table table = new Table(colType, colIndex, columns, rowCount);
+            table.setStatistics(new TableStatistics(rowCount, statistics));
+            return table;
+        } catch (IOException | IllegalArgumentException e) {  // Including InvalidPathException
+            System.out.println("Error: " + (e instanceof EOFException ? "Truncated schema file in " + directory : e.getMessage()));
+            return null;
+        }
+    }
+
+    private static Class<?> typeOf(String name) throws IOException {
+        return switch (name) {
+            case "Integer" -> Integer.class;
+            case "Double" -> Double.class;
+            case "Boolean" -> Boolean.class;
+            case "String" -> String.class;
+            default -> throw new IOException("Unknown column type " + name);
+        };
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the batches of rows it accepts to the column files of a new table, keeping only the dictionaries of the
+     * String columns and the min and max of each block on the heap. String codes are written in the order their
+     * values first appear, and rewritten in dictionary order by finish().
+     */
+    public static final class Writer implements BatchConsumer {
+        private static final int BUFFER_SIZE = 1 << 16;
+        private final String directory;
+        private List<String> colNames;  // Set by the first batch
+        private final ArrayList<Class<?>> colType = new ArrayList<>();
+        private final ArrayList<FileChannel> channels = new ArrayList<>();
+        private final ArrayList<ByteBuffer> buffers = new ArrayList<>();
+        private final ArrayList<HashMap<String, Integer>> codes = new ArrayList<>();  // Code of each value of each String column
+        private final ArrayList<String[]> dictionaries = new ArrayList<>();  // Sorted dictionary of each String column, set by finish()
+        private final ArrayList<double[]> blockMin = new ArrayList<>();
+        private final ArrayList<double[]> blockMax = new ArrayList<>();
+        private int rowCount;
+        private String error;  // Message of the first error, after which batches are refused
+
+        /**
+         * Constructor for Writer class
+         *
+         * @param directory - String representing the path of the directory to write to, created if it does not exist
+         */
+        public Writer(String directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        public boolean accept(Table batch) {
+            if (error != null) return false;
+            try {
+                if (colNames == null) create(batch);
+                else if (!batch.getColumnOrder().equals(colNames)) throw new IOException("Batch columns " + batch.getColumnOrder() + " differ from " + colNames);
+                if ((long) rowCount + batch.getRowCount() > Integer.MAX_VALUE) throw new IOException("Too many rows");
+                for (int row = 0; row < batch.getRowCount(); row++) {
+                    int block = rowCount / MappedColumn.BLOCK_ROWS;
+                    boolean firstInBlock = rowCount % MappedColumn.BLOCK_ROWS == 0;
+                    for (int col = 0; col < colNames.size(); col++) {
+                        double value = append(col, batch.getColumn(col), row);
+                        // -0.0 sorts below 0.0, so a zero of either sign widens the bounds to both sides of 0
+                        boolean zero = value == 0 && colType.get(col) == Double.class;
+                        double low = zero ? -Double.MIN_VALUE : value, high = zero ? Double.MIN_VALUE : value;
+                        if (firstInBlock) growBlocks(col, block);
+                        double[] min = blockMin.get(col), max = blockMax.get(col);
+                        min[block] = firstInBlock ? low : Math.min(min[block], low);
+                        max[block] = firstInBlock ? high : Math.max(max[block], high);
+                    }
+                    rowCount++;
+                }
+                return true;
+            } catch (IOException | IllegalArgumentException e) {
+                error = e.getMessage();
+                return false;
+            }
+        }
+
+        /**
+         * Flushes the column files and writes the schema file, or deletes the files written if a batch failed
+         *
+         * @return True if the table was written, false otherwise
+         */
+        public boolean finish() {
+            try {
+                if (error != null) throw new IOException(error);
+                if (colNames == null) throw new IOException("No rows to write");
+                for (int col = 0; col < colNames.size(); col++) {
+                    flush(col);
+                    if (colType.get(col) == String.class) sortCodes(col);
+                }
+                writeSchema();
+                return true;
+            } catch (IOException | IllegalArgumentException e) {
+                error = e.getMessage();
+                abort();
+                return false;
+            } finally {
+                close();
+            }
+        }
+
+        /**
+         * Creates the column files for the columns of the first batch
+         */
+        private void create(Table batch) throws IOException {
+            Path path = Paths.get(directory);
+            if (Files.exists(path.resolve(SCHEMA_FILE))) throw new IOException("Directory " + directory + " already holds a table");
+            Files.createDirectories(path);
+            colNames = batch.getColumnOrder();
+            for (int col = 0; col < colNames.size(); col++) {
+                Class<?> type = batch.getColumnType(col);
+                if (type != Integer.class && type != Double.class && type != Boolean.class && type != String.class) {
+                    throw new IOException("Cannot store a column of type " + type.getSimpleName());
+                }
+                colType.add(type);
+                channels.add(FileChannel.open(path.resolve(String.format(COLUMN_FILE, col)),
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE));
+                buffers.add(ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN));
+                codes.add(type == String.class ? new HashMap<>() : null);
+                dictionaries.add(null);
+                blockMin.add(new double[16]);
+                blockMax.add(new double[16]);
+            }
+        }
+
+        /**
+         * Appends the value at a row of a column to its column file
+         *
+         * @return The value on the scale of the block min and max
+         */
+        private double append(int col, Column column, int row) throws IOException {
+            ByteBuffer buffer = buffers.get(col);
+            if (buffer.remaining() < 8) flush(col);
+            Class<?> type = colType.get(col);
+            if (type == Integer.class) {
+                int value = column instanceof Column.IntValues ints ? ints.getInt(row) : (Integer) typed(column.get(row), Integer.class);
+                buffer.putInt(value);
+                return value;
+            }
+            if (type == Double.class) {
+                double value = column instanceof Column.DoubleValues doubles ? doubles.getDouble(row) : (Double) typed(column.get(row), Double.class);
+                buffer.putDouble(value);
+                // NaN sorts above every value, so the bounds are widened to keep them conservative
+                return Double.isNaN(value) ? Double.POSITIVE_INFINITY : value;
+            }
+            if (type == Boolean.class) {
+                boolean value = column instanceof Column.BooleanValues booleans ? booleans.getBoolean(row) : (Boolean) typed(column.get(row), Boolean.class);
+                buffer.put((byte) (value ? 1 : 0));
+                return value ? 1 : 0;
+            }
+            String value = (String) typed(column.get(row), String.class);
+            HashMap<String, Integer> columnCodes = codes.get(col);
+            Integer code = columnCodes.get(value);
+            if (code == null) {
+                code = columnCodes.size();
+                columnCodes.put(value, code);
+            }
+            buffer.putInt(code);
+            return 0;  // The block bounds of codes are computed once they are sorted
+        }
+
+        private static Object typed(Object value, Class<?> type) throws IOException {
+            if (!type.isInstance(value)) throw new IOException("Cannot store value " + value + " in a column of type " + type.getSimpleName());
+            return value;
+        }
+
+        private void growBlocks(int col, int block) {
+            if (block < blockMin.get(col).length) return;
+            blockMin.set(col, Arrays.copyOf(blockMin.get(col), blockMin.get(col).length * 2));
+            blockMax.set(col, Arrays.copyOf(blockMax.get(col), blockMax.get(col).length * 2));
+        }
+
+        private void flush(int col) throws IOException {
+            ByteBuffer buffer = buffers.get(col);
+            buffer.flip();
+            while (buffer.hasRemaining()) channels.get(col).write(buffer);
+            buffer.clear();
+        }
+
+        /**
+         * Sorts the dictionary of a String column and rewrites its codes in place, so code order matches string order
+         * as in StringColumn, then computes the block min and max of the sorted codes
+         */
+        private void sortCodes(int col) throws IOException {
+            HashMap<String, Integer> columnCodes = codes.get(col);
+            String[] dictionary = columnCodes.keySet().toArray(new String[0]);
+            Arrays.sort(dictionary);
+            int[] remap = new int[dictionary.length];
+            for (int code = 0; code < dictionary.length; code++) remap[columnCodes.get(dictionary[code])] = code;
+            double[] min = blockMin.get(col), max = blockMax.get(col);
+            long segmentRows = 1 << 27;
+            for (long start = 0; start < rowCount; start += segmentRows) {
+                int rows = (int) Math.min(segmentRows, rowCount - start);
+                MappedByteBuffer codeFile = channels.get(col).map(FileChannel.MapMode.READ_WRITE, start * 4, rows * 4L);
+                codeFile.order(ByteOrder.LITTLE_ENDIAN);
+                for (int i = 0; i < rows; i++) {
+                    int code = remap[codeFile.getInt(i * 4)];
+                    codeFile.putInt(i * 4, code);
+                    int row = (int) (start + i), block = row / MappedColumn.BLOCK_ROWS;
+                    boolean firstInBlock = row % MappedColumn.BLOCK_ROWS == 0;
+                    min[block] = firstInBlock ? code : Math.min(min[block], code);
+                    max[block] = firstInBlock ? code : Math.max(max[block], code);
+                }
+                codeFile.force();
+            }
+            codes.set(col, null);
+            dictionaries.set(col, dictionary);
+        }
+
+        private void writeSchema() throws IOException {
+            int blocks = (rowCount + MappedColumn.BLOCK_ROWS - 1) / MappedColumn.BLOCK_ROWS;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(Paths.get(directory, SCHEMA_FILE))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(colNames.size());
+                out.writeInt(rowCount);
+                for (int col = 0; col < colNames.size(); col++) {
+                    out.writeUTF(colNames.get(col));
+                    out.writeUTF(colType.get(col).getSimpleName());
+                    if (colType.get(col) == String.class) {
+                        String[] dictionary = dictionaries.get(col);
+                        out.writeInt(dictionary.length);
+                        for (String word : dictionary) {
+                            byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+                            out.writeInt(bytes.length);
+                            out.write(bytes);
+                        }
+                    }
+                    for (int block = 0; block < blocks; block++) {
+                        out.writeDouble(blockMin.get(col)[block]);
+                        out.writeDouble(blockMax.get(col)[block]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Stops writing and deletes the files written, e.g. when the rows to write turn out to be invalid
+         */
+        public void abort() {
+            if (error != null) System.out.println("Error: " + error);
+            close();
+            for (int col = 0; col < channels.size(); col++) {
+                try {
+                    Files.deleteIfExists(Paths.get(directory, String.format(COLUMN_FILE, col)));
+                } catch (IOException e) {
+                    System.out.println("Error: " + e.getMessage());
+                }
+            }
+        }
+
+        private void close() {
+            for (FileChannel channel : channels) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    System.out.println("Error: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
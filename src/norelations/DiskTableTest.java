@@ -0,0 +1,129 @@
+package norelations;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiskTableTest {
+
+    private static String tempDirectory() throws IOException {
+        Path directory = Files.createTempDirectory("disk");
+        directory.toFile().deleteOnExit();
+        return directory.resolve("table").toString();
+    }
+
+    private static Table sampleTable(int rows) {
+        ArrayList<Class<?>> colType = new ArrayList<>(List.of(Integer.class, Double.class, Boolean.class, String.class));
+        HashMap<String, Integer> colIndex = new HashMap<>(Map.of("id", 0, "score", 1, "even", 2, "name", 3));
+        ArrayList<ArrayList<Object>> data = new ArrayList<>();
+        Random random = new Random(3);
+        for (int i = 0; i < rows; i++) {
+            double score = i % 5 == 0 ? -0.0 : i % 7 == 0 ? 0.0 : random.nextInt(100) / 4.0;
+            data.add(new ArrayList<>(Arrays.asList(i, score, i % 2 == 0, "n" + random.nextInt(500))));
+        }
+        return new Table(colType, colIndex, data);
+    }
+
+    @Test
+    void testWriteAndOpen() throws IOException {
+        Table table = sampleTable(30000);
+        String directory = tempDirectory();
+        assertTrue(DiskTable.write(table, directory));
+        Table disk = DiskTable.open(directory);
+        assertNotNull(disk);
+        assertInstanceOf(MappedColumn.class, disk.getColumn(0));
+        assertEquals(table.getColumnOrder(), disk.getColumnOrder());
+        assertEquals(table.getTable(), disk.getTable());
+        assertTrue(disk.hasStatistics());
+        assertEquals(29999, disk.getStatistics().getColumn("id").max());
+        assertFalse(DiskTable.write(table, directory));  // The directory already holds a table
+
+        // Selections skipping blocks give the same rows as on the heap
+        for (String condition : List.of("id < 100", "id >= 29000 AND even = true", "20000 < id OR name = 'n7'", "score < 0.0",
+                "score = 0.0", "name > 'n45' AND name < 'n46'", "name = 'missing'", "NOT id > 5", "id != 3", "score > 24.5")) {
+            assertEquals(table.select(condition).getTable(), disk.select(condition).getTable(), condition);
+        }
+        Table names = new Table(new ArrayList<>(Arrays.asList("name, rank", "'n1', 1", "'n2', 2")));
+        assertEquals(table.join(names, "name=name").getTable(), disk.join(names, "name=name").getTable());
+    }
+
+    @Test
+    void testBlockSkipping() throws IOException {
+        String directory = tempDirectory();
+        assertTrue(DiskTable.write(sampleTable(3 * MappedColumn.BLOCK_ROWS), directory));
+        MappedColumn id = (MappedColumn) DiskTable.open(directory).getColumn(0);
+        assertTrue(id.mayMatch(0, "<", 100));
+        assertFalse(id.mayMatch(1, "<", 100));
+        assertFalse(id.mayMatch(2, "=", 5));
+        assertTrue(id.mayMatch(2, ">=", 2 * MappedColumn.BLOCK_ROWS));
+        assertTrue(id.mayMatch(1, "<", 1.5));  // A constant of another type is not compared with the block bounds
+    }
+
+    @Test
+    void testBlocksOfZeros() throws IOException {
+        // The first block holds only 0.0, the second only -0.0 and the third only 1.5
+        ArrayList<String> rows = new ArrayList<>(List.of("x"));
+        for (double value : new double[]{0.0, -0.0, 1.5}) {
+            for (int i = 0; i < MappedColumn.BLOCK_ROWS; i++) rows.add(String.valueOf(value));
+        }
+        Table table = new Table(rows);
+        String directory = tempDirectory();
+        assertTrue(DiskTable.write(table, directory));
+        Table disk = DiskTable.open(directory);
+        MappedColumn x = (MappedColumn) disk.getColumn(0);
+        for (int block = 0; block < 2; block++) {
+            assertTrue(x.mayMatch(block, "=", 0.0));
+            assertTrue(x.mayMatch(block, "<=", 0.0));
+            assertTrue(x.mayMatch(block, ">", -0.0));
+        }
+        assertTrue(x.mayMatch(1, "<", 0.0));
+        assertFalse(x.mayMatch(2, "<=", 0.0));
+        for (String condition : List.of("x = 0.0", "x <= 0.0", "x < 0.0", "x = -0.0", "x < -0.0", "x >= -0.0", "x > 0.0", "0.0 >= x")) {
+            assertEquals(table.select(condition).getTable(), disk.select(condition).getTable(), condition);
+        }
+        assertEquals(2 * MappedColumn.BLOCK_ROWS, disk.select("x <= 0.0").getRowCount());
+    }
+
+    @Test
+    void testLoadCsvToDisk() throws IOException {
+        Path csv = Files.createTempFile("table", ".csv");
+        csv.toFile().deleteOnExit();
+        StringBuilder content = new StringBuilder("id,group\n");
+        for (int i = 0; i < 3 * CsvLoader.BATCH_ROWS / 2; i++) content.append(i).append(",g").append(i % 10).append('\n');
+        Files.writeString(csv, content + "1,x,3\n");
+
+        Query query = new Query();
+        String directory = tempDirectory();
+        assertFalse(query.loadTable("big", csv.toString(), directory));
+        assertNull(DiskTable.open(directory));
+        Files.writeString(csv, content.toString());
+        assertTrue(query.loadTable("big", csv.toString(), directory));
+        assertEquals(3 * CsvLoader.BATCH_ROWS / 2, query.getTable("big").getRowCount());
+        Table heap = CsvLoader.load(csv.toString());
+        assertEquals(heap.getTable(), query.getTable("big").getTable());
+        String condition = "id<" + CsvLoader.BATCH_ROWS + " AND group='g3'";
+        assertEquals(heap.select(condition).getRowCount(), query.parseQuery("σ " + condition + " big").get().getRowCount());
+
+        Query other = new Query();
+        assertTrue(other.openTable("big", directory));
+        assertEquals(10, other.getTable("big").getStatistics().getColumn("group").distinctCount());
+    }
+
+    @Test
+    void testStoreTable() throws IOException {
+        Query query = new Query();
+        query.parseQuery("people = {Name, Age\n'John', 25\n'Jane', 23} σ Age>24 people");
+        List<ArrayList<Object>> rows = query.getTable("people").getTable();
+        String directory = tempDirectory();
+        assertTrue(query.storeTable("people", directory));
+        assertInstanceOf(MappedColumn.class, query.getTable("people").getColumn(0));
+        assertEquals(rows, query.getTable("people").getTable());
+        assertEquals(1, query.parseQuery("σ Age>24 people").get().getRowCount());
+        assertFalse(query.storeTable("nobody", tempDirectory()));
+    }
+}
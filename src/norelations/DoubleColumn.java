@@ -0,0 +1,96 @@
+package norelations;
+
+import java.util.*;
+
+/**
+ * Column of Double values stored in a double[]
+ */
+public class DoubleColumn extends Column implements Column.DoubleValues {
+    private final double[] values;
+
+    DoubleColumn(double[] values) {
+        this.values = values;
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return values[row];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public Object get(int row) {
+        return values[row];
+    }
+
+    @Override
+    public Column gather(int[] rows) {
+        double[] newValues = new double[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            newValues[i] = values[rows[i]];
+        }
+        return new DoubleColumn(newValues);
+    }
+
+    @Override
+    public int hashAt(int row) {
+        return Double.hashCode(values[row]);
+    }
+
+    @Override
+    public boolean equalsAt(int row, Column other, int otherRow) {
+        // Same semantics as Double.equals, so that hashing and equality agree
+        if (other instanceof DoubleColumn doubleColumn) return Double.compare(values[row], doubleColumn.values[otherRow]) == 0;
+        return super.equalsAt(row, other, otherRow);
+    }
+
+    @Override
+    public int compareAt(int row, Column other, int otherRow) {
+        if (other instanceof DoubleColumn doubleColumn) return Double.compare(values[row], doubleColumn.values[otherRow]);
+        return super.compareAt(row, other, otherRow);
+    }
+
+    /**
+     * Concatenates DoubleColumns
+     */
+    static DoubleColumn concatColumns(List<Column> parts) {
+        double[] values = new double[parts.stream().mapToInt(Column::size).sum()];
+        int pos = 0;
+        for (Column part : parts) {
+            double[] partValues = ((DoubleColumn) part).values;
+            System.arraycopy(partValues, 0, values, pos, partValues.length);
+            pos += partValues.length;
+        }
+        return new DoubleColumn(values);
+    }
+
+    static class Builder extends TypedBuilder {
+        private double[] values;
+        private int size;
+
+        Builder(int capacity) {
+            values = new double[Math.max(capacity, 8)];
+        }
+
+        @Override
+        boolean add(Object value) {
+            if (!(value instanceof Double d)) return false;
+            addDouble(d);
+            return true;
+        }
+
+        void addDouble(double value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        @Override
+        Column build() {
+            return new DoubleColumn(Arrays.copyOf(values, size));
+        }
+    }
+}
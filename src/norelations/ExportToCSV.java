@@ -0,0 +1,145 @@
+package norelations;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes tables to CSV files. Rows are encoded straight from the columns into a buffered stream, block by block,
+ * so the file is never built as one string. In parallel mode the blocks of a window of rows are encoded on the
+ * ParallelExecution pool and written in row order. Fields are quoted with " when they contain a comma, a quote,
+ * a newline or surrounding spaces, or when a string would otherwise be read back as a number or boolean.
+ */
+public class ExportToCSV {
+    private static final int WINDOW_ROWS = 1 << 16;  // Rows encoded before they are written, per thread
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public static boolean exportToCSV(Table table, String fileName) {
+        return exportToCSV(table, fileName, false);
+    }
+
+    /**
+     * Writes a table to a CSV file with a header line of column names
+     *
+     * @param table    - Table to write
+     * @param fileName - String representing the path of the file without its extension
+     * @param gzip     - True to compress the file with gzip and name it fileName.csv.gz, false for fileName.csv
+     * @return True if the table was written, false otherwise
+     */
+    public static boolean exportToCSV(Table table, String fileName, boolean gzip) {
+        String path = fileName + (gzip ? ".csv.gz" : ".csv");
+        try (OutputStream out = open(Paths.get(path), gzip)) {
+            writeCSV(table, out);
+            return true;
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes a table as CSV with a header line of column names to a stream, a block of rows at a time as they are
+     * encoded, e.g. to stream a result to a client of the QueryServer. The stream is not closed.
+     *
+     * @param table - Table to write
+     * @param out   - OutputStream the CSV is written to
+     * @throws IOException if the stream cannot be written
+     */
+    static void writeCSV(Table table, OutputStream out) throws IOException {
+        out.write(encodeHeader(table).getBytes(StandardCharsets.UTF_8));
+        int window = WINDOW_ROWS * ParallelExecution.getParallelism();
+        for (int start = 0; start < table.getRowCount(); start += window) {
+            int offset = start;
+            List<byte[]> blocks = ParallelExecution.mapChunks(Math.min(window, table.getRowCount() - start),
+                    (from, to) -> encodeRows(table, offset + from, offset + to));
+            for (byte[] block : blocks) out.write(block);
+        }
+    }
+
+    private static OutputStream open(Path path, boolean gzip) throws IOException {
+        OutputStream file = Files.newOutputStream(path);
+        return gzip ? new GZIPOutputStream(file, BUFFER_SIZE) : new BufferedOutputStream(file, BUFFER_SIZE);
+    }
+
+    private static String encodeHeader(Table table) {
+        StringBuilder sb = new StringBuilder();
+        for (String name : table.getColumnOrder()) {
+            if (!sb.isEmpty()) sb.append(',');
+            appendField(sb, name, false);
+        }
+        return sb.append('\n').toString();
+    }
+
+    /**
+     * Encodes the rows from one row up to, but not including, another
+     *
+     * @return Array of the UTF-8 bytes of the rows, each followed by a newline
+     */
+    private static byte[] encodeRows(Table table, int from, int to) {
+        int colCount = table.getColumnOrder().size();
+        StringBuilder sb = new StringBuilder((to - from) * colCount * 8);
+        for (int row = from; row < to; row++) {
+            for (int col = 0; col < colCount; col++) {
+                if (col > 0) sb.append(',');
+                Column column = table.getColumn(col);
+                switch (column) {
+                    case Column.IntValues ints -> sb.append(ints.getInt(row));
+                    case Column.DoubleValues doubles -> sb.append(doubles.getDouble(row));
+                    case Column.BooleanValues booleans -> sb.append(booleans.getBoolean(row));
+                    default -> {
+                        Object value = column.get(row);
+                        if (value instanceof String s) appendField(sb, s, true);
+                        else if (value != null) appendField(sb, value.toString(), false);
+                    }
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends a field, quoted if it would not be read back as the same value
+     *
+     * @param sb     - StringBuilder to append to
+     * @param value  - String representing the value
+     * @param string - True if the value is a string, which must not be read back as a number or boolean
+     */
+    private static void appendField(StringBuilder sb, String value, boolean string) {
+        if (!needsQuotes(value, string)) {
+            sb.append(value);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    private static boolean needsQuotes(String value, boolean string) {
+        if (value.isEmpty()) return string;
+        char first = value.charAt(0), last = value.charAt(value.length() - 1);
+        if (Character.isWhitespace(first) || Character.isWhitespace(last) || first == '\'') return true;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        // Unquoted numbers and booleans are read back with their type
+        return string && (looksNumeric(value) || value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false"));
+    }
+
+    /**
+     * Checks if a value only has the characters of a number, without parsing it
+     */
+    private static boolean looksNumeric(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if ("0123456789+-.eE".indexOf(value.charAt(i)) == -1) return false;
+        }
+        return true;
+    }
+}
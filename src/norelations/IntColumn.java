@@ -0,0 +1,100 @@
+package norelations;
+
+import java.util.*;
+
+/**
+ * Column of Integer values stored in an int[]
+ */
+public class IntColumn extends Column implements Column.IntValues {
+    private final int[] values;
+
+    IntColumn(int[] values) {
+        this.values = values;
+    }
+
+    @Override
+    public int getInt(int row) {
+        return values[row];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public Object get(int row) {
+        return values[row];
+    }
+
+    @Override
+    public Column gather(int[] rows) {
+        int[] newValues = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            newValues[i] = values[rows[i]];
+        }
+        return new IntColumn(newValues);
+    }
+
+    @Override
+    public int hashAt(int row) {
+        return Integer.hashCode(values[row]);
+    }
+
+    @Override
+    public boolean equalsAt(int row, Column other, int otherRow) {
+        if (other instanceof IntColumn intColumn) return values[row] == intColumn.values[otherRow];
+        return super.equalsAt(row, other, otherRow);
+    }
+
+    @Override
+    public int compareAt(int row, Column other, int otherRow) {
+        if (other instanceof IntColumn intColumn) return Integer.compare(values[row], intColumn.values[otherRow]);
+        return super.compareAt(row, other, otherRow);
+    }
+
+    @Override
+    public int[] sortedRows() {
+        return sortRowsByKey(values);
+    }
+
+    /**
+     * Concatenates IntColumns
+     */
+    static IntColumn concatColumns(List<Column> parts) {
+        int[] values = new int[parts.stream().mapToInt(Column::size).sum()];
+        int pos = 0;
+        for (Column part : parts) {
+            int[] partValues = ((IntColumn) part).values;
+            System.arraycopy(partValues, 0, values, pos, partValues.length);
+            pos += partValues.length;
+        }
+        return new IntColumn(values);
+    }
+
+    static class Builder extends TypedBuilder {
+        private int[] values;
+        private int size;
+
+        Builder(int capacity) {
+            values = new int[Math.max(capacity, 8)];
+        }
+
+        @Override
+        boolean add(Object value) {
+            if (!(value instanceof Integer i)) return false;
+            addInt(i);
+            return true;
+        }
+
+        void addInt(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        @Override
+        Column build() {
+            return new IntColumn(Arrays.copyOf(values, size));
+        }
+    }
+}
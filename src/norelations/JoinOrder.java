@@ -0,0 +1,265 @@
+package norelations;
+
+import java.util.*;
+
+/**
+ * Cost-based ordering of chains of equi-joins. A chain such as A ⨝ B ⨝ C is flattened into its inputs and join
+ * conditions, then rebuilt greedily: the two inputs whose join is estimated to produce the fewest rows are joined
+ * first, until one input is left. The smaller input of each join is put on the right, so it is the build side of the
+ * hash join. Estimates come from the TableStatistics of the scanned tables.
+ * A chain is only reordered when every join condition relates a column of exactly two inputs and the inputs share no
+ * other column names, so every order produces the same columns and rows. The original column order is restored.
+ */
+public class JoinOrder {
+    private static final double RANGE_SELECTIVITY = 1.0 / 3;  // Estimated fraction of row pairs satisfying a non-equi join
+
+    private JoinOrder() {
+    }
+
+    /**
+     * Reorders the chains of equi-joins of a plan
+     *
+     * @param plan - PlanNode at the root of the plan
+     * @return PlanNode at the root of the reordered plan, or the same plan if nothing changed
+     */
+    public static PlanNode reorder(PlanNode plan) {
+        if (plan instanceof PlanNode.Join join && equiJoinOperands(join) != null) {
+            ArrayList<PlanNode> inputs = new ArrayList<>();
+            ArrayList<String[]> conditions = new ArrayList<>();
+            flatten(join, inputs, conditions);
+            inputs.replaceAll(JoinOrder::reorder);
+            PlanNode reordered = inputs.size() > 2 ? reorderChain(join, inputs, conditions) : null;
+            return reordered != null ? reordered : replaceInputs(join, inputs.iterator());
+        }
+        ArrayList<PlanNode> children = new ArrayList<>(plan.children());
+        children.replaceAll(JoinOrder::reorder);
+        return plan.withChildren(children);
+    }
+
+    /**
+     * Estimates the number of rows a plan produces
+     *
+     * @param plan - PlanNode at the root of the plan
+     * @return Estimated number of rows
+     */
+    public static double estimateRows(PlanNode plan) {
+        return switch (plan) {
+            case PlanNode.Scan scan -> scan.getTable() == null ? 0 : scan.getTable().getStatistics().getRowCount();
+            case PlanNode.Select select -> {
+                Table table = baseTable(select.getChild());
+                double selectivity = table == null ? RANGE_SELECTIVITY : select.getCondition().selectivity(table);
+                yield estimateRows(select.getChild()) * selectivity;
+            }
+            case PlanNode.Join join -> {
+                String[] operands = equiJoinOperands(join);
+                double rows = estimateRows(join.getLeft()) * estimateRows(join.getRight());
+                yield operands == null ? rows * RANGE_SELECTIVITY
+                        : rows / Math.max(1, Math.max(distinctCount(join.getLeft(), operands[0]), distinctCount(join.getRight(), operands[1])));
+            }
+            case PlanNode.SetOperation setOperation -> switch (setOperation.getOperator()) {
+                case '∪' -> estimateRows(setOperation.getLeft()) + estimateRows(setOperation.getRight());
+                case '∩' -> Math.min(estimateRows(setOperation.getLeft()), estimateRows(setOperation.getRight()));
+                default -> estimateRows(setOperation.getLeft());
+            };
+            default -> estimateRows(plan.children().getFirst());
+        };
+    }
+
+    /**
+     * Estimates the number of distinct values of a column in the output of a plan
+     *
+     * @param plan    - PlanNode at the root of the plan
+     * @param operand - String representing the column, with or without its table name
+     * @return Estimated number of distinct values, at most the estimated number of rows
+     */
+    public static double distinctCount(PlanNode plan, String operand) {
+        double rows = estimateRows(plan);
+        double distinct = switch (plan) {
+            case PlanNode.Scan scan -> {
+                Table table = scan.getTable();
+                String name = table == null ? null : table.getOperandColumnName(operand);
+                yield name == null ? rows : table.getStatistics().getColumn(name).distinctCount();
+            }
+            case PlanNode.Join join -> {
+                Table left = join.getLeft().schema();
+                yield left != null && left.getOperandColumn(operand) != -1
+                        ? distinctCount(join.getLeft(), operand) : distinctCount(join.getRight(), operand);
+            }
+            default -> plan.children().isEmpty() ? rows : distinctCount(plan.children().getFirst(), operand);
+        };
+        return Math.min(distinct, rows);
+    }
+
+    /**
+     * Finds the table scanned below selections, projections and column reorderings, whose statistics describe the input
+     */
+    private static Table baseTable(PlanNode plan) {
+        while (!(plan instanceof PlanNode.Scan) && plan.children().size() == 1) plan = plan.children().getFirst();
+        return plan instanceof PlanNode.Scan scan ? scan.getTable() : null;
+    }
+
+    /**
+     * Returns the column operands of a join of the form "column = column"
+     *
+     * @param join - Join node
+     * @return Array of the left and right operand, or null if the join is not an equi-join of two columns
+     */
+    private static String[] equiJoinOperands(PlanNode.Join join) {
+        String condition = join.getCondition().trim();
+        if (Condition.parseLength(condition) != condition.length()) return null;
+        if (!(Condition.parse(condition) instanceof Condition.Comparison comparison)) return null;
+        String[] parts = comparison.getParts();
+        if (!parts[1].equals("=") || Table.parseConstant(parts[0]) != null || Table.parseConstant(parts[2]) != null) return null;
+        return new String[]{parts[0], parts[2]};
+    }
+
+    /**
+     * Collects the inputs and conditions of a chain of equi-joins
+     */
+    private static void flatten(PlanNode plan, List<PlanNode> inputs, List<String[]> conditions) {
+        String[] operands = plan instanceof PlanNode.Join join ? equiJoinOperands(join) : null;
+        if (operands == null) {
+            inputs.add(plan);
+            return;
+        }
+        flatten(((PlanNode.Join) plan).getLeft(), inputs, conditions);
+        flatten(((PlanNode.Join) plan).getRight(), inputs, conditions);
+        conditions.add(operands);
+    }
+
+    /**
+     * Rebuilds a chain of equi-joins in its original order on new inputs
+     */
+    private static PlanNode replaceInputs(PlanNode plan, Iterator<PlanNode> inputs) {
+        if (!(plan instanceof PlanNode.Join join) || equiJoinOperands(join) == null) return inputs.next();
+        PlanNode left = replaceInputs(join.getLeft(), inputs);
+        return join.withChildren(List.of(left, replaceInputs(join.getRight(), inputs)));
+    }
+
+    /**
+     * A join condition between two inputs of a chain
+     *
+     * @param left         - Index of the input with the left operand
+     * @param leftOperand  - Left operand of the condition
+     * @param right        - Index of the input with the right operand
+     * @param rightOperand - Right operand of the condition
+     */
+    private record Edge(int left, String leftOperand, int right, String rightOperand) {
+    }
+
+    /**
+     * Rebuilds a chain of equi-joins in the estimated cheapest order
+     *
+     * @param chain      - Join at the root of the chain
+     * @param inputs     - List of the inputs of the chain
+     * @param conditions - List of the operands of the join conditions
+     * @return PlanNode with the same columns as the chain, or null if the chain cannot be reordered or is already in order
+     */
+    private static PlanNode reorderChain(PlanNode.Join chain, List<PlanNode> inputs, List<String[]> conditions) {
+        Table schema = chain.schema();
+        List<Edge> edges = findEdges(inputs, conditions);
+        if (schema == null || edges == null || !onlyJoinColumnsShared(inputs, edges)) return null;
+
+        ArrayList<PlanNode> groups = new ArrayList<>(inputs);  // Joined inputs, null once merged into another group
+        int[] groupOf = new int[inputs.size()];
+        for (int i = 0; i < groupOf.length; i++) groupOf[i] = i;
+        for (int joins = 1; joins < inputs.size(); joins++) {
+            Edge best = null;
+            double bestRows = Double.MAX_VALUE;
+            for (Edge edge : edges) {
+                PlanNode left = groups.get(groupOf[edge.left()]);
+                PlanNode right = groups.get(groupOf[edge.right()]);
+                if (left == right) continue;
+                double rows = estimateRows(left) * estimateRows(right)
+                        / Math.max(1, Math.max(distinctCount(left, edge.leftOperand()), distinctCount(right, edge.rightOperand())));
+                if (rows < bestRows) {
+                    best = edge;
+                    bestRows = rows;
+                }
+            }
+            if (best == null) return null;  // The inputs are not connected by the conditions
+
+            int leftGroup = groupOf[best.left()], rightGroup = groupOf[best.right()];
+            PlanNode left = groups.get(leftGroup), right = groups.get(rightGroup);
+            PlanNode joined = estimateRows(left) >= estimateRows(right)
+                    ? new PlanNode.Join(best.leftOperand() + "=" + best.rightOperand(), left, right)
+                    : new PlanNode.Join(best.rightOperand() + "=" + best.leftOperand(), right, left);
+            groups.set(leftGroup, joined);
+            groups.set(rightGroup, null);
+            for (int i = 0; i < groupOf.length; i++) {
+                if (groupOf[i] == rightGroup) groupOf[i] = leftGroup;
+            }
+        }
+
+        PlanNode reordered = groups.get(groupOf[0]);
+        if (reordered.toString().equals(replaceInputs(chain, inputs.iterator()).toString())) return null;
+        Table reorderedSchema = reordered.schema();
+        if (reorderedSchema == null || !reorderedSchema.getColumns().equals(schema.getColumns())) return null;
+        List<String> columnOrder = schema.getColumnOrder();
+        return reorderedSchema.getColumnOrder().equals(columnOrder) ? reordered : new PlanNode.ColumnOrder(columnOrder, reordered);
+    }
+
+    /**
+     * Finds the two inputs each join condition relates
+     *
+     * @return List of edges, or null if an operand does not belong to exactly one input
+     */
+    private static List<Edge> findEdges(List<PlanNode> inputs, List<String[]> conditions) {
+        ArrayList<Edge> edges = new ArrayList<>();
+        for (String[] operands : conditions) {
+            List<Integer> leftInputs = inputsWithColumn(inputs, operands[0]);
+            List<Integer> rightInputs = inputsWithColumn(inputs, operands[1]);
+            if (leftInputs == null || rightInputs == null) return null;
+            if (leftInputs.size() == 1 && rightInputs.size() == 1 && !leftInputs.equals(rightInputs)) {
+                edges.add(new Edge(leftInputs.getFirst(), operands[0], rightInputs.getFirst(), operands[1]));
+            } else if (leftInputs.size() == 2 && leftInputs.equals(rightInputs) && sameColumnName(operands[0], operands[1])) {
+                // Both inputs have the column, as in "id=id", the operands are interchangeable
+                edges.add(new Edge(leftInputs.get(0), operands[0], leftInputs.get(1), operands[1]));
+            } else {
+                return null;
+            }
+        }
+        return edges;
+    }
+
+    private static List<Integer> inputsWithColumn(List<PlanNode> inputs, String operand) {
+        ArrayList<Integer> found = new ArrayList<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            Table schema = inputs.get(i).schema();
+            if (schema == null) return null;
+            if (schema.getOperandColumn(operand) != -1) found.add(i);
+        }
+        return found;
+    }
+
+    /**
+     * Checks that a column name is only in two inputs if they are joined on that column, so no join renames or drops
+     * a column differently depending on the order
+     */
+    private static boolean onlyJoinColumnsShared(List<PlanNode> inputs, List<Edge> edges) {
+        HashMap<String, List<Integer>> inputsByColumn = new HashMap<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            for (String column : inputs.get(i).columnNames()) {
+                inputsByColumn.computeIfAbsent(column, key -> new ArrayList<>()).add(i);
+            }
+        }
+        for (Map.Entry<String, List<Integer>> entry : inputsByColumn.entrySet()) {
+            List<Integer> shared = entry.getValue();
+            if (shared.size() == 1) continue;
+            if (shared.size() > 2) return false;
+            boolean joined = false;
+            for (Edge edge : edges) {
+                if (edge.left() == shared.get(0) && edge.right() == shared.get(1) && sameColumnName(edge.leftOperand(), entry.getKey())
+                        && sameColumnName(edge.rightOperand(), entry.getKey())) {
+                    joined = true;
+                }
+            }
+            if (!joined) return false;
+        }
+        return true;
+    }
+
+    private static boolean sameColumnName(String operand, String other) {
+        return operand.substring(operand.indexOf('.') + 1).equals(other.substring(other.indexOf('.') + 1));
+    }
+}
@@ -0,0 +1,40 @@
+package norelations;
+
+public class Main {
+    private static final String USAGE = "Usage: Main [--script path] [--threads n] [--serve port] [--host address] [directory...]";
+
+    public static void main(String[] args) {
+        Controller controller = new Controller();
+        controller.registerMetrics();  // Readable by jconsole or any JMX client while running
+        String script = null;
+        String host = "localhost";
+        int port = -1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--script") && i + 1 < args.length) script = args[++i];  // Run the script instead of prompting
+            else if (args[i].equals("--threads") && i + 1 < args.length) threads = parseOption(args[i], args[++i], 1, Integer.MAX_VALUE);
+            else if (args[i].equals("--serve") && i + 1 < args.length) port = parseOption(args[i], args[++i], 0, 65535);  // Serve sessions instead of prompting
+            else if (args[i].equals("--host") && i + 1 < args.length) host = args[++i];
+            else controller.restoreCatalog(args[i]);  // Directory of tables persisted in an earlier session
+        }
+        if (port != -1) {
+            if (!controller.serve(host, port)) System.exit(1);
+        } else if (script == null) controller.start();
+        else if (!controller.runScript(script, threads)) System.exit(1);
+    }
+
+    /**
+     * Reads the number given to an option, or exits with the usage if it is not a number in its range
+     */
+    private static int parseOption(String option, String value, int min, int max) {
+        try {
+            int number = Integer.parseInt(value.trim());
+            if (number >= min && number <= max) return number;
+        } catch (NumberFormatException e) {  // Reported below
+        }
+        System.err.println("Error: Invalid value for " + option + ": " + value);
+        System.err.println(USAGE);
+        System.exit(1);
+        return min;
+    }
+}
@@ -0,0 +1,356 @@
+package norelations;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * Column whose values are read from a memory-mapped file of fixed-width values instead of the heap, so a table can be
+ * larger than the heap and is opened without reading its values. The file is mapped in segments, since one
+ * MappedByteBuffer holds at most 2 GB. The column also knows the min and max of each block of BLOCK_ROWS rows, so a
+ * selection can skip the blocks in which no row can satisfy a comparison with a constant.
+ * Gathering rows copies their values into a column on the heap.
+ */
+public abstract class MappedColumn extends Column {
+    public static final int BLOCK_ROWS = 8192;
+    private static final int SEGMENT_SHIFT = 27;  // 2^27 rows per segment, 1 GB of 8 byte values
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+    private final ByteBuffer[] segments;
+    private final int size;
+    private final double[] blockMin;  // Smallest value of each block, as a double (booleans are 0 and 1, strings their code)
+    private final double[] blockMax;
+
+    private MappedColumn(FileChannel channel, int width, int size, double[] blockMin, double[] blockMax) throws IOException {
+        this.size = size;
+        this.blockMin = blockMin;
+        this.blockMax = blockMax;
+        segments = new ByteBuffer[(size + SEGMENT_MASK) >>> SEGMENT_SHIFT];
+        for (int segment = 0; segment < segments.length; segment++) {
+            long start = (long) segment << SEGMENT_SHIFT;
+            long rows = Math.min(SEGMENT_MASK + 1, size - start);
+            segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY, start * width, rows * width).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Maps a column file
+     *
+     * @param channel    - FileChannel of the column file, it can be closed once the column is mapped
+     * @param type       - Class of the values in the column (Integer, Double, Boolean or String)
+     * @param size       - Number of values
+     * @param dictionary - Sorted dictionary of a String column, whose file holds codes, otherwise null
+     * @param blockMin   - Array of the smallest value of each block
+     * @param blockMax   - Array of the largest value of each block
+     * @return New MappedColumn
+     */
+    static MappedColumn map(FileChannel channel, Class<?> type, int size, String[] dictionary, double[] blockMin, double[] blockMax) throws IOException {
+        if (type == Integer.class) return new Ints(channel, size, blockMin, blockMax);
+        if (type == Double.class) return new Doubles(channel, size, blockMin, blockMax);
+        if (type == Boolean.class) return new Booleans(channel, size, blockMin, blockMax);
+        if (type == String.class) return new Strings(channel, size, dictionary, blockMin, blockMax);
+        throw new IllegalArgumentException("Cannot map a column of type " + type.getSimpleName());
+    }
+
+    /**
+     * Returns the number of bytes of a value of a column type in a column file
+     *
+     * @param type - Class of the values in the column
+     * @return Width of a value in bytes
+     */
+    static int width(Class<?> type) {
+        if (type == Double.class) return 8;
+        if (type == Boolean.class) return 1;
+        return 4;  // ints and String codes
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int hashAt(int row) {
+        return get(row).hashCode();
+    }
+
+    protected ByteBuffer segment(int row) {
+        return segments[row >>> SEGMENT_SHIFT];
+    }
+
+    protected static int offset(int row, int width) {
+        return (row & SEGMENT_MASK) * width;
+    }
+
+    /**
+     * Checks if some row of a block may satisfy a comparison with a constant, from the min and max of the block
+     *
+     * @param block    - Index of the block, the rows from block * BLOCK_ROWS
+     * @param op       - String representing the operator, with the column on its left
+     * @param constant - Object representing the constant on the right of the operator
+     * @return False if no row of the block satisfies the comparison, true if some may
+     */
+    public boolean mayMatch(int block, String op, Object constant) {
+        double value = blockValue(constant);
+        if (Double.isNaN(value)) return true;  // The constant is not of the column type, it is compared as an object
+        double min = blockMin[block], max = blockMax[block];
+        return switch (op) {
+            case "=" -> min <= value && value <= max;
+            case "!=" -> min != max || min != value;
+            case "<" -> min < value;
+            case "<=" -> min <= value;
+            case ">" -> max > value;
+            case ">=" -> max >= value;
+            default -> true;
+        };
+    }
+
+    /**
+     * Converts a constant to the scale of the block min and max
+     *
+     * @return The constant as a double, or NaN if it is not of the column type
+     */
+    abstract double blockValue(Object constant);
+
+    /**
+     * Estimates the statistics of the column from the block min and max, without scanning the values
+     *
+     * @return ColumnStatistics of the column
+     */
+    abstract TableStatistics.ColumnStatistics estimateStatistics();
+
+    protected double min() {
+        return Arrays.stream(blockMin).min().orElse(Double.NaN);
+    }
+
+    protected double max() {
+        return Arrays.stream(blockMax).max().orElse(Double.NaN);
+    }
+
+    /**
+     * Mapped column of ints
+     */
+    static final class Ints extends MappedColumn implements IntValues {
+        private Ints(FileChannel channel, int size, double[] blockMin, double[] blockMax) throws IOException {
+            super(channel, 4, size, blockMin, blockMax);
+        }
+
+        @Override
+        public int getInt(int row) {
+            return segment(row).getInt(offset(row, 4));
+        }
+
+        @Override
+        public Object get(int row) {
+            return getInt(row);
+        }
+
+        @Override
+        public Column gather(int[] rows) {
+            int[] values = new int[rows.length];
+            for (int i = 0; i < rows.length; i++) values[i] = getInt(rows[i]);
+            return new IntColumn(values);
+        }
+
+        @Override
+        public int hashAt(int row) {
+            return Integer.hashCode(getInt(row));
+        }
+
+        @Override
+        public boolean equalsAt(int row, Column other, int otherRow) {
+            if (other instanceof IntValues ints) return getInt(row) == ints.getInt(otherRow);
+            return super.equalsAt(row, other, otherRow);
+        }
+
+        @Override
+        public int compareAt(int row, Column other, int otherRow) {
+            if (other instanceof IntValues ints) return Integer.compare(getInt(row), ints.getInt(otherRow));
+            return super.compareAt(row, other, otherRow);
+        }
+
+        @Override
+        public int[] sortedRows() {
+            int[] keys = new int[size()];
+            for (int row = 0; row < keys.length; row++) keys[row] = getInt(row);
+            return sortRowsByKey(keys);
+        }
+
+        @Override
+        double blockValue(Object constant) {
+            return constant instanceof Integer i ? i : Double.NaN;
+        }
+
+        @Override
+        TableStatistics.ColumnStatistics estimateStatistics() {
+            if (size() == 0) return new TableStatistics.ColumnStatistics(0, null, null);
+            int min = (int) min(), max = (int) max();
+            return new TableStatistics.ColumnStatistics((int) Math.min(size(), (long) max - min + 1), min, max);
+        }
+    }
+
+    /**
+     * Mapped column of doubles. The block min and max are widened around 0, since -0.0 and 0.0 compare as different values
+     */
+    static final class Doubles extends MappedColumn implements DoubleValues {
+        private Doubles(FileChannel channel, int size, double[] blockMin, double[] blockMax) throws IOException {
+            super(channel, 8, size, blockMin, blockMax);
+        }
+
+        @Override
+        public double getDouble(int row) {
+            return segment(row).getDouble(offset(row, 8));
+        }
+
+        @Override
+        public Object get(int row) {
+            return getDouble(row);
+        }
+
+        @Override
+        public Column gather(int[] rows) {
+            double[] values = new double[rows.length];
+            for (int i = 0; i < rows.length; i++) values[i] = getDouble(rows[i]);
+            return new DoubleColumn(values);
+        }
+
+        @Override
+        public int hashAt(int row) {
+            return Double.hashCode(getDouble(row));
+        }
+
+        @Override
+        public boolean equalsAt(int row, Column other, int otherRow) {
+            if (other instanceof DoubleValues doubles) return Double.compare(getDouble(row), doubles.getDouble(otherRow)) == 0;
+            return super.equalsAt(row, other, otherRow);
+        }
+
+        @Override
+        public int compareAt(int row, Column other, int otherRow) {
+            if (other instanceof DoubleValues doubles) return Double.compare(getDouble(row), doubles.getDouble(otherRow));
+            return super.compareAt(row, other, otherRow);
+        }
+
+        @Override
+        double blockValue(Object constant) {
+            return constant instanceof Double d && !d.isNaN() ? d : Double.NaN;
+        }
+
+        @Override
+        TableStatistics.ColumnStatistics estimateStatistics() {
+            if (size() == 0) return new TableStatistics.ColumnStatistics(0, null, null);
+            return new TableStatistics.ColumnStatistics(size(), min(), max());
+        }
+    }
+
+    /**
+     * Mapped column of booleans, one byte per value
+     */
+    static final class Booleans extends MappedColumn implements BooleanValues {
+        private Booleans(FileChannel channel, int size, double[] blockMin, double[] blockMax) throws IOException {
+            super(channel, 1, size, blockMin, blockMax);
+        }
+
+        @Override
+        public boolean getBoolean(int row) {
+            return segment(row).get(offset(row, 1)) != 0;
+        }
+
+        @Override
+        public Object get(int row) {
+            return getBoolean(row);
+        }
+
+        @Override
+        public Column gather(int[] rows) {
+            BitSet values = new BitSet(rows.length);
+            for (int i = 0; i < rows.length; i++) {
+                if (getBoolean(rows[i])) values.set(i);
+            }
+            return new BooleanColumn(values, rows.length);
+        }
+
+        @Override
+        double blockValue(Object constant) {
+            return constant instanceof Boolean b ? (b ? 1 : 0) : Double.NaN;
+        }
+
+        @Override
+        TableStatistics.ColumnStatistics estimateStatistics() {
+            if (size() == 0) return new TableStatistics.ColumnStatistics(0, null, null);
+            return new TableStatistics.ColumnStatistics(min() == max() ? 1 : 2, min() == 1, max() == 1);
+        }
+    }
+
+    /**
+     * Mapped column of String codes, with the sorted dictionary on the heap
+     */
+    static final class Strings extends MappedColumn implements StringCodes {
+        private final String[] dictionary;
+
+        private Strings(FileChannel channel, int size, String[] dictionary, double[] blockMin, double[] blockMax) throws IOException {
+            super(channel, 4, size, blockMin, blockMax);
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        public int getCode(int row) {
+            return segment(row).getInt(offset(row, 4));
+        }
+
+        @Override
+        public String[] getDictionary() {
+            return dictionary;
+        }
+
+        @Override
+        public Object get(int row) {
+            return dictionary[getCode(row)];
+        }
+
+        @Override
+        public Column gather(int[] rows) {
+            int[] codes = new int[rows.length];
+            for (int i = 0; i < rows.length; i++) codes[i] = getCode(rows[i]);
+            return new StringColumn(codes, dictionary);  // The dictionary is shared, not copied
+        }
+
+        @Override
+        public boolean equalsAt(int row, Column other, int otherRow) {
+            if (other instanceof StringCodes strings && strings.getDictionary() == dictionary) {
+                return getCode(row) == strings.getCode(otherRow);
+            }
+            return super.equalsAt(row, other, otherRow);
+        }
+
+        @Override
+        public int compareAt(int row, Column other, int otherRow) {
+            if (other instanceof StringCodes strings && strings.getDictionary() == dictionary) {
+                return Integer.compare(getCode(row), strings.getCode(otherRow));
+            }
+            return super.compareAt(row, other, otherRow);
+        }
+
+        @Override
+        public int[] sortedRows() {
+            int[] codes = new int[size()];
+            for (int row = 0; row < codes.length; row++) codes[row] = getCode(row);
+            return sortRowsByKey(codes);
+        }
+
+        @Override
+        double blockValue(Object constant) {
+            if (!(constant instanceof String s)) return Double.NaN;
+            // A constant missing from the dictionary lies between the codes around its insertion point
+            int position = Arrays.binarySearch(dictionary, s);
+            return position >= 0 ? position : -position - 1.5;
+        }
+
+        @Override
+        TableStatistics.ColumnStatistics estimateStatistics() {
+            if (size() == 0) return new TableStatistics.ColumnStatistics(0, null, null);
+            return new TableStatistics.ColumnStatistics(dictionary.length, dictionary[(int) min()], dictionary[(int) max()]);
+        }
+    }
+}
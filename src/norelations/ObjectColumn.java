@@ -0,0 +1,59 @@
+package norelations;
+
+import java.util.*;
+
+/**
+ * Column of boxed values, used when the values of a column do not all have the column's type
+ */
+public class ObjectColumn extends Column {
+    private final Object[] values;
+
+    ObjectColumn(Object[] values) {
+        this.values = values;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public Object get(int row) {
+        return values[row];
+    }
+
+    @Override
+    public Column gather(int[] rows) {
+        Object[] newValues = new Object[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            newValues[i] = values[rows[i]];
+        }
+        return new ObjectColumn(newValues);
+    }
+
+    @Override
+    public int hashAt(int row) {
+        return Objects.hashCode(values[row]);
+    }
+
+    static class Builder extends TypedBuilder {
+        private Object[] values;
+        private int size;
+
+        Builder(int capacity) {
+            values = new Object[Math.max(capacity, 8)];
+        }
+
+        @Override
+        boolean add(Object value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+            return true;
+        }
+
+        @Override
+        Column build() {
+            return new ObjectColumn(Arrays.copyOf(values, size));
+        }
+    }
+}
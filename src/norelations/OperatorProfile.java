@@ -0,0 +1,225 @@
+package norelations;
+
+import org.apache.logging.log4j.*;
+import org.apache.logging.log4j.message.StringMapMessage;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Execution metrics of an operator of a plan, for EXPLAIN ANALYZE: the wall time, the rows it produced, the bytes
+ * allocated on the executing thread, read from the ThreadMXBean, and the algorithm the Table operation chose.
+ * The times and allocations of a PlanNode.Profiled include its inputs; the self numbers printed subtract those of the
+ * inputs. Allocations of the ParallelExecution threads are not counted.
+ * Each operator is also logged as a structured event by the OperatorProfile logger at INFO level, and while that
+ * level is enabled every query executed without streaming is profiled and logged.
+ */
+public final class OperatorProfile {
+    private static final Logger log = LogManager.getLogger(OperatorProfile.class.getName());
+    private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private static final ThreadLocal<String> algorithm = new ThreadLocal<>();  // Algorithm of the last Table operation on the thread
+    private int invocations;
+    private long nanos;
+    private long allocatedBytes;
+    private long rows;
+    private String chosen;
+
+    /**
+     * Records the algorithm a Table operation chose, e.g. "hash join", for the profile of the operator executing it
+     *
+     * @param name - String describing the algorithm
+     */
+    static void recordAlgorithm(String name) {
+        algorithm.set(name);
+    }
+
+    /**
+     * Returns whether every query is profiled, because the OperatorProfile logger is enabled at INFO level
+     *
+     * @return True if the profiles are logged
+     */
+    static boolean isLogging() {
+        return log.isInfoEnabled();
+    }
+
+    /**
+     * Wraps every operator of a plan in a PlanNode.Profiled. A shared input stays shared, its operators are profiled
+     * once.
+     *
+     * @param plan - PlanNode at the root of the optimized plan
+     * @return PlanNode at the root of the profiled plan
+     */
+    static PlanNode instrument(PlanNode plan) {
+        return instrument(plan, new IdentityHashMap<>());
+    }
+
+    private static PlanNode instrument(PlanNode node, IdentityHashMap<PlanNode, PlanNode> shared) {
+        PlanNode done = shared.get(node);
+        if (done != null) return done;
+        ArrayList<PlanNode> children = new ArrayList<>(node.children());
+        children.replaceAll(child -> instrument(child, shared));
+        PlanNode result = node.withChildren(children);
+        if (node instanceof PlanNode.Shared) shared.put(node, result);
+        else result = new PlanNode.Profiled(result);
+        return result;
+    }
+
+    /**
+     * Measures an execution of an operator
+     *
+     * @param execution - Execution of the operator, including its inputs
+     * @return Table resulting from the execution, or null if it failed
+     */
+    Table measure(Supplier<Table> execution) {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        algorithm.remove();
+        Table table = execution.get();
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        synchronized (this) {
+            invocations++;
+            nanos += elapsed;
+            allocatedBytes += allocated;
+            if (table != null) rows += table.getRowCount();
+            if (algorithm.get() != null) chosen = algorithm.get();
+        }
+        algorithm.remove();  // The operation of the parent records its own algorithm
+        return table;
+    }
+
+    private static long allocatedBytes() {
+        return threads instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemoryEnabled()
+                ? bean.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    /**
+     * Formats a plan as a tree, one operator per line indented under its parent, with its metrics if it was profiled
+     *
+     * @param plan - PlanNode at the root of the plan
+     * @return String representing the plan
+     */
+    static String format(PlanNode plan) {
+        StringBuilder sb = new StringBuilder();
+        format(plan, 0, sb);
+        return sb.toString();
+    }
+
+    private static void format(PlanNode node, int depth, StringBuilder sb) {
+        boolean shared = node instanceof PlanNode.Shared;
+        PlanNode operator = operator(node);
+        OperatorProfile profile = profile(node);
+        sb.append("  ".repeat(depth)).append(label(operator));
+        if (shared) sb.append(" (shared)");
+        if (profile != null) {
+            synchronized (profile) {
+                if (profile.chosen != null) sb.append(" [").append(profile.chosen).append(']');
+                sb.append("  rows ").append(rowsIn(operator)).append(" -> ").append(profile.rows);
+                sb.append(String.format(", time %.3f ms (self %.3f ms)", profile.nanos / 1e6, selfNanos(profile, operator) / 1e6));
+                sb.append(", allocated ").append(formatBytes(profile.allocatedBytes));
+                sb.append(" (self ").append(formatBytes(selfAllocatedBytes(profile, operator))).append(')');
+                if (profile.invocations > 1) sb.append(", executed ").append(profile.invocations).append(" times");
+            }
+        }
+        sb.append('\n');
+        for (PlanNode child : operator.children()) format(child, depth + 1, sb);
+    }
+
+    /**
+     * Logs the profile of every operator of a plan as a structured event
+     *
+     * @param plan  - PlanNode at the root of the profiled plan
+     * @param query - String representing the normalized query
+     */
+    static void log(PlanNode plan, String query) {
+        if (!log.isInfoEnabled()) return;
+        log(plan, query, "0");
+    }
+
+    private static void log(PlanNode node, String query, String path) {
+        PlanNode operator = operator(node);
+        OperatorProfile profile = profile(node);
+        if (profile != null) {
+            synchronized (profile) {
+                StringMapMessage event = new StringMapMessage()
+                        .with("query", query)
+                        .with("operator", label(operator))
+                        .with("path", path);  // Position in the plan, the root is 0 and its children 0.0, 0.1, ...
+                if (profile.chosen != null) event.with("algorithm", profile.chosen);
+                log.info(event.with("invocations", profile.invocations)
+                        .with("rowsIn", rowsIn(operator))
+                        .with("rowsOut", profile.rows)
+                        .with("nanos", profile.nanos)
+                        .with("selfNanos", selfNanos(profile, operator))
+                        .with("allocatedBytes", profile.allocatedBytes)
+                        .with("selfAllocatedBytes", selfAllocatedBytes(profile, operator)));
+            }
+        }
+        List<PlanNode> children = operator.children();
+        for (int i = 0; i < children.size(); i++) log(children.get(i), query, path + "." + i);
+    }
+
+    /**
+     * Returns the operator a node profiles or shares
+     */
+    private static PlanNode operator(PlanNode node) {
+        if (node instanceof PlanNode.Shared shared) node = shared.getChild();
+        if (node instanceof PlanNode.Profiled profiled) node = profiled.getChild();
+        return node;
+    }
+
+    private static OperatorProfile profile(PlanNode node) {
+        if (node instanceof PlanNode.Shared shared) node = shared.getChild();
+        return node instanceof PlanNode.Profiled profiled ? profiled.getProfile() : null;
+    }
+
+    private static long rowsIn(PlanNode operator) {
+        long rows = 0;
+        for (PlanNode child : operator.children()) {
+            OperatorProfile profile = profile(child);
+            if (profile != null) rows += profile.rows;
+        }
+        return rows;
+    }
+
+    private static long selfNanos(OperatorProfile profile, PlanNode operator) {
+        long self = profile.nanos;
+        for (PlanNode child : operator.children()) {
+            OperatorProfile childProfile = profile(child);
+            if (childProfile != null) self -= childProfile.nanos;
+        }
+        return Math.max(self, 0);  // A shared input is only timed in the parent executing it first
+    }
+
+    private static long selfAllocatedBytes(OperatorProfile profile, PlanNode operator) {
+        long self = profile.allocatedBytes;
+        for (PlanNode child : operator.children()) {
+            OperatorProfile childProfile = profile(child);
+            if (childProfile != null) self -= childProfile.allocatedBytes;
+        }
+        return Math.max(self, 0);
+    }
+
+    /**
+     * Describes the operation of a node without its children
+     */
+    private static String label(PlanNode node) {
+        return switch (node) {
+            case PlanNode.Scan scan -> "Scan " + scan.getName();
+            case PlanNode.Project project -> "π " + String.join(",", project.getColumns());
+            case PlanNode.Select select -> "σ " + select.getCondition();
+            case PlanNode.Join join -> "⨝ " + join.getCondition();
+            case PlanNode.SetOperation setOperation -> String.valueOf(setOperation.getOperator());
+            case PlanNode.ColumnOrder columnOrder -> "Order " + String.join(",", columnOrder.getColumns());
+            default -> node.getClass().getSimpleName();
+        };
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+}
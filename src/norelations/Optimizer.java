@@ -0,0 +1,215 @@
+package norelations;
+
+import java.util.*;
+import java.util.function.UnaryOperator;
+
+/**
+ * Optimizer for logical query plans. It rewrites the plan in four phases, the rule phases until no rule applies:
+ * - selections: adjacent selections are merged into one selection of the conjunction of their conditions, and
+ *   selections are pushed below projections, set operations and joins, so fewer rows reach those operators
+ * - join order: chains of equi-joins are reordered by estimated cost, see JoinOrder
+ * - projections: adjacent projections are merged, and projections are pushed below selections and joins,
+ *   so only the needed columns are carried through them
+ * - common subexpressions: identical subtrees are computed once, see CommonSubexpressions
+ * The phases are separate because pushing selections below projections undoes pushing projections below selections.
+ * A rewrite is only kept when the rewritten plan has the same output columns as the original.
+ */
+public class Optimizer {
+    private static final int MAX_PASSES = 32;  // Upper bound on rewrite passes, each pass rewrites the whole tree
+
+    private Optimizer() {
+    }
+
+    /**
+     * Optimizes a plan
+     *
+     * @param plan - PlanNode at the root of the plan
+     * @return PlanNode at the root of the optimized plan
+     */
+    public static PlanNode optimize(PlanNode plan) {
+        plan = applyRules(plan, node -> node instanceof PlanNode.Select select ? rewriteSelect(select) : node);
+        plan = JoinOrder.reorder(plan);
+        plan = applyRules(plan, node -> node instanceof PlanNode.Project project ? rewriteProject(project) : node);
+        return CommonSubexpressions.share(plan);
+    }
+
+    /**
+     * Rewrites a plan with a set of rules until none of them applies
+     *
+     * @param plan  - PlanNode at the root of the plan
+     * @param rules - Function rewriting a single node, returning the same node if no rule applies
+     * @return PlanNode at the root of the rewritten plan
+     */
+    private static PlanNode applyRules(PlanNode plan, UnaryOperator<PlanNode> rules) {
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            PlanNode rewritten = rewrite(plan, rules);
+            if (rewritten == plan) break;
+            plan = rewritten;
+        }
+        return plan;
+    }
+
+    /**
+     * Rewrites the children of a node, then the node itself
+     *
+     * @param node  - PlanNode to rewrite
+     * @param rules - Function rewriting a single node
+     * @return The rewritten node, or the same node if nothing changed
+     */
+    private static PlanNode rewrite(PlanNode node, UnaryOperator<PlanNode> rules) {
+        node = rewriteChildren(node, rules);
+        PlanNode rewritten = rules.apply(node);
+        if (rewritten != node && !sameColumns(rewritten, node)) return node;
+        return rewritten;
+    }
+
+    private static PlanNode rewriteChildren(PlanNode node, UnaryOperator<PlanNode> rules) {
+        ArrayList<PlanNode> children = new ArrayList<>(node.children());
+        children.replaceAll(child -> rewrite(child, rules));
+        return node.withChildren(children);
+    }
+
+    /**
+     * Applies the selection rules: merge with a selection below, or push below a projection, set operation or join
+     */
+    private static PlanNode rewriteSelect(PlanNode.Select select) {
+        Condition condition = select.getCondition();
+        return switch (select.getChild()) {
+            case PlanNode.Select child ->
+                    new PlanNode.Select(Condition.and(List.of(condition, child.getCondition())), child.getChild());
+            case PlanNode.Project child ->
+                    new PlanNode.Project(child.getColumns(), new PlanNode.Select(condition, child.getChild()));
+            case PlanNode.SetOperation child -> new PlanNode.SetOperation(child.getOperator(),
+                    new PlanNode.Select(condition, child.getLeft()), new PlanNode.Select(condition, child.getRight()));
+            case PlanNode.Join child -> pushSelectBelowJoin(condition, child, select);
+            default -> select;
+        };
+    }
+
+    /**
+     * Pushes the conjuncts of a selection that only use the columns of one input of a join into that input
+     *
+     * @param condition - Condition of the selection
+     * @param join      - Join below the selection
+     * @param select    - The selection itself, returned if nothing can be pushed
+     * @return The rewritten plan
+     */
+    private static PlanNode pushSelectBelowJoin(Condition condition, PlanNode.Join join, PlanNode.Select select) {
+        Table output = join.schema();
+        Table left = join.getLeft().schema();
+        Table right = join.getRight().schema();
+        if (output == null || left == null || right == null) return select;
+
+        ArrayList<Condition> leftConditions = new ArrayList<>();
+        ArrayList<Condition> rightConditions = new ArrayList<>();
+        ArrayList<Condition> remaining = new ArrayList<>();
+        for (Condition conjunct : condition.conjuncts()) {
+            Set<String> columns = conjunct.getColumns();
+            // A column of the left input that is still in the output holds the left values, the right input's
+            // columns keep their values only if the left input has no column of the same name
+            if (resolvesIn(columns, output) && resolvesIn(columns, left)) {
+                leftConditions.add(conjunct);
+            } else if (resolvesIn(columns, output) && resolvesIn(columns, right) && resolvesInNone(columns, left)) {
+                rightConditions.add(conjunct);
+            } else {
+                remaining.add(conjunct);
+            }
+        }
+        if (leftConditions.isEmpty() && rightConditions.isEmpty()) return select;
+
+        PlanNode newLeft = leftConditions.isEmpty() ? join.getLeft() : new PlanNode.Select(Condition.and(leftConditions), join.getLeft());
+        PlanNode newRight = rightConditions.isEmpty() ? join.getRight() : new PlanNode.Select(Condition.and(rightConditions), join.getRight());
+        PlanNode newJoin = new PlanNode.Join(join.getCondition(), newLeft, newRight);
+        return remaining.isEmpty() ? newJoin : new PlanNode.Select(Condition.and(remaining), newJoin);
+    }
+
+    /**
+     * Applies the projection rules: merge with a projection below, or push below a selection or join
+     */
+    private static PlanNode rewriteProject(PlanNode.Project project) {
+        TreeSet<String> columns = project.getColumns();
+        return switch (project.getChild()) {
+            case PlanNode.Project child -> new PlanNode.Project(columns, child.getChild());
+            case PlanNode.ColumnOrder child -> new PlanNode.Project(columns, child.getChild());
+            case PlanNode.Select child -> {
+                // Keep the projected columns and the columns the condition needs below the selection
+                Table input = child.getChild().schema();
+                TreeSet<String> needed = neededColumns(columns, child.getCondition().getColumns(), input);
+                if (needed == null || needed.size() >= input.getColumns().size()) yield project;
+                yield new PlanNode.Project(columns, new PlanNode.Select(child.getCondition(),
+                        new PlanNode.Project(needed, child.getChild())));
+            }
+            case PlanNode.Join child -> pushProjectBelowJoin(columns, child, project);
+            default -> project;
+        };
+    }
+
+    /**
+     * Projects each input of a join onto the projected columns it has, plus its join column
+     *
+     * @param columns - TreeSet of projected column names
+     * @param join    - Join below the projection
+     * @param project - The projection itself, returned if nothing can be pushed
+     * @return The rewritten plan
+     */
+    private static PlanNode pushProjectBelowJoin(TreeSet<String> columns, PlanNode.Join join, PlanNode.Project project) {
+        Table left = join.getLeft().schema();
+        Table right = join.getRight().schema();
+        Condition condition = Condition.parse(join.getCondition());
+        if (left == null || right == null || !(condition instanceof Condition.Comparison comparison)) return project;
+
+        String[] parts = comparison.getParts();
+        TreeSet<String> leftNeeded = neededColumns(columns, Set.of(parts[0]), left);
+        TreeSet<String> rightNeeded = neededColumns(columns, Set.of(parts[2]), right);
+        if (leftNeeded == null || rightNeeded == null) return project;
+        if (leftNeeded.size() >= left.getColumns().size() && rightNeeded.size() >= right.getColumns().size()) return project;
+
+        PlanNode newLeft = leftNeeded.size() < left.getColumns().size() ? new PlanNode.Project(leftNeeded, join.getLeft()) : join.getLeft();
+        PlanNode newRight = rightNeeded.size() < right.getColumns().size() ? new PlanNode.Project(rightNeeded, join.getRight()) : join.getRight();
+        PlanNode newJoin = new PlanNode.Join(join.getCondition(), newLeft, newRight);
+        if (newJoin.schema() == null || !newJoin.columnNames().containsAll(columns)) return project;
+        return new PlanNode.Project(columns, newJoin);
+    }
+
+    /**
+     * Finds the columns of an input that are projected or referenced by a condition
+     *
+     * @param columns - Set of projected column names
+     * @param operands - Set of column operands used by a condition, all must be columns of the input
+     * @param input   - Schema of the input
+     * @return TreeSet of the needed column names, or null if the input is invalid or an operand is not one of its columns
+     */
+    private static TreeSet<String> neededColumns(Set<String> columns, Set<String> operands, Table input) {
+        if (input == null) return null;
+        TreeSet<String> needed = new TreeSet<>();
+        for (String column : columns) {
+            if (input.getColumns().contains(column)) needed.add(column);
+        }
+        for (String operand : operands) {
+            String name = input.getOperandColumnName(operand);
+            if (name == null) return null;
+            needed.add(name);
+        }
+        return needed;
+    }
+
+    private static boolean resolvesIn(Set<String> columns, Table table) {
+        for (String column : columns) {
+            if (table.getOperandColumn(column) == -1) return false;
+        }
+        return true;
+    }
+
+    private static boolean resolvesInNone(Set<String> columns, Table table) {
+        for (String column : columns) {
+            if (table.getOperandColumn(column) != -1) return false;
+        }
+        return true;
+    }
+
+    private static boolean sameColumns(PlanNode rewritten, PlanNode original) {
+        Table originalSchema = original.schema();
+        Table rewrittenSchema = rewritten.schema();
+        return originalSchema != null && rewrittenSchema != null && originalSchema.getColumns().equals(rewrittenSchema.getColumns());
+    }
+}
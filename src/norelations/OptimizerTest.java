@@ -0,0 +1,112 @@
+package norelations;
+
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimizerTest {
+    private final Table students = new Table(new ArrayList<>(Arrays.asList("id, name, age", "1, 'Alex', 20", "2, 'John', 25", "3, 'Mo', 31")));
+    private final Table takes = new Table(new ArrayList<>(Arrays.asList("sid, cname", "1, 'Math'", "1, 'Physics'", "2, 'Network'", "3, 'Math'")));
+
+    @Test
+    void testPushSelectionBelowJoin() {
+        PlanNode join = new PlanNode.Join("id=sid", new PlanNode.Scan(students, "Student"), new PlanNode.Scan(takes, "takes"));
+        PlanNode plan = new PlanNode.Select(Condition.parse("age>21 AND cname='Math' AND id!=sid"), join);
+        PlanNode optimized = Optimizer.optimize(plan);
+
+        PlanNode.Select remaining = assertInstanceOf(PlanNode.Select.class, optimized);
+        assertEquals("id!=sid", remaining.getCondition().toString());
+        PlanNode.Join optimizedJoin = assertInstanceOf(PlanNode.Join.class, remaining.getChild());
+        assertEquals("age>21", ((PlanNode.Select) optimizedJoin.getLeft()).getCondition().toString());
+        assertEquals("cname='Math'", ((PlanNode.Select) optimizedJoin.getRight()).getCondition().toString());
+        assertSameRows(plan.execute(), optimized.execute());
+    }
+
+    @Test
+    void testMergeSelectionsAndPushBelowSetOperation() {
+        PlanNode union = new PlanNode.SetOperation('∪', new PlanNode.Scan(students, "A"), new PlanNode.Scan(students, "B"));
+        PlanNode plan = new PlanNode.Select(Condition.parse("age>21"), new PlanNode.Select(Condition.parse("id<3"), union));
+        PlanNode optimized = Optimizer.optimize(plan);
+
+        PlanNode.SetOperation setOperation = assertInstanceOf(PlanNode.SetOperation.class, optimized);
+        // Both scans read the same table, so the pushed selections are one shared subexpression
+        assertSame(setOperation.getLeft(), setOperation.getRight());
+        PlanNode.Shared shared = assertInstanceOf(PlanNode.Shared.class, setOperation.getLeft());
+        PlanNode.Select left = assertInstanceOf(PlanNode.Select.class, shared.getChild());
+        assertEquals(2, left.getCondition().conjuncts().size());
+        assertSameRows(plan.execute(), optimized.execute());
+    }
+
+    @Test
+    void testPushProjectionBelowJoin() {
+        PlanNode join = new PlanNode.Join("id=sid", new PlanNode.Scan(students, "Student"), new PlanNode.Scan(takes, "takes"));
+        PlanNode plan = new PlanNode.Project(new TreeSet<>(List.of("name", "cname")), join);
+        PlanNode optimized = Optimizer.optimize(plan);
+
+        PlanNode.Join optimizedJoin = assertInstanceOf(PlanNode.Join.class, ((PlanNode.Project) optimized).getChild());
+        assertEquals(Set.of("id", "name"), optimizedJoin.getLeft().columnNames());
+        assertSameRows(plan.execute(), optimized.execute());
+    }
+
+    @Test
+    void testReorderJoinsByStatistics() {
+        ArrayList<String> ordersRows = new ArrayList<>(List.of("oid, pid"));
+        ArrayList<String> productsRows = new ArrayList<>(List.of("id, category"));
+        for (int i = 0; i < 40; i++) {
+            ordersRows.add(i + ", " + i);
+            productsRows.add(i + ", " + i % 20);
+        }
+        Table orders = new Table(ordersRows);
+        Table products = new Table(productsRows);
+        Table categories = new Table(new ArrayList<>(List.of("cid, cname", "3, 'Books'", "7, 'Games'")));
+
+        // Joining orders with products first produces 40 rows, joining products with categories first only 4
+        PlanNode plan = new PlanNode.Join("category=cid", new PlanNode.Join("pid=id", new PlanNode.Scan(orders, "Orders"),
+                new PlanNode.Scan(products, "Products")), new PlanNode.Scan(categories, "Categories"));
+        PlanNode optimized = Optimizer.optimize(plan);
+
+        PlanNode.Join root = assertInstanceOf(PlanNode.Join.class, optimized);
+        assertEquals("pid=id", root.getCondition());
+        assertEquals("Orders", root.getLeft().toString());
+        PlanNode.Join first = assertInstanceOf(PlanNode.Join.class, root.getRight());
+        assertEquals("category=cid", first.getCondition());
+        assertEquals(plan.execute().getColumnOrder(), optimized.execute().getColumnOrder());
+        assertSameRows(plan.execute(), optimized.execute());
+        assertEquals(4, optimized.execute().getRowCount());
+    }
+
+    @Test
+    void testStatistics() {
+        TableStatistics statistics = students.getStatistics();
+        assertEquals(3, statistics.getRowCount());
+        assertEquals(3, statistics.getColumn("name").distinctCount());
+        assertEquals(20, statistics.getColumn("age").min());
+        assertEquals(31, statistics.getColumn("age").max());
+        assertEquals(0.5, Condition.parse("age<25.5").selectivity(students), 1e-9);
+    }
+
+    private static void assertSameRows(Table expected, Table actual) {
+        assertEquals(expected.getColumns(), actual.getColumns());
+        assertEquals(new HashSet<>(expected.getTable()), new HashSet<>(actual.getTable()));
+        assertEquals(expected.getRowCount(), actual.getRowCount());
+    }
+
+    @Test
+    void testShareCommonSubexpressions() {
+        TreeSet<String> id = new TreeSet<>(List.of("id"));
+        PlanNode adults = new PlanNode.Project(id, new PlanNode.Select(Condition.parse("age>21"), new PlanNode.Scan(students, "Student")));
+        PlanNode sameAdults = new PlanNode.Project(id, new PlanNode.Select(Condition.parse("age>21"), new PlanNode.Scan(students, "Student")));
+        PlanNode plan = new PlanNode.Join("id=id", adults, sameAdults);
+        PlanNode.Join shared = assertInstanceOf(PlanNode.Join.class, CommonSubexpressions.share(plan));
+        assertSame(shared.getLeft(), shared.getRight());
+        assertInstanceOf(PlanNode.Shared.class, shared.getLeft());
+        assertSameRows(plan.execute(), shared.execute());
+
+        // Selections of other tables or with other conditions are not merged
+        PlanNode other = new PlanNode.Join("id=sid", adults, new PlanNode.Select(Condition.parse("sid>1"), new PlanNode.Scan(takes, "takes")));
+        assertSame(other, CommonSubexpressions.share(other));
+        PlanNode otherCondition = new PlanNode.Join("id=id", adults,
+                new PlanNode.Project(id, new PlanNode.Select(Condition.parse("age>22"), new PlanNode.Scan(students, "Student"))));
+        assertSame(otherCondition, CommonSubexpressions.share(otherCondition));
+    }
+}
@@ -0,0 +1,142 @@
+package norelations;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Parallel execution mode of the Table operators. When the parallelism is above 1, selections and the probe phase of
+ * joins split their rows into chunks that are processed on a ForkJoinPool, and the columns of a result are gathered
+ * in parallel. The results of the chunks are concatenated in chunk order, so the output is the same as sequentially.
+ */
+public final class ParallelExecution {
+    static final int MIN_CHUNK_ROWS = 4096;  // Smaller inputs are processed on the calling thread
+    private static volatile ForkJoinPool pool;  // Null when running sequentially
+
+    private ParallelExecution() {
+    }
+
+    /**
+     * Sets the number of threads the operators use
+     *
+     * @param parallelism - Number of threads, 1 to run sequentially
+     */
+    public static synchronized void setParallelism(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        if (parallelism == getParallelism()) return;
+        // The previous pool is not shut down: a statement or session running at the same time may have read it and still
+        // submit its tasks to it. Its idle threads exit on their own once that work is done.
+        pool = parallelism == 1 ? null : new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Returns the number of threads the operators use
+     *
+     * @return Number of threads, 1 when running sequentially
+     */
+    public static int getParallelism() {
+        ForkJoinPool current = pool;
+        return current == null ? 1 : current.getParallelism();
+    }
+
+    /**
+     * Processes a range of rows in chunks
+     *
+     * @param <T> - Type of the result of a chunk
+     */
+    @FunctionalInterface
+    interface ChunkFunction<T> {
+        /**
+         * Processes the rows from one row up to, but not including, another
+         *
+         * @param from - Index of the first row
+         * @param to   - Index after the last row
+         * @return Result for the chunk
+         */
+        T apply(int from, int to);
+    }
+
+    /**
+     * Applies a function to the chunks of a range of rows, in parallel if the parallel mode is on and there are enough rows
+     *
+     * @param rows     - Number of rows
+     * @param function - ChunkFunction processing a chunk
+     * @param <T>      - Type of the result of a chunk
+     * @return List of the results of the chunks, in row order
+     */
+    static <T> List<T> mapChunks(int rows, ChunkFunction<T> function) {
+        ForkJoinPool current = pool;
+        if (current == null || rows < 2 * MIN_CHUNK_ROWS) return List.of(function.apply(0, rows));
+        // A few chunks per thread, so threads that finish early can take over the remaining work
+        int chunkRows = Math.max(MIN_CHUNK_ROWS, rows / (current.getParallelism() * 4) + 1);
+        return current.invoke(new ChunkTask<>(0, rows, chunkRows, function));
+    }
+
+    /**
+     * Runs independent tasks, in parallel if the parallel mode is on and the tasks are worth it
+     *
+     * @param tasks - List of the tasks
+     * @param rows  - Number of rows each task processes
+     */
+    static void runAll(List<Runnable> tasks, int rows) {
+        ForkJoinPool current = pool;
+        if (current == null || tasks.size() < 2 || rows < MIN_CHUNK_ROWS) {
+            tasks.forEach(Runnable::run);
+            return;
+        }
+        current.invoke(new ChunkTask<>(0, tasks.size(), 1, (from, to) -> {
+            for (int i = from; i < to; i++) tasks.get(i).run();
+            return null;
+        }));
+    }
+
+    /**
+     * Computes independent results, in parallel if the parallel mode is on
+     *
+     * @param tasks - List of the tasks, each computing one result
+     * @param <T>   - Type of the results
+     * @return List of the results, in task order
+     */
+    static <T> List<T> computeAll(List<Supplier<T>> tasks) {
+        ForkJoinPool current = pool;
+        if (current == null || tasks.size() < 2) return tasks.stream().map(Supplier::get).toList();
+        return current.invoke(new ChunkTask<>(0, tasks.size(), 1, (from, to) -> tasks.get(from).get()));
+    }
+
+    /**
+     * Splits a range of rows in halves until it is at most one chunk, then processes it
+     */
+    @SuppressWarnings("serial")  // Tasks are never serialized
+    private static final class ChunkTask<T> extends RecursiveTask<List<T>> {
+        private final int from;
+        private final int to;
+        private final int chunkRows;
+        private final ChunkFunction<T> function;
+
+        private ChunkTask(int from, int to, int chunkRows, ChunkFunction<T> function) {
+            this.from = from;
+            this.to = to;
+            this.chunkRows = chunkRows;
+            this.function = function;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (to - from <= chunkRows) {
+                ArrayList<T> result = new ArrayList<>(1);
+                result.add(function.apply(from, to));
+                return result;
+            }
+            // Split on a chunk boundary, so the chunks are the same however the range was split
+            int middle = from + (to - from) / chunkRows / 2 * chunkRows;
+            if (middle == from) middle += chunkRows;
+            ChunkTask<T> left = new ChunkTask<>(from, middle, chunkRows, function);
+            ChunkTask<T> right = new ChunkTask<>(middle, to, chunkRows, function);
+            left.fork();
+            List<T> results = new ArrayList<>(right.compute());
+            results.addAll(0, left.join());
+            return results;
+        }
+    }
+}
@@ -0,0 +1,565 @@
+package norelations;
+
+import java.util.*;
+
+/**
+ * A node of a logical query plan. Query builds the plan from the query string, the Optimizer rewrites it,
+ * and only then is it executed. Nodes are immutable, rewrites build new nodes.
+ * A plan is either executed, each operator producing its whole result before the next one runs, or streamed, each
+ * operator passing batches of rows to the next one. Streaming keeps only a batch of rows per selection, projection
+ * and join probe in memory; only the blocking operators, the build side of a join and set operations, collect
+ * their whole input.
+ */
+public abstract class PlanNode {
+    public static final int BATCH_SIZE = 1024;  // Number of rows in a streamed batch
+    private Table schema;  // Empty table with the output columns of the node, computed when first needed
+
+    /**
+     * Executes the plan rooted at this node
+     *
+     * @return Table with the result, or null if an operation failed
+     */
+    public abstract Table execute();
+
+    /**
+     * Returns the inputs of the node
+     *
+     * @return List of child nodes
+     */
+    public abstract List<PlanNode> children();
+
+    /**
+     * Returns a node doing the same operation on other inputs
+     *
+     * @param children - List of the new child nodes, in the order of children()
+     * @return New PlanNode, or this node if the children are the same
+     */
+    public abstract PlanNode withChildren(List<PlanNode> children);
+
+    protected boolean sameChildren(List<PlanNode> children) {
+        List<PlanNode> current = children();
+        for (int i = 0; i < current.size(); i++) {
+            if (current.get(i) != children.get(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns an empty table with the output columns of the node. It is computed by running the plan on empty
+     * tables, so it follows exactly the column naming of the Table operations.
+     *
+     * @return Empty Table, or null if the plan is invalid
+     */
+    public Table schema() {
+        if (schema == null) {
+            try {
+                schema = computeSchema();
+            } catch (RuntimeException e) {  // The operation fails on the columns, the error is reported when executing
+                return null;
+            }
+        }
+        return schema;
+    }
+
+    protected abstract Table computeSchema();
+
+    /**
+     * Executes the plan rooted at this node by streaming batches of rows through the operators
+     *
+     * @return Table with the result, or null if an operation failed
+     */
+    public Table executeStreaming() {
+        Table schema = schema();
+        if (schema == null) return execute();  // The plan is invalid, executing it reports the error
+        Table.Appender appender = new Table.Appender(schema);
+        return stream(appender) ? appender.build() : null;
+    }
+
+    /**
+     * Streams the rows of the plan rooted at this node. By default the node is executed and its result is split
+     * into batches, operators that can process a batch at a time override this.
+     *
+     * @param consumer - BatchConsumer receiving the batches
+     * @return True if all the batches were passed on, false if an operation failed
+     */
+    public boolean stream(BatchConsumer consumer) {
+        Table table = execute();
+        return table != null && streamTable(table, consumer);
+    }
+
+    /**
+     * Splits a table into batches
+     *
+     * @param table    - Table to stream
+     * @param consumer - BatchConsumer receiving the batches
+     * @return True if all the batches were passed on, false if the consumer failed
+     */
+    protected static boolean streamTable(Table table, BatchConsumer consumer) {
+        for (int from = 0; from < table.getRowCount(); from += BATCH_SIZE) {
+            if (!consumer.accept(table.slice(from, Math.min(from + BATCH_SIZE, table.getRowCount())))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Passes a batch on unless it failed or is empty
+     */
+    protected static boolean passOn(Table batch, BatchConsumer consumer) {
+        return batch != null && (batch.getRowCount() == 0 || consumer.accept(batch));
+    }
+
+    /**
+     * Returns the output column names of the node
+     *
+     * @return Set of column names, empty if the plan is invalid
+     */
+    public Set<String> columnNames() {
+        Table table = schema();
+        return table == null ? Set.of() : table.getColumns();
+    }
+
+    /**
+     * Scan of a stored or inline table
+     */
+    public static final class Scan extends PlanNode {
+        private final Table table;
+        private final String name;
+
+        public Scan(Table table, String name) {
+            this.table = table;
+            this.name = name;
+        }
+
+        public Table getTable() {
+            return table;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Table execute() {
+            return table;
+        }
+
+        @Override
+        public List<PlanNode> children() {
+            return List.of();
+        }
+
+        @Override
+        public PlanNode withChildren(List<PlanNode> children) {
+            return this;
+        }
+
+        @Override
+        protected Table computeSchema() {
+            return table == null ? null : table.emptyCopy();
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Projection π onto a set of columns
+     */
+    public static final class Project extends PlanNode {
+        private final TreeSet<String> columns;
+        private final PlanNode child;
+
+        public Project(TreeSet<String> columns, PlanNode child) {
+            this.columns = columns;
+            this.child = child;
+        }
+
+        public TreeSet<String> getColumns() {
+            return columns;
+        }
+
+        public PlanNode getChild() {
+            return child;
+        }
+
+        @Override
+        public Table execute() {
+            Table table = child.execute();
+            return table == null ? null : table.projection(columns);
+        }
+
+        @Override
+        public boolean stream(BatchConsumer consumer) {
+            return child.stream(batch -> passOn(batch.projection(columns), consumer));
+        }
+
+        @Override
+        public List<PlanNode> children() {
+            return List.of(child);
+        }
+
+        @Override
+        public PlanNode withChildren(List<PlanNode> children) {
+            return sameChildren(children) ? this : new Project(columns, children.getFirst());
+        }
+
+        @Override
+        protected Table computeSchema() {
+            Table table = child.schema();
+            return table == null || !table.getColumns().containsAll(columns) ? null : table.projection(columns);
+        }
+
+        @Override
+        public String toString() {
+            return "π " + String.join(",", columns) + " (" + child + ")";
+        }
+    }
+
+    /**
+     * Selection σ of the rows satisfying a condition
+     */
+    public static final class Select extends PlanNode {
+        private final Condition condition;
+        private final PlanNode child;
+
+        public Select(Condition condition, PlanNode child) {
+            this.condition = condition;
+            this.child = child;
+        }
+
+        public Condition getCondition() {
+            return condition;
+        }
+
+        public PlanNode getChild() {
+            return child;
+        }
+
+        @Override
+        public Table execute() {
+            Table table = child.execute();
+            return table == null ? null : table.select(condition);
+        }
+
+        @Override
+        public boolean stream(BatchConsumer consumer) {
+            return child.stream(batch -> passOn(batch.select(condition), consumer));
+        }
+
+        @Override
+        public List<PlanNode> children() {
+            return List.of(child);
+        }
+
+        @Override
+        public PlanNode withChildren(List<PlanNode> children) {
+            return sameChildren(children) ? this : new Select(condition, children.getFirst());
+        }
+
+        @Override
+        protected Table computeSchema() {
+            Table table = child.schema();
+            if (table == null) return null;
+            for (String column : condition.getColumns()) {
+                if (table.getOperandColumn(column) == -1) return null;
+            }
+            return table;
+        }
+
+        @Override
+        public String toString() {
+            return "σ " + condition + " (" + child + ")";
+        }
+    }
+
+    /**
+     * Join ⨝ of two inputs on a condition
+     */
+    public static final class Join extends PlanNode {
+        private final String condition;
+        private final PlanNode left;
+        private final PlanNode right;
+
+        public Join(String condition, PlanNode left, PlanNode right) {
+            this.condition = condition;
+            this.left = left;
+            this.right = right;
+        }
+
+        public String getCondition() {
+            return condition;
+        }
+
+        public PlanNode getLeft() {
+            return left;
+        }
+
+        public PlanNode getRight() {
+            return right;
+        }
+
+        @Override
+        public Table execute() {
+            Table leftTable = left.execute();
+            Table rightTable = right.execute();
+            return leftTable == null || rightTable == null ? null : leftTable.join(rightTable, condition);
+        }
+
+        /**
+         * Collects the right input and builds its hash table or sorted order, then joins each batch of the left input
+         */
+        @Override
+        public boolean stream(BatchConsumer consumer) {
+            Table rightTable = right.executeStreaming();
+            Table.JoinBuild build = rightTable == null ? null : rightTable.buildJoin(condition);
+            return build != null && left.stream(batch -> passOn(build.join(batch), consumer));
+        }
+
+        @Override
+        public List<PlanNode> children() {
+            return List.of(left, right);
+        }
+
+        @Override
+        public PlanNode withChildren(List<PlanNode> children) {
+            return sameChildren(children) ? this : new Join(condition, children.get(0), children.get(1));
+        }
+
+        @Override
+        protected Table computeSchema() {
+            Table leftTable = left.schema();
+            Table rightTable = right.schema();
+            return leftTable == null || rightTable == null ? null : leftTable.join(rightTable, condition);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + ") ⨝ " + condition + " (" + right + ")";
+        }
+    }
+
+    /**
+     * Set operation of two inputs with the same columns: union ∪, intersection ∩ or difference -
+     */
+    public static final class SetOperation extends PlanNode {
+        private final char operator;
+        private final PlanNode left;
+        private final PlanNode right;
+
+        public SetOperation(char operator, PlanNode left, PlanNode right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        public char getOperator() {
+            return operator;
+        }
+
+        public PlanNode getLeft() {
+            return left;
+        }
+
+        public PlanNode getRight() {
+            return right;
+        }
+
+        @Override
+        public Table execute() {
+            Table leftTable = left.execute();
+            Table rightTable = right.execute();
+            return leftTable == null || rightTable == null ? null : leftTable.setOperation(rightTable, operator);
+        }
+
+        @Override
+        public boolean stream(BatchConsumer consumer) {
+            Table leftTable = left.executeStreaming();
+            Table rightTable = leftTable == null ? null : right.executeStreaming();
+            Table table = rightTable == null ? null : leftTable.setOperation(rightTable, operator);
+            return table != null && streamTable(table, consumer);
+        }
+
+        @Override
+        public List<PlanNode> children() {
+            return List.of(left, right);
+        }
+
+        @Override
+        public PlanNode withChildren(List<PlanNode> children) {
+            return sameChildren(children) ? this : new SetOperation(operator, children.get(0), children.get(1));
+        }
+
+        @Override
+        protected Table computeSchema() {
+            Table leftTable = left.schema();
+            Table rightTable = right.schema();
+            if (leftTable == null || rightTable == null || !leftTable.getColumns().equals(rightTable.getColumns())) return null;
+            return leftTable.setOperation(rightTable, operator);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + ") " + operator + " (" + right + ")";
+        }
+    }
+
+    /**
+     * Reorders the columns of the input, e.g. to keep the column order of the query after reordering joins
+     */
+    public static final class ColumnOrder extends PlanNode {
+        private final List<String> columns;
+        private final PlanNode child;
+
+        public ColumnOrder(List<String> columns, PlanNode child) {
+            this.columns = List.copyOf(columns);
+            this.child = child;
+        }
+
+        public List<String> getColumns() {
+            return columns;
+        }
+
+        public PlanNode getChild() {
+            return child;
+        }
+
+        @Override
+        public Table execute() {
+            Table table = child.execute();
+            return table == null ? null : table.orderColumns(columns);
+        }
+
+        @Override
+        public boolean stream(BatchConsumer consumer) {
+            return child.stream(batch -> passOn(batch.orderColumns(columns), consumer));
+        }
+
+        @Override
+        public List<PlanNode> children() {
+            return List.of(child);
+        }
+
+        @Override
+        public PlanNode withChildren(List<PlanNode> children) {
+            return sameChildren(children) ? this : new ColumnOrder(columns, children.getFirst());
+        }
+
+        @Override
+        protected Table computeSchema() {
+            Table table = child.schema();
+            return table == null || !table.getColumns().equals(new HashSet<>(columns)) ? null : table.orderColumns(columns);
+        }
+
+        @Override
+        public String toString() {
+            return child.toString();
+        }
+    }
+
+    /**
+     * Input used by more than one parent, executed once. The first parent to execute it computes its result, the
+     * others get the same table. See CommonSubexpressions.
+     */
+    public static final class Shared extends PlanNode {
+        private final PlanNode child;
+        private Table result;  // Result of the child, computed when first executed
+
+        public Shared(PlanNode child) {
+            this.child = child;
+        }
+
+        public PlanNode getChild() {
+            return child;
+        }
+
+        @Override
+        public synchronized Table execute() {
+            if (result == null) result = child.execute();
+            return result;
+        }
+
+        @Override
+        public synchronized Table executeStreaming() {
+            if (result == null) result = child.executeStreaming();
+            return result;
+        }
+
+        @Override
+        public List<PlanNode> children() {
+            return List.of(child);
+        }
+
+        @Override
+        public PlanNode withChildren(List<PlanNode> children) {
+            return sameChildren(children) ? this : new Shared(children.getFirst());
+        }
+
+        @Override
+        protected Table computeSchema() {
+            return child.schema();
+        }
+
+        @Override
+        public String toString() {
+            return child.toString();
+        }
+    }
+
+    /**
+     * Measures the executions of its child, see OperatorProfile. The inputs of the child are measured by their own
+     * Profiled nodes. Streaming passes the batches straight through, unmeasured.
+     */
+    public static final class Profiled extends PlanNode {
+        private final PlanNode child;
+        private final OperatorProfile profile;
+
+        public Profiled(PlanNode child) {
+            this(child, new OperatorProfile());
+        }
+
+        private Profiled(PlanNode child, OperatorProfile profile) {
+            this.child = child;
+            this.profile = profile;
+        }
+
+        public PlanNode getChild() {
+            return child;
+        }
+
+        public OperatorProfile getProfile() {
+            return profile;
+        }
+
+        @Override
+        public Table execute() {
+            return profile.measure(child::execute);
+        }
+
+        @Override
+        public boolean stream(BatchConsumer consumer) {
+            return child.stream(consumer);
+        }
+
+        @Override
+        public List<PlanNode> children() {
+            return List.of(child);
+        }
+
+        @Override
+        public PlanNode withChildren(List<PlanNode> children) {
+            return sameChildren(children) ? this : new Profiled(children.getFirst(), profile);
+        }
+
+        @Override
+        protected Table computeSchema() {
+            return child.schema();
+        }
+
+        @Override
+        public String toString() {
+            return child.toString();
+        }
+    }
+}
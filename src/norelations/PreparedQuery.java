@@ -0,0 +1,84 @@
+package norelations;
+
+import java.util.*;
+
+/**
+ * A parsed query, ready to be executed any number of times without parsing it again. The plan scans the tables of
+ * the catalog it was parsed with; when one of them has since been replaced, the scans are bound to the current
+ * tables of the same names before executing.
+ */
+public final class PreparedQuery {
+    private final String normalized;
+    private final Set<String> tableNames;
+    private PlanNode plan;
+    private Map<String, Table> boundTables;  // Tables the scans of the plan read, by name
+
+    PreparedQuery(String normalized, PlanNode plan, Set<String> tableNames) {
+        this.normalized = normalized;
+        this.plan = plan;
+        this.tableNames = Set.copyOf(tableNames);
+        boundTables = new HashMap<>();
+        collectTables(plan, boundTables);
+    }
+
+    /**
+     * Returns the query with its keywords replaced by symbols and single spaces between its tokens, so queries
+     * differing only in spacing or keywords have the same normalized form
+     *
+     * @return String representing the normalized query
+     */
+    public String getNormalized() {
+        return normalized;
+    }
+
+    /**
+     * Returns the names of the catalog tables the query reads
+     *
+     * @return Set of table names
+     */
+    public Set<String> getTableNames() {
+        return tableNames;
+    }
+
+    /**
+     * Returns the plan of the query, bound to the current tables of the catalog
+     *
+     * @param tables - Map of the tables of the catalog by name
+     * @return PlanNode at the root of the unoptimized plan, or null if a table the query reads no longer exists
+     */
+    synchronized PlanNode bind(Map<String, Table> tables) {
+        boolean changed = false;
+        for (String name : tableNames) {
+            Table table = tables.get(name);
+            if (table == null) return null;
+            changed |= table != boundTables.get(name);
+        }
+        if (changed) {
+            Map<String, Table> current = new HashMap<>();
+            for (String name : tableNames) current.put(name, tables.get(name));
+            plan = rebind(plan, current);
+            boundTables = current;
+        }
+        return plan;
+    }
+
+    private static PlanNode rebind(PlanNode node, Map<String, Table> tables) {
+        if (node instanceof PlanNode.Scan scan && tables.containsKey(scan.getName())) {
+            Table table = tables.get(scan.getName());
+            return table == scan.getTable() ? scan : new PlanNode.Scan(table, scan.getName());
+        }
+        ArrayList<PlanNode> children = new ArrayList<>(node.children());
+        children.replaceAll(child -> rebind(child, tables));
+        return node.withChildren(children);
+    }
+
+    private void collectTables(PlanNode node, Map<String, Table> tables) {
+        if (node instanceof PlanNode.Scan scan && tableNames.contains(scan.getName())) tables.put(scan.getName(), scan.getTable());
+        for (PlanNode child : node.children()) collectTables(child, tables);
+    }
+
+    @Override
+    public String toString() {
+        return normalized;
+    }
+}
@@ -0,0 +1,605 @@
+package norelations;
+
+import org.apache.logging.log4j.*;
+import com.google.common.base.Optional;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * The catalog of named tables and the execution of queries on it.
+ * The catalog publishes immutable snapshots, see Catalog: each query reads the tables of one snapshot, and the tables
+ * a query defines or a command saves are published atomically, so queries can run at the same time as each other and
+ * as the statements changing the catalog. The sessions of a QueryServer share the catalog of one Query, each with its
+ * own last table and execution mode, see session().
+ */
+public class Query {
+    private static final Logger log = LogManager.getLogger(Query.class.getName());
+
+    private final Catalog catalog;
+
+    private final ResultCache resultCache;
+
+    private final QueryMetrics metrics;
+
+    private volatile Table lastTable;
+
+    private volatile boolean streaming;  // Stream batches of rows through the operators instead of materializing each result
+
+    public Query() {
+        catalog = new Catalog();
+        resultCache = new ResultCache(ResultCache.DEFAULT_CAPACITY);
+        metrics = new QueryMetrics(catalog, resultCache);
+    }
+
+    private Query(Query shared) {
+        catalog = shared.catalog;
+        resultCache = shared.resultCache;
+        metrics = shared.metrics;
+        streaming = shared.streaming;
+    }
+
+    /**
+     * Creates a session on the catalog of this Query: the tables, indexes, result cache and metrics are shared, a table
+     * saved in one session is seen by all of them, while the last table and the execution mode are its own
+     *
+     * @return New Query sharing the catalog
+     */
+    public Query session() {
+        return new Query(this);
+    }
+
+    /**
+     * Sets the execution mode of the queries
+     *
+     * @param streaming true to stream batches of rows through the operators, false to materialize the result of each operator
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Sets the memory cap of the query result cache
+     *
+     * @param bytes the number of bytes the cached results may take, 0 to disable the cache
+     */
+    public void setCacheCapacity(long bytes) {
+        resultCache.setCapacity(bytes);
+    }
+
+    /**
+     * Parses a query and prints the result.
+     * The query is parsed into a logical plan, which is optimized before it is executed or streamed.
+     *
+     * @param query the query to be parsed
+     */
+    public Optional<Table> parseQuery(String query) {
+        long start = System.nanoTime();
+        try {
+            Parsed parsed = parse(query);
+            Optional<Table> result = parsed.prepared().isPresent() ? executePrepared(parsed.prepared().get(), parsed.snapshot()) : Optional.<Table>absent();
+            if (result.isPresent()) metrics.recordQuery(System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            metrics.recordFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * Parses a query once, to execute it any number of times. Named tables defined in the query are added to the
+     * catalog now.
+     *
+     * @param query the query to be parsed
+     * @return the prepared query
+     */
+    public PreparedQuery prepare(String query) {
+        Optional<PreparedQuery> prepared = parse(query).prepared();
+        if (!prepared.isPresent())
+            throw new IllegalArgumentException("Invalid Query");
+        return prepared.get();
+    }
+
+    /**
+     * A query parsed against the snapshot of the catalog publishing the named tables it defines
+     */
+    private record Parsed(Optional<PreparedQuery> prepared, Catalog.Snapshot snapshot) {
+    }
+
+    private Parsed parse(String query) {
+        // parse named tables
+        NamedTables namedTables = splitNamedTables(normalizeSpacing(query));
+        Catalog.Snapshot snapshot = defineTables(namedTables.tables());
+        if (snapshot == null)
+            throw new IllegalArgumentException("Invalid Table String");
+        if (namedTables.query().isEmpty())
+            return new Parsed(Optional.<PreparedQuery>absent(), snapshot);
+
+        // parse table operations
+        PreparedQuery prepared = QueryParser.parse(namedTables.query(), snapshot.tables());
+        if (prepared == null)
+            throw new IllegalArgumentException("Invalid Query");
+        return new Parsed(Optional.of(prepared), snapshot);
+    }
+
+    /**
+     * Replaces the spaces and plus signs of a query by single spaces and drops its empty lines
+     *
+     * @param query the query
+     * @return the query with normalized spacing
+     */
+    static String normalizeSpacing(String query) {
+        return query.replaceAll("[ +]", " ").replaceAll("\n+", "\n");
+    }
+
+    /**
+     * Executes a prepared query on the current snapshot of the catalog
+     *
+     * @param prepared the query prepared by this Query
+     * @return the result of the query
+     */
+    public Optional<Table> execute(PreparedQuery prepared) {
+        long start = System.nanoTime();
+        try {
+            Optional<Table> result = executePrepared(prepared, catalog.snapshot());
+            metrics.recordQuery(System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            metrics.recordFailure();
+            throw e;
+        }
+    }
+
+    private Optional<Table> executePrepared(PreparedQuery prepared, Catalog.Snapshot snapshot) {
+        // a query already run on the same versions of its tables is answered from the result cache
+        String cacheKey = (streaming ? "streaming " : "") + prepared.getNormalized();
+        Table cached = resultCache.get(cacheKey, snapshot.versions());
+        if (cached != null) {
+            lastTable = cached;
+            return Optional.of(cached);
+        }
+
+        Map<String, Long> versions = new HashMap<>();
+        for (String name : prepared.getTableNames()) versions.put(name, snapshot.versions().get(name));
+        PlanNode optimized = optimize(prepared, snapshot);
+        Table table;
+        if (streaming) {
+            table = optimized.executeStreaming();
+        } else if (OperatorProfile.isLogging()) {
+            PlanNode profiled = OperatorProfile.instrument(optimized);
+            table = profiled.execute();
+            OperatorProfile.log(profiled, prepared.getNormalized());
+        } else {
+            table = optimized.execute();
+        }
+        if (table == null)
+            throw new IllegalArgumentException("Invalid Query");
+
+        resultCache.put(cacheKey, table, versions);
+        lastTable = table;
+        return Optional.of(table);
+    }
+
+    /**
+     * Parses a query and describes the optimized plan without executing it, one operator per line
+     *
+     * @param query the query to be parsed
+     * @return the operator tree of the plan
+     */
+    public Optional<String> explain(String query) {
+        Parsed parsed = parse(query);
+        return parsed.prepared().isPresent() ? Optional.of(OperatorProfile.format(optimize(parsed.prepared().get(), parsed.snapshot()))) : Optional.absent();
+    }
+
+    /**
+     * Parses and executes a query, measuring each operator of the optimized plan, see OperatorProfile. The operators
+     * are executed one after the other, even in streaming mode, and the result cache is not used. The result becomes
+     * the last table.
+     *
+     * @param query the query to be parsed
+     * @return the operator tree of the plan with the metrics of each operator
+     */
+    public Optional<String> explainAnalyze(String query) {
+        Parsed parsed = parse(query);
+        Optional<PreparedQuery> prepared = parsed.prepared();
+        if (!prepared.isPresent())
+            return Optional.absent();
+        PlanNode profiled = OperatorProfile.instrument(optimize(prepared.get(), parsed.snapshot()));
+        Table table = profiled.execute();
+        if (table == null)
+            throw new IllegalArgumentException("Invalid Query");
+        OperatorProfile.log(profiled, prepared.get().getNormalized());
+        lastTable = table;
+        return Optional.of(OperatorProfile.format(profiled));
+    }
+
+    private PlanNode optimize(PreparedQuery prepared, Catalog.Snapshot snapshot) {
+        PlanNode plan = prepared.bind(snapshot.tables());
+        if (plan == null)
+            throw new IllegalArgumentException("Invalid Query");
+        return Optimizer.optimize(plan);
+    }
+
+    /**
+     * Parses the named tables in the query and adds them to the catalog
+     *
+     * @param query the query to be parsed
+     * @return the query without the named tables
+     */
+    public Optional<String> parseNamedTables(String query) {
+        NamedTables namedTables = splitNamedTables(query);
+        return defineTables(namedTables.tables()) != null ? Optional.of(namedTables.query()) : Optional.<String>absent();
+    }
+
+    /**
+     * Converts the named tables of a query and publishes them in one snapshot, so no query sees some of them
+     * without the others. None is published if one of them is invalid.
+     *
+     * @param namedTables the named tables in order of definition
+     * @return the snapshot holding the tables, or null if one of them is invalid
+     */
+    private Catalog.Snapshot defineTables(List<NamedTable> namedTables) {
+        Catalog.Snapshot snapshot = catalog.snapshot();
+        if (namedTables.isEmpty()) return snapshot;
+        Map<String, Table> defined = new LinkedHashMap<>();
+        for (NamedTable namedTable : namedTables) {
+            Optional<Table> stringTable = stringToTable(namedTable.rows(), defined, snapshot);
+            if (!stringTable.isPresent()) return null;
+            defined.put(namedTable.name(), stringTable.get());
+        }
+        return putTables(defined);
+    }
+
+    /**
+     * A table defined in a query as name={rows}, the rows may also be the name of another table
+     */
+    record NamedTable(String name, String rows) {
+    }
+
+    /**
+     * The named tables defined at the start of a query, and the query after them
+     */
+    record NamedTables(List<NamedTable> tables, String query) {
+    }
+
+    /**
+     * Splits the named tables at the start of a query from the query, without adding them to the catalog
+     *
+     * @param query the query to be split
+     * @return the named tables in order of definition and the rest of the query
+     */
+    static NamedTables splitNamedTables(String query) {
+        List<NamedTable> tables = new ArrayList<>();
+        boolean namedTableExists = true;
+        while (namedTableExists && !query.isEmpty()) {
+            String[] splitQuery = query.split("}", 2);
+            splitQuery[0] = splitQuery[0].replace(" ", "").trim();
+
+            if (splitQuery[0].contains("={")) {
+                String[] table = splitQuery[0].split("=\\{");   // Split the table in the query into name and rows
+                tables.add(new NamedTable(table[0], table[1]));
+                query = splitQuery[1].trim();
+            } else {
+                namedTableExists = false;
+            }
+        }
+        return new NamedTables(tables, query.trim());
+    }
+
+    /**
+     * Converts a string to a table
+     *
+     * @param tableStr the string to be converted
+     * @param defined  the tables defined earlier in the same query, by name
+     * @param snapshot the snapshot of the catalog the query is parsed against
+     * @return the table
+     */
+    private Optional<Table> stringToTable(String tableStr, Map<String, Table> defined, Catalog.Snapshot snapshot) {
+        tableStr = tableStr.replaceAll("[\\p{Ps}\\p{Pe} ]", "").trim();
+        Table table;
+
+        if (defined.containsKey(tableStr)) {
+            table = defined.get(tableStr);
+        } else if (!snapshot.contains(tableStr)) {
+            ArrayList<String> rows = new ArrayList<>(Arrays.asList(tableStr.split("\n")));
+            table = new Table(rows);
+        } else {
+            table = snapshot.get(tableStr);
+        }
+        if (table == null) {
+            log.error("Invalid Table");
+            return Optional.absent();
+        }
+        return Optional.of(table);
+    }
+
+    /**
+     * Saves the last table to the catalog
+     *
+     * @param name the name of the table
+     * @return true if the table was saved, false otherwise
+     */
+    public boolean saveTable(String name) {
+        return saveTable(name, lastTable);
+    }
+
+    /**
+     * Saves a table to the catalog, e.g. the result of a statement of a script rather than the last table
+     *
+     * @param name  the name of the table
+     * @param table the table, null if there is none
+     * @return true if the table was saved, false otherwise
+     */
+    public boolean saveTable(String name, Table table) {
+        if (table == null) {
+            log.error("No table to save");
+            return false;
+        }
+        return addTable(name, table);
+    }
+
+    /**
+     * Loads a CSV file into the catalog
+     *
+     * @param name the name of the table
+     * @param path the path of the CSV file, its first line holds the column names
+     * @return true if the table was loaded, false otherwise
+     */
+    public boolean loadTable(String name, String path) {
+        if (catalog.snapshot().contains(name)) {
+            log.error("Table name already exists");
+            return false;
+        }
+        Table table = CsvLoader.load(path);
+        if (table == null) {
+            log.error("Failed to load " + path);
+            return false;
+        }
+        return addTable(name, table);
+    }
+
+    /**
+     * Loads a CSV file into a disk table, in batches so the file does not have to fit on the heap, and adds it to the catalog
+     *
+     * @param name      the name of the table
+     * @param path      the path of the CSV file, its first line holds the column names
+     * @param directory the path of the directory the table is written to, which must not hold a table yet
+     * @return true if the table was loaded, false otherwise
+     */
+    public boolean loadTable(String name, String path, String directory) {
+        if (catalog.snapshot().contains(name)) {
+            log.error("Table name already exists");
+            return false;
+        }
+        DiskTable.Writer writer = new DiskTable.Writer(directory);
+        if (!CsvLoader.load(path, writer)) {
+            writer.abort();
+            log.error("Failed to load " + path);
+            return false;
+        }
+        if (!writer.finish()) {
+            log.error("Failed to write " + directory);
+            return false;
+        }
+        return openTable(name, directory);
+    }
+
+    /**
+     * Writes a table of the catalog to a directory as a disk table and replaces it by the disk table, whose
+     * values are read from the mapped column files instead of the heap. The table is not replaced if it was redefined
+     * while it was written.
+     *
+     * @param name      the name of the table
+     * @param directory the path of the directory, which must not hold a table yet
+     * @return true if the table was stored, false otherwise
+     */
+    public boolean storeTable(String name, String directory) {
+        Table table = catalog.snapshot().get(name);
+        if (table == null) {
+            log.error("No table named " + name);
+            return false;
+        }
+        if (!DiskTable.write(table, directory)) {
+            log.error("Failed to store table " + name);
+            return false;
+        }
+        Table stored = DiskTable.open(directory);
+        if (stored == null) {
+            log.error("Failed to open " + directory);
+            return false;
+        }
+        stored.getStatistics();
+        if (catalog.replace(name, table, stored) == null) {
+            log.error("Table " + name + " was replaced while it was stored");
+            return false;
+        }
+        resultCache.invalidate(name);
+        return true;
+    }
+
+    /**
+     * Opens a disk table and adds it to the catalog
+     *
+     * @param name      the name of the table
+     * @param directory the path of the directory holding the table
+     * @return true if the table was opened, false otherwise
+     */
+    public boolean openTable(String name, String directory) {
+        if (catalog.snapshot().contains(name)) {
+            log.error("Table name already exists");
+            return false;
+        }
+        Table table = DiskTable.open(directory);
+        if (table == null) {
+            log.error("Failed to open " + directory);
+            return false;
+        }
+        return addTable(name, table);
+    }
+
+    /**
+     * Writes every table of a snapshot of the catalog to a directory, as a binary columnar file named after the table
+     *
+     * @param directory the path of the directory, created if it does not exist
+     * @return true if all the tables were written, false otherwise
+     */
+    public boolean persistCatalog(String directory) {
+        try {
+            Files.createDirectories(Paths.get(directory));
+        } catch (IOException | InvalidPathException e) {
+            log.error("Cannot create directory " + directory + ": " + e.getMessage());
+            return false;
+        }
+        boolean persisted = true;
+        for (Map.Entry<String, Table> entry : catalog.snapshot().tables().entrySet()) {
+            if (!TableFile.write(entry.getValue(), Paths.get(directory, entry.getKey() + TableFile.EXTENSION).toString())) {
+                log.error("Failed to persist table " + entry.getKey());
+                persisted = false;
+            }
+        }
+        return persisted;
+    }
+
+    /**
+     * Reads the tables written by persistCatalog into the catalog, with the statistics stored with them
+     *
+     * @param directory the path of the directory
+     * @return true if all the tables were read, false otherwise
+     */
+    public boolean restoreCatalog(String directory) {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(Paths.get(directory))) {
+            files = list.filter(file -> file.getFileName().toString().endsWith(TableFile.EXTENSION)).sorted().toList();
+        } catch (IOException | InvalidPathException e) {
+            log.error("Cannot read directory " + directory + ": " + e.getMessage());
+            return false;
+        }
+        boolean restored = true;
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            String name = fileName.substring(0, fileName.length() - TableFile.EXTENSION.length());
+            if (catalog.snapshot().contains(name)) {
+                log.error("Table name already exists: " + name);
+                restored = false;
+                continue;
+            }
+            Table table = TableFile.read(file.toString());
+            if (table == null) {
+                log.error("Failed to restore " + file);
+                restored = false;
+                continue;
+            }
+            restored &= addTable(name, table);
+        }
+        return restored;
+    }
+
+    /**
+     * Creates a secondary index of a column of a table in the catalog. The index is created again on a table
+     * replacing it under the same name.
+     *
+     * @param name   the name of the table
+     * @param column the name of the column
+     * @return true if the index was created, false otherwise
+     */
+    public boolean createIndex(String name, String column) {
+        if (!catalog.snapshot().contains(name)) {
+            log.error("No table named " + name);
+            return false;
+        }
+        if (catalog.index(name, column) == null) {
+            log.error("Failed to index column " + column + " of table " + name);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Computes the statistics of tables, which the optimizer uses to order joins, and publishes them in one snapshot
+     * of the catalog. The tables get a new version, so the cached results of the tables they replace are no longer used.
+     * The columns indexed in a table they replace are indexed in them, the indexes of columns they lack are dropped.
+     *
+     * @param tables the tables by name
+     * @return the snapshot holding the tables
+     */
+    private Catalog.Snapshot putTables(Map<String, Table> tables) {
+        for (Table table : tables.values()) table.getStatistics();
+        Catalog.Snapshot snapshot = catalog.put(tables);
+        for (String name : tables.keySet()) resultCache.invalidate(name);
+        return snapshot;
+    }
+
+    /**
+     * Computes the statistics of a table and publishes it under a new name, see putTables
+     *
+     * @param name the name of the table
+     * @param table the table
+     * @return true if the table was added, false if the name is taken
+     */
+    private boolean addTable(String name, Table table) {
+        table.getStatistics();
+        if (catalog.add(name, table) == null) {
+            log.error("Table name already exists");
+            return false;
+        }
+        resultCache.invalidate(name);
+        return true;
+    }
+
+    /**
+     * Prints the last table
+     */
+    public Optional<Table> getLastTable() {
+        if (lastTable == null) {
+            log.error("No table to print");
+            return Optional.absent();
+        }
+        return Optional.of(lastTable);
+    }
+
+    /**
+     * Returns the metrics of the queries, see QueryMetrics
+     */
+    public QueryMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Registers the metrics of the queries with the platform MBean server, so JMX clients can read them
+     *
+     * @return true if the metrics were registered, false otherwise
+     */
+    public boolean registerMetrics() {
+        return metrics.register();
+    }
+
+    /**
+     * Prints the names of the tables in the catalog
+     */
+    public String tablesToString() {
+        StringBuilder sb = new StringBuilder().append("Tables:\n");
+        for (String key : catalog.snapshot().tables().keySet()) {
+            sb.append(key).append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Gets a table from the catalog or creates a new table from a string
+     *
+     * @param tableStr the string to be converted to a table
+     * @return the table
+     */
+    public Table getTable(String tableStr) {
+        if (tableStr.isEmpty()) return null;
+        if (tableStr.startsWith("(") && tableStr.endsWith(")")) tableStr = tableStr.substring(1, tableStr.length() - 1);
+        Table table = catalog.snapshot().get(tableStr);
+        if (table != null) return table;
+
+        tableStr = tableStr.replaceAll("[\\p{Ps}\\p{Pe} ]", "").trim();
+        ArrayList<String> rows = new ArrayList<>(Arrays.asList(tableStr.split("\n")));
+        return new Table(rows);
+    }
+}
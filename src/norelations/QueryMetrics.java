@@ -0,0 +1,222 @@
+package norelations;
+
+import org.apache.logging.log4j.*;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runtime metrics of a Query: the latency of its queries in a LatencyHistogram, the queries per second over the
+ * last minute, the hit rate of its result cache and an estimate of the heap memory of each table of its catalog.
+ * They are printed by the stats. command and exposed over JMX as NoRelations:type=QueryMetrics.
+ */
+public final class QueryMetrics implements QueryMetricsMXBean {
+    private static final Logger log = LogManager.getLogger(QueryMetrics.class.getName());
+    public static final String OBJECT_NAME = "NoRelations:type=QueryMetrics";
+    static final int RATE_WINDOW_SECONDS = 60;
+    private final Catalog catalog;
+    private final ResultCache cache;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    private final long start = System.nanoTime();
+    private final long[] windowSeconds = new long[RATE_WINDOW_SECONDS];  // Second since the start each slot counts
+    private final long[] windowCounts = new long[RATE_WINDOW_SECONDS];  // Queries completed in that second
+
+    /**
+     * @param catalog - Catalog of the tables, whose current snapshot is measured when the metrics are read
+     * @param cache   - ResultCache of the queries
+     */
+    QueryMetrics(Catalog catalog, ResultCache cache) {
+        this.catalog = catalog;
+        this.cache = cache;
+    }
+
+    /**
+     * Records a query that completed
+     *
+     * @param nanos - Latency of the query in nanoseconds, from parsing to its result
+     */
+    void recordQuery(long nanos) {
+        latencies.record(nanos);
+        long second = (System.nanoTime() - start) / 1_000_000_000L;
+        int slot = (int) (second % RATE_WINDOW_SECONDS);
+        synchronized (windowCounts) {
+            if (windowSeconds[slot] != second) {
+                windowSeconds[slot] = second;
+                windowCounts[slot] = 0;
+            }
+            windowCounts[slot]++;
+        }
+    }
+
+    void recordFailure() {
+        failures.increment();
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server
+     *
+     * @return True if they were registered, false if the name is taken or JMX is unavailable
+     */
+    boolean register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+            return true;
+        } catch (JMException e) {
+            log.error("Cannot register " + OBJECT_NAME + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public long getQueryCount() {
+        return latencies.getCount();
+    }
+
+    @Override
+    public long getFailedQueryCount() {
+        return failures.sum();
+    }
+
+    @Override
+    public double getQueriesPerSecond() {
+        long second = (System.nanoTime() - start) / 1_000_000_000L;
+        long queries = 0;
+        synchronized (windowCounts) {
+            for (int slot = 0; slot < RATE_WINDOW_SECONDS; slot++) {
+                if (second - windowSeconds[slot] < RATE_WINDOW_SECONDS) queries += windowCounts[slot];
+            }
+        }
+        return (double) queries / Math.min(RATE_WINDOW_SECONDS, second + 1);
+    }
+
+    @Override
+    public double getMeanLatencyMillis() {
+        return latencies.getMean() / 1e6;
+    }
+
+    @Override
+    public double getMedianLatencyMillis() {
+        return latencies.getPercentile(50) / 1e6;
+    }
+
+    @Override
+    public double get90thPercentileLatencyMillis() {
+        return latencies.getPercentile(90) / 1e6;
+    }
+
+    @Override
+    public double get99thPercentileLatencyMillis() {
+        return latencies.getPercentile(99) / 1e6;
+    }
+
+    @Override
+    public double get999thPercentileLatencyMillis() {
+        return latencies.getPercentile(99.9) / 1e6;
+    }
+
+    @Override
+    public double getMaxLatencyMillis() {
+        return latencies.getMax() / 1e6;
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cache.getHits();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cache.getMisses();
+    }
+
+    @Override
+    public double getCacheHitRate() {
+        long hits = cache.getHits();
+        long lookups = hits + cache.getMisses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public int getCachedResults() {
+        return cache.size();
+    }
+
+    @Override
+    public long getCacheBytes() {
+        return cache.getBytes();
+    }
+
+    @Override
+    public Map<String, Long> getTableHeapBytes() {
+        Map<String, Long> bytes = new TreeMap<>();
+        for (Map.Entry<String, Table> entry : catalog.snapshot().tables().entrySet()) bytes.put(entry.getKey(), estimateHeapBytes(entry.getValue()));
+        return bytes;
+    }
+
+    @Override
+    public long getTotalTableHeapBytes() {
+        return getTableHeapBytes().values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public void resetLatencies() {
+        latencies.reset();
+    }
+
+    /**
+     * Estimates the heap memory of a table from the storage of its columns, their dictionaries and indexes.
+     * Mapped columns are read from their files, only their dictionaries are on the heap.
+     *
+     * @param table - Table to be measured
+     * @return Estimated number of bytes
+     */
+    static long estimateHeapBytes(Table table) {
+        long bytes = 0;
+        Set<String[]> dictionaries = Collections.newSetFromMap(new IdentityHashMap<>());  // Shared by the columns gathered from one column
+        for (int col = 0; col < table.getColumnOrder().size(); col++) {
+            Column column = table.getColumn(col);
+            long rows = column.size();
+            bytes += switch (column) {
+                case MappedColumn ignored -> 0;
+                case IntColumn ignored -> 4 * rows;
+                case DoubleColumn ignored -> 8 * rows;
+                case BooleanColumn ignored -> rows / 8;
+                case StringColumn ignored -> 4 * rows;
+                default -> 20 * rows;  // A reference and a boxed value
+            };
+            if (column instanceof Column.StringCodes strings && dictionaries.add(strings.getDictionary())) {
+                for (String value : strings.getDictionary()) bytes += 40 + value.length();  // The String and its byte array
+            }
+            ColumnIndex index = column.getIndex();
+            if (index != null) bytes += index.estimateBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Describes the metrics, one line per group and one per table
+     *
+     * @return String representing the metrics
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Queries: %d, %d failed, %.2f per second over the last minute%n",
+                getQueryCount(), getFailedQueryCount(), getQueriesPerSecond()));
+        sb.append(String.format("Latency: mean %.3f ms, p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms%n",
+                getMeanLatencyMillis(), getMedianLatencyMillis(), get90thPercentileLatencyMillis(),
+                get99thPercentileLatencyMillis(), get999thPercentileLatencyMillis(), getMaxLatencyMillis()));
+        sb.append(String.format("Result cache: %d hits, %d misses, hit rate %.1f%%, %d results, %s%n",
+                getCacheHits(), getCacheMisses(), 100 * getCacheHitRate(), getCachedResults(), OperatorProfile.formatBytes(getCacheBytes())));
+        Map<String, Long> tableBytes = getTableHeapBytes();
+        sb.append(String.format("Tables: %d, %s on the heap%n", tableBytes.size(),
+                OperatorProfile.formatBytes(tableBytes.values().stream().mapToLong(Long::longValue).sum())));
+        for (Map.Entry<String, Long> entry : tableBytes.entrySet()) {
+            sb.append("  ").append(entry.getKey()).append(": ").append(OperatorProfile.formatBytes(entry.getValue())).append('\n');
+        }
+        return sb.toString();
+    }
+}
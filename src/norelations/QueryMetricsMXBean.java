@@ -0,0 +1,43 @@
+package norelations;
+
+import java.util.Map;
+
+/**
+ * Management interface of QueryMetrics, registered with the platform MBean server as NoRelations:type=QueryMetrics.
+ * Latencies are in milliseconds, memory in bytes.
+ */
+public interface QueryMetricsMXBean {
+    long getQueryCount();
+
+    long getFailedQueryCount();
+
+    double getQueriesPerSecond();
+
+    double getMeanLatencyMillis();
+
+    double getMedianLatencyMillis();
+
+    double get90thPercentileLatencyMillis();
+
+    double get99thPercentileLatencyMillis();
+
+    double get999thPercentileLatencyMillis();
+
+    double getMaxLatencyMillis();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    double getCacheHitRate();
+
+    int getCachedResults();
+
+    long getCacheBytes();
+
+    Map<String, Long> getTableHeapBytes();
+
+    long getTotalTableHeapBytes();
+
+    void resetLatencies();
+}
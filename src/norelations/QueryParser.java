@@ -0,0 +1,309 @@
+package norelations;
+
+import org.apache.logging.log4j.*;
+
+import java.util.*;
+
+/**
+ * Parser of relational algebra queries into logical plans. A lexer reads the query once, left to right, into tokens:
+ * the operator symbols or their keywords, brackets, commas, names and inline tables in braces. A recursive-descent
+ * parser builds the plan from the tokens as they are read, reading the conditions of selections and joins straight
+ * from the query text. The grammar is
+ * <pre>
+ *   query   := π column {, column} query | σ condition query | operand [setop query | ⨝ condition query]
+ *   operand := ( query ) | name | {table}
+ *   setop   := ∪ | ∩ | -
+ * </pre>
+ * so unary operators apply to everything after them and binary operators group to the right.
+ * Names are bound to the tables of the catalog when parsed.
+ */
+public final class QueryParser {
+    private static final Logger log = LogManager.getLogger(QueryParser.class.getName());
+    private final String text;
+    private final Map<String, Table> tables;
+    private final Lexer lexer;
+    private final StringBuilder normalized = new StringBuilder();  // The tokens read so far, separated by single spaces
+    private final Set<String> tableNames = new LinkedHashSet<>();  // Names of the catalog tables scanned
+    private final HashMap<String, Table> inlineTables = new HashMap<>();  // Tables written in the query, by their text
+    private Token current;
+
+    private enum Type {
+        PROJECT("π"), SELECT("σ"), UNION("∪"), INTERSECTION("∩"), DIFFERENCE("-"), JOIN("⨝"),
+        LEFT_BRACKET("("), RIGHT_BRACKET(")"), COMMA(","), NAME(null), TABLE(null), END(null), INVALID(null);
+
+        private final String symbol;
+
+        Type(String symbol) {
+            this.symbol = symbol;
+        }
+    }
+
+    private static final Map<String, Type> KEYWORDS = Map.of("project", Type.PROJECT, "select", Type.SELECT,
+            "union", Type.UNION, "intersection", Type.INTERSECTION, "difference", Type.DIFFERENCE, "join", Type.JOIN);
+
+    private record Token(Type type, String text, int start, int end) {
+        /**
+         * Returns the token as it appears in the normalized query, keywords replaced by their symbol
+         */
+        private String normalized() {
+            return type.symbol != null ? type.symbol : type == Type.TABLE ? "{" + text + "}" : text;
+        }
+    }
+
+    private QueryParser(String text, Map<String, Table> tables) {
+        this.text = text;
+        this.tables = tables;
+        lexer = new Lexer(text);
+    }
+
+    /**
+     * Parses a query
+     *
+     * @param query  - String representing the query, without the definitions of named tables
+     * @param tables - Map of the tables of the catalog by name
+     * @return PreparedQuery holding the plan of the query, or null if the query is invalid
+     */
+    public static PreparedQuery parse(String query, Map<String, Table> tables) {
+        QueryParser parser = new QueryParser(query, tables);
+        parser.current = parser.lexer.next();
+        PlanNode plan = parser.parseQuery();
+        if (plan == null) return null;
+        if (parser.current.type() != Type.END) {
+            log.error("Invalid Query - unexpected '{}'", parser.current.text());
+            return null;
+        }
+        return new PreparedQuery(parser.normalized.toString(), plan, parser.tableNames);
+    }
+
+    /**
+     * Reads the names in a query without parsing it or binding it to a catalog: the tables it reads, but also its
+     * column names and the words of its conditions
+     *
+     * @param query - String representing the query, without the definitions of named tables
+     * @return Set of the names, in order of appearance
+     */
+    static Set<String> names(String query) {
+        Set<String> names = new LinkedHashSet<>();
+        Lexer lexer = new Lexer(query);
+        for (Token token = lexer.next(); token.type() != Type.END; token = lexer.next()) {
+            if (token.type() == Type.NAME) names.add(token.text());
+        }
+        return names;
+    }
+
+    private PlanNode parseQuery() {
+        if (current.type() == Type.PROJECT) {
+            advance();
+            TreeSet<String> columns = parseColumns();
+            PlanNode child = columns == null ? null : parseQuery();
+            return child == null ? null : new PlanNode.Project(columns, child);
+        }
+        if (current.type() == Type.SELECT) {
+            Condition.Prefix prefix = Condition.parsePrefix(text, current.end());
+            if (prefix == null) {
+                log.error("Invalid Query - invalid condition after '{}'", current.text());
+                return null;
+            }
+            skipTo(prefix.end());
+            PlanNode child = parseQuery();
+            return child == null ? null : new PlanNode.Select(prefix.condition(), child);
+        }
+
+        PlanNode left = parseOperand();
+        if (left == null) return null;
+        Type operator = current.type();
+        switch (operator) {
+            case UNION, INTERSECTION, DIFFERENCE -> {
+                advance();
+                PlanNode right = parseQuery();
+                return right == null ? null : new PlanNode.SetOperation(operator.symbol.charAt(0), left, right);
+            }
+            case JOIN -> {
+                int end = joinConditionEnd(current.end());
+                if (end == -1) return null;
+                String condition = text.substring(current.end(), end).trim();
+                skipTo(end);
+                PlanNode right = parseQuery();
+                return right == null ? null : new PlanNode.Join(condition, left, right);
+            }
+            case RIGHT_BRACKET, END -> {
+                return left;
+            }
+            default -> {
+                log.error("Invalid Query - expected an operator at '{}'", current.text());
+                return null;
+            }
+        }
+    }
+
+    private PlanNode parseOperand() {
+        Token token = current;
+        switch (token.type()) {
+            case LEFT_BRACKET -> {
+                advance();
+                PlanNode query = parseQuery();
+                if (query == null) return null;
+                if (current.type() != Type.RIGHT_BRACKET) {
+                    log.error("Invalid Query - Parentheses Mismatch");
+                    return null;
+                }
+                advance();
+                return query;
+            }
+            case NAME -> {
+                Table table = tables.get(token.text());
+                if (table == null) {
+                    log.error("Invalid Query - '{}' is not a valid query or table", token.text());
+                    return null;
+                }
+                advance();
+                tableNames.add(token.text());
+                return new PlanNode.Scan(table, token.text());
+            }
+            case TABLE -> {
+                // The same table written twice is one table, so its scans are one common subexpression
+                Table table = inlineTables.computeIfAbsent(token.text(), rows ->
+                        Table.parseRows(new ArrayList<>(Arrays.asList(rows.replaceAll("[\\p{Ps}\\p{Pe} ]", "").trim().split("\n")))));
+                if (table == null) {
+                    log.error("Invalid Table");
+                    return null;
+                }
+                advance();
+                return new PlanNode.Scan(table, "{...}");
+            }
+            default -> {
+                log.error("Invalid Query - expected a table at '{}'", token.text());
+                return null;
+            }
+        }
+    }
+
+    private TreeSet<String> parseColumns() {
+        TreeSet<String> columns = new TreeSet<>();
+        do {
+            if (current.type() != Type.NAME) {
+                log.error("Invalid Query - expected a column name at '{}'", current.text());
+                return null;
+            }
+            columns.add(current.text());
+            advance();
+        } while (current.type() == Type.COMMA && advance());
+        return columns;
+    }
+
+    /**
+     * Finds the end of a join condition: its operator, then its right operand up to the next whitespace or bracket
+     *
+     * @param start - Position after the join operator
+     * @return Position after the condition, or -1 if there is no condition
+     */
+    private int joinConditionEnd(int start) {
+        int position = start;
+        while (position < text.length() && "<>=".indexOf(text.charAt(position)) == -1) position++;
+        if (position == text.length()) {
+            log.error("Invalid Query - No Operator Found when Expected");
+            return -1;
+        }
+        while (position < text.length() && "<>=".indexOf(text.charAt(position)) != -1) position++;
+        while (position < text.length() && !Character.isWhitespace(text.charAt(position)) && text.charAt(position) != '(') position++;
+        if (position == text.length()) {
+            log.error("Invalid Query - No Right Operand Found when Expected");
+            return -1;
+        }
+        return position;
+    }
+
+    /**
+     * Reads the next token, adding the current one to the normalized query
+     *
+     * @return True, so it can be chained in conditions
+     */
+    private boolean advance() {
+        append(current.normalized());
+        current = lexer.next();
+        return true;
+    }
+
+    /**
+     * Reads the text from the current token up to a position as is, e.g. the condition after a σ, then the next token
+     */
+    private void skipTo(int end) {
+        append(current.normalized());
+        append(normalizeWhitespace(text.substring(current.end(), end)));
+        lexer.position = end;
+        current = lexer.next();
+    }
+
+    private void append(String token) {
+        if (token.isEmpty()) return;
+        if (!normalized.isEmpty()) normalized.append(' ');
+        normalized.append(token);
+    }
+
+    /**
+     * Collapses the whitespace outside quoted strings into single spaces
+     */
+    private static String normalizeWhitespace(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\'') quoted = !quoted;
+            if (!quoted && Character.isWhitespace(c)) {
+                if (!sb.isEmpty() && sb.charAt(sb.length() - 1) != ' ') sb.append(' ');
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Reads the tokens of a query, one at a time
+     */
+    private static final class Lexer {
+        private static final String DELIMITERS = "(){},πσ∪∩-⨝";
+        private final String text;
+        private int position;
+
+        private Lexer(String text) {
+            this.text = text;
+        }
+
+        private Token next() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) position++;
+            int start = position;
+            if (position == text.length()) return new Token(Type.END, "", start, start);
+            char c = text.charAt(position);
+            for (Type type : Type.values()) {
+                if (type.symbol != null && type.symbol.charAt(0) == c) {
+                    position++;
+                    return new Token(type, type.symbol, start, position);
+                }
+            }
+            if (c == '{') {
+                int close = text.indexOf('}', position);
+                if (close == -1) {
+                    position = text.length();
+                    return new Token(Type.INVALID, text.substring(start), start, position);
+                }
+                position = close + 1;
+                return new Token(Type.TABLE, text.substring(start + 1, close), start, position);
+            }
+            while (position < text.length() && !Character.isWhitespace(text.charAt(position))
+                    && DELIMITERS.indexOf(text.charAt(position)) == -1) {
+                position++;
+            }
+            if (position == start) {  // A closing brace without an opening one
+                position++;
+                return new Token(Type.INVALID, text.substring(start, position), start, position);
+            }
+            String word = text.substring(start, position);
+            Type keyword = KEYWORDS.get(word);
+            if (keyword != null && position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                return new Token(keyword, word, start, position);
+            }
+            return new Token(Type.NAME, word, start, position);
+        }
+    }
+}
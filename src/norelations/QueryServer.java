@@ -0,0 +1,193 @@
+package norelations;
+
+import com.google.common.base.Optional;
+import org.apache.logging.log4j.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Server mode: listens on a TCP port and runs a session for each connection on a virtual thread. A client sends the
+ * lines a user would type into the Controller, queries ended by finish., explain. or explainAnalyze. and commands such
+ * as saveLast[name]. or stats., and clear. or exit. The sessions share the catalog of one Query, see Query.session(),
+ * so a table saved in one session can be queried in all of them, while each has its own last table.
+ * Only the commands on the catalog and the session are served, see SESSION_COMMANDS: commands reading or writing
+ * files, e.g. load[name, path]. or persist[directory]., and commands changing the whole process, e.g. parallelism[n].,
+ * are answered with an error, as any client reaching the port could run them.
+ * Every query or command is answered with a status line, "ERROR message" if it failed, otherwise "OK" followed by a
+ * body in chunks: a line holding the number of bytes of the chunk, the bytes, and a last line "0". The body of a query
+ * is its result as CSV with a header line, written as its rows are encoded, the body of a command or explain. is the
+ * text the Controller would print.
+ */
+public final class QueryServer implements Closeable {
+    private static final Logger logger = LogManager.getLogger(QueryServer.class);
+    private static final int CHUNK_SIZE = 1 << 16;
+    static final Set<String> SESSION_COMMANDS = Set.of("saveLast", "last", "lastAsRelation", "tables", "stats", "createIndex", "streaming");
+    private final Query catalog;
+    private final ServerSocket socket;
+    private final ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param catalog - Query holding the catalog the sessions share
+     * @param address - InetAddress to listen on, e.g. the loopback address
+     * @param port    - Port to listen on, 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public QueryServer(Query catalog, InetAddress address, int port) throws IOException {
+        this.catalog = catalog;
+        this.socket = new ServerSocket(port, 0, address);
+    }
+
+    /**
+     * Returns the address the server listens on, e.g. to connect to a server started on port 0
+     */
+    public InetSocketAddress getAddress() {
+        return (InetSocketAddress) socket.getLocalSocketAddress();
+    }
+
+    /**
+     * Accepts connections until the server is closed
+     *
+     * @throws IOException if a connection cannot be accepted
+     */
+    public void serve() throws IOException {
+        while (!socket.isClosed()) {
+            Socket client;
+            try {
+                client = socket.accept();
+            } catch (SocketException e) {
+                if (socket.isClosed()) return;
+                throw e;
+            }
+            clients.add(client);
+            sessions.execute(() -> session(client));
+        }
+    }
+
+    /**
+     * Stops accepting connections and ends the open sessions, waiting for each to finish the answer it is writing
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        for (Socket client : clients) {
+            try {
+                client.shutdownInput();  // The session reads the end of its input once it has answered
+            } catch (IOException e) {  // Already closed by the client
+            }
+        }
+        sessions.close();  // Waits for the sessions to end
+    }
+
+    /**
+     * Reads the lines of a connection the way the ScriptRunner reads a script, answering each query and command
+     */
+    private void session(Socket client) {
+        Query query = catalog.session();
+        ScriptRunner commands = new ScriptRunner(query, 1);
+        try (client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+             OutputStream out = new BufferedOutputStream(client.getOutputStream(), CHUNK_SIZE)) {
+            StringBuilder text = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String ending = ScriptRunner.ending(line);
+                if (ending != null) {
+                    text.append(line, 0, line.indexOf(ending));
+                    answerQuery(query, text.toString(), ending, out);
+                    text.setLength(0);
+                } else if (line.toLowerCase().contains("exit.")) {
+                    break;
+                } else if (line.equals("clear.")) {
+                    text.setLength(0);
+                } else if (ScriptRunner.isCommand(line) && !SESSION_COMMANDS.contains(ScriptRunner.commandName(line))) {
+                    writeError(out, "Command not allowed on the server: " + line);
+                } else if (ScriptRunner.isCommand(line)) {
+                    answerCommand(commands, line, query.getLastTable(), out);
+                } else if (!line.equals("help.") && !line.equals("print.")) {
+                    text.append(line).append("\n");
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            if (!socket.isClosed()) logger.error("Session of " + client.getRemoteSocketAddress() + " failed: " + e.getMessage());
+        } finally {
+            clients.remove(client);
+        }
+    }
+
+    private static void answerQuery(Query query, String text, String ending, OutputStream out) throws IOException {
+        Table table = null;
+        String output = null;
+        try {
+            if (ending.equals("finish.")) {
+                Optional<Table> result = query.parseQuery(text);
+                if (result.isPresent()) table = result.get();
+                else output = "No query.\n";
+            } else {
+                Optional<String> plan = ending.equals("explain.") ? query.explain(text) : query.explainAnalyze(text);
+                output = plan.isPresent() ? plan.get() : "No query.\n";
+            }
+        } catch (RuntimeException e) {
+            writeError(out, e.getMessage());
+            return;
+        }
+        out.write("OK\n".getBytes(StandardCharsets.UTF_8));
+        try (OutputStream body = new BufferedOutputStream(new ChunkedOutputStream(out), CHUNK_SIZE)) {
+            if (table != null) ExportToCSV.writeCSV(table, body);
+            else body.write(output.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void answerCommand(ScriptRunner commands, String line, Optional<Table> last, OutputStream out) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try {
+            if (!commands.executeCommand(line, last.orNull(), new PrintStream(buffer, true, StandardCharsets.UTF_8))) {
+                writeError(out, "Command failed: " + line);
+                return;
+            }
+        } catch (RuntimeException e) {
+            writeError(out, e.getMessage());
+            return;
+        }
+        out.write("OK\n".getBytes(StandardCharsets.UTF_8));
+        try (OutputStream body = new ChunkedOutputStream(out)) {
+            body.write(buffer.toByteArray());
+        }
+    }
+
+    private static void writeError(OutputStream out, String message) throws IOException {
+        out.write(("ERROR " + String.valueOf(message).replace('\n', ' ') + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Frames each write as a chunk of the body of an answer, and ends the body when closed. The stream it writes to
+     * is not closed.
+     */
+    private static final class ChunkedOutputStream extends FilterOutputStream {
+        ChunkedOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return;  // A chunk of 0 bytes ends the body
+            out.write((len + "\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.write("0\n".getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package norelations;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryServerTest {
+    /**
+     * Sends lines to a server and reads the answer to the last of them: the status line, and the body after OK
+     */
+    private static String send(Socket socket, String lines) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(lines.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        InputStream in = socket.getInputStream();
+        String status = readLine(in);
+        if (!status.equals("OK")) return status;
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (int length = Integer.parseInt(readLine(in)); length > 0; length = Integer.parseInt(readLine(in))) {
+            body.write(in.readNBytes(length));
+        }
+        return body.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        for (int b = in.read(); b != '\n'; b = in.read()) {
+            if (b == -1) throw new EOFException();
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testSessions() throws Exception {
+        Query catalog = new Query();
+        catalog.parseQuery("people = {Name, Age\n'John', 25\n'Jane', 23\n'Mo', 31}\n");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        QueryServer server = new QueryServer(catalog, InetAddress.getLoopbackAddress(), 0);
+        try (Socket first = new Socket(InetAddress.getLoopbackAddress(), server.getAddress().getPort());
+             Socket second = new Socket(InetAddress.getLoopbackAddress(), server.getAddress().getPort())) {
+            executor.submit(() -> {
+                server.serve();
+                return null;
+            });
+            assertEquals("Name,Age\nJohn,25\nMo,31\n", send(first, "σ Age > 24\npeople\nfinish.\n"));
+            assertEquals("Name\nJane\n", send(second, "π Name (σ Age < 24 people) finish.\n"));
+
+            // Each session saves its own last table into the shared catalog
+            assertEquals("Saved last table as adults.\n", send(first, "saveLast[adults].\n"));
+            assertEquals("Saved last table as young.\n", send(second, "saveLast[young].\n"));
+            assertEquals("Name\nJohn\nMo\n", send(second, "π Name adults finish.\n"));
+            assertEquals("Name\nJane\n", send(first, "young finish.\n"));
+            assertEquals(Set.of("people", "adults", "young"), catalog.getMetrics().getTableHeapBytes().keySet());
+
+            assertTrue(send(first, "σ Age > 24 nobody finish.\n").startsWith("ERROR "));
+            assertTrue(send(first, "π Name people explain.\n").startsWith("π Name"));
+            assertTrue(send(first, "clear.\nstats.\n").startsWith("Queries: "));
+            assertEquals("ERROR Command not allowed on the server: load[secret, /etc/passwd].", send(first, "load[secret, /etc/passwd].\n"));
+            assertTrue(send(first, "parallelism[8].\n").startsWith("ERROR "));
+            assertTrue(send(first, "exportLast.\n").startsWith("ERROR "));
+            assertEquals(1, ParallelExecution.getParallelism());
+            assertEquals("Name,Age\nJohn,25\nMo,31\n", send(first, "adults finish.\n"));
+
+            // Closing waits for the open sessions to end, each once it has finished the answer it is writing
+            server.close();
+            assertEquals(-1, first.getInputStream().read());
+            assertEquals(-1, second.getInputStream().read());
+        } finally {
+            server.close();
+            executor.shutdownNow();
+        }
+    }
+}
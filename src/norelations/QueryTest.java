@@ -0,0 +1,244 @@
+package norelations;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryTest {
+
+    @org.junit.jupiter.api.Test
+    void testParseQuery() {
+        Query query = new Query();
+        String queryStr = "table1 = {Name, Age, Height\n'John', 25, 6.0\n'Jane', 23, 5.5\n'Jack', 27, 5.9}\n table2 = {Name, Age, Height\n'John', 25, 6.0\n'Jane', 23, 5.5\n'Jak', 27, 5.9}\ntable3 = {Name, Ages, Heights\n'John', 25, 6.0\n'Jane', 23, 5.5\n'Jack', 27, 5.9}\n";
+        query.parseQuery(queryStr);
+        queryStr = "π Name, Age (σ Age>25 (table1 ∪ table2))";
+        query.parseQuery(queryStr);
+        queryStr = "π Name, Age (σ Age>25 (table1 ∩ table2))";
+        query.parseQuery(queryStr);
+
+        // Add more tables
+        queryStr = """
+                table4 = {Name, Age, Height
+                'John', 25, 6.0
+                'Jane', 23, 5.5
+                'Jack', 27, 5.9}
+                table5 = {Name, Ages, Heights
+                'John', 25, 6.0
+                'Jane', 23, 5.5
+                'Jak', 27, 5.9}
+                table6 = {Name, Ages, Heights
+                'John', 25, 6.0
+                'Jane', 23, 5.5
+                'Jack', 27, 5.9}
+                """;
+        query.parseQuery(queryStr);
+        query.parseQuery("""
+                Student = {
+
+                id, name, email
+
+                1, 'Alex', 'alex@carleton.ca'
+
+                2, 'John', 'john@carleton.ca'
+
+                3, 'Mo', 'mo@carleton.ca'
+
+                }
+
+                Course = {
+
+                name, hours
+
+                'Math', 3
+
+                'Pythics', 2
+
+                'Network', 3
+
+                }
+
+                takes = {
+
+                sid, cname
+
+                1, 'Math'
+
+                1, 'Pythics'
+
+                1, 'Network'
+
+                2, 'Network'
+
+                3, 'Math'
+
+                }
+
+                (Student) ⨝ Student.id=takes.sid (takes)""");
+    }
+
+    @Test
+    void testSaveTable() {
+        Query query = new Query();
+        String queryStr = "table1 = {Name, Age, Height\n'John', 25, 6.0\n'Jane', 23, 5.5\n'Jack', 27, 5.9}\ntable1";
+        query.parseQuery(queryStr);
+        assertTrue(query.saveTable("table2"));
+        assertFalse(query.saveTable("table1"));
+    }
+
+    @Test
+    void testCompoundSelection() {
+        Query query = new Query();
+        query.parseQuery("table1 = {Name, Age, Height\n'John', 25, 6.0\n'Jane', 23, 5.5\n'Jack', 27, 5.9}\n");
+        Table table = query.parseQuery("π Name (σ (Age > 23 AND Height < 6.0) OR Name = 'Jane' (table1))").get();
+        assertEquals(2, table.getTable().size());
+        table = query.parseQuery("σ NOT Age>23 table1").get();
+        assertEquals(1, table.getTable().size());
+    }
+
+    @Test
+    void testStreamingExecution() {
+        Query query = new Query();
+        StringBuilder orders = new StringBuilder("orders = {oid, cid, amount\n");
+        for (int i = 0; i < 3000; i++) orders.append(i).append(", ").append(i % 50).append(", ").append(i % 7 * 1.5).append("\n");
+        query.parseQuery(orders + "}\ncustomers = {id, name\n1, 'Alex'\n2, 'John'\n3, 'Mo'}\n");
+
+        String queryStr = "π oid, name (σ amount > 3.0 (orders ⨝ cid=id customers))";
+        Table materialized = query.parseQuery(queryStr).get();
+        query.setStreaming(true);
+        Table streamed = query.parseQuery(queryStr).get();
+        assertEquals(materialized.getColumns(), streamed.getColumns());
+        assertEquals(new HashSet<>(materialized.getTable()), new HashSet<>(streamed.getTable()));
+        assertEquals(materialized.getRowCount(), streamed.getRowCount());
+        assertEquals(105, streamed.getRowCount());
+    }
+
+    @Test
+    void testQueryWithoutTables() {
+        Query query = new Query();
+        String queryStr = "π Name, Age (σ Age>=25 ({Name, Age, Height\n'John', 25, 6.0\n'Jane', 23, 5.5\n'Jack', 27, 5.9}))";
+        query.parseQuery(queryStr);
+        assertNull(query.getTable(""));
+    }
+
+    @Test
+    void testIndexSurvivesReplacement() {
+        Query query = new Query();
+        query.parseQuery("people = {Name, Age\n'John', 25\n'Jane', 23\n'Jack', 27}\n");
+        assertTrue(query.createIndex("people", "Age"));
+        assertFalse(query.createIndex("people", "Height"));
+        assertFalse(query.createIndex("nobody", "Age"));
+        assertNotNull(query.getTable("people").getColumn(1).getIndex());
+
+        // A table replacing an indexed one under the same name is indexed on the same column
+        query.parseQuery("people = {Name, Age\n'Ann', 31\n'Bob', 40}\n");
+        assertNotNull(query.getTable("people").getColumn(1).getIndex());
+        assertEquals(List.of(Arrays.asList("Bob", 40)), query.parseQuery("σ Age=40 people").get().getTable());
+
+        // The index of a column missing from the new table is dropped
+        query.parseQuery("people = {Name\n'Cy'}\n");
+        query.parseQuery("people = {Name, Age\n'Di', 52}\n");
+        assertNull(query.getTable("people").getColumn(1).getIndex());
+    }
+
+    @Test
+    void testResultCache() {
+        Query query = new Query();
+        query.parseQuery("people = {Name, Age\n'John', 25\n'Jane', 23\n'Jack', 27}\n");
+        Table first = query.parseQuery("select Age > 24 people").get();
+        assertSame(first, query.parseQuery("σ  Age > 24\n people").get());
+        assertNotSame(first, query.parseQuery("σ Age > 23 people").get());
+
+        // Replacing the table gives it a new version, the cached result is not used
+        query.parseQuery("people = {Name, Age\n'Ann', 31}\n");
+        Table replaced = query.parseQuery("σ Age > 24 people").get();
+        assertNotSame(first, replaced);
+        assertEquals(List.of(Arrays.asList("Ann", 31)), replaced.getTable());
+
+        query.setCacheCapacity(0);
+        assertNotSame(replaced, query.parseQuery("σ Age > 24 people").get());
+        assertSame(query.getLastTable().get(), query.getLastTable().get());
+    }
+
+    @Test
+    void testRepeatedSubquery() {
+        Query query = new Query();
+        query.parseQuery("T = {x\n1\n2\n3}\n");
+        Table joined = query.parseQuery("(σ x>1 T) ⨝ x=x (σ x>1 T)").get();
+        assertEquals(List.of(List.of(2), List.of(3)), joined.getTable());
+        assertEquals(3, query.parseQuery("T ⨝ x=x T").get().getRowCount());
+    }
+
+    @Test
+    void testPreparedQuery() {
+        Query query = new Query();
+        query.parseQuery("people = {Name, Age\n'John', 25\n'Jane', 23}\n");
+        PreparedQuery prepared = query.prepare("π Name (select Age > 24 (people))");
+        assertEquals("π Name ( σ Age > 24 ( people ) )", prepared.getNormalized());
+        assertEquals(Set.of("people"), prepared.getTableNames());
+        assertEquals(List.of(List.of("John")), query.execute(prepared).get().getTable());
+
+        // The prepared query reads the table replacing the one it was parsed with
+        query.parseQuery("people = {Name, Age\n'Ann', 31\n'Bob', 40}\n");
+        assertEquals(List.of(List.of("Ann"), List.of("Bob")), query.execute(prepared).get().getTable());
+
+        assertThrows(IllegalArgumentException.class, () -> query.prepare("π Name (people"));
+        assertThrows(IllegalArgumentException.class, () -> query.prepare("σ Age > 24"));
+        assertThrows(IllegalArgumentException.class, () -> query.prepare("nobody"));
+    }
+
+    @Test
+    void testLongQuery() {
+        Query query = new Query();
+        query.parseQuery("t = {a\n1\n2}\n");
+        StringBuilder chain = new StringBuilder("t");
+        for (int i = 0; i < 300; i++) chain.insert(0, "(σ a>0 ").append(")");
+        assertEquals(2, query.parseQuery(chain.toString()).get().getRowCount());
+    }
+
+    @Test
+    void testExplainAnalyze() {
+        Query query = new Query();
+        query.parseQuery("Student = {id, name, age\n1, 'Alex', 20\n2, 'John', 25\n3, 'Mo', 31}\ntakes = {sid, cname\n1, 'Math'\n2, 'Network'\n3, 'Math'}\n");
+        String plan = query.explain("π name (σ age > 21 (Student ⨝ id=sid takes))").get();
+        List<String> lines = plan.lines().toList();
+        assertEquals("π name", lines.getFirst());
+        assertTrue(lines.contains("        Scan Student"), plan);  // Below the selection and projection pushed down to it
+        assertFalse(plan.contains("rows"));
+
+        String analyzed = query.explainAnalyze("π name (σ age > 21 (Student ⨝ id=sid takes))").get();
+        assertTrue(analyzed.lines().anyMatch(line -> line.startsWith("  ⨝ id=sid [hash join") && line.contains("rows 5 -> 2")), analyzed);
+        assertTrue(analyzed.contains("σ age>21 [scan]  rows 3 -> 2"), analyzed);
+        assertTrue(analyzed.lines().allMatch(line -> line.contains("time ") && line.contains("allocated ")), analyzed);
+        assertEquals(2, query.getLastTable().get().getRowCount());
+    }
+
+    @Test
+    void testQueryMetrics() {
+        Query query = new Query();
+        query.parseQuery("people = {Name, Age\n'John', 25\n'Jane', 23\n'Mo', 31}\n");
+        QueryMetrics metrics = query.getMetrics();
+        long before = metrics.getQueryCount();
+        query.parseQuery("σ Age > 24 people");
+        query.parseQuery("σ Age > 24 people");
+        assertThrows(RuntimeException.class, () -> query.parseQuery("σ Age > 24 nobody"));
+        assertEquals(before + 2, metrics.getQueryCount());
+        assertEquals(1, metrics.getFailedQueryCount());
+        assertEquals(1, metrics.getCacheHits());
+        assertTrue(metrics.getCacheHitRate() > 0 && metrics.getCacheHitRate() < 1);
+        assertTrue(metrics.getMaxLatencyMillis() >= metrics.getMedianLatencyMillis());
+        assertTrue(metrics.getTableHeapBytes().get("people") > 0);
+        assertTrue(metrics.format().contains("people: "), metrics.format());
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 100_000; nanos++) histogram.record(nanos * 1000);
+        assertEquals(50_000_000, histogram.getPercentile(50), 50_000_000 * 0.016);
+        assertEquals(99_000_000, histogram.getPercentile(99), 99_000_000 * 0.016);
+        assertEquals(100_000_000, histogram.getPercentile(100));
+        assertEquals(50_000_500, histogram.getMean(), 1);
+    }
+}
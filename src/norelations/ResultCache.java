@@ -0,0 +1,152 @@
+package norelations;
+
+import java.util.*;
+
+/**
+ * Least recently used cache of query results, bounded by the estimated memory of the cached tables.
+ * A result is stored with the versions of the named tables the query read, and is only returned while none of
+ * those tables has been replaced since, so a changed table never serves a stale result.
+ */
+public final class ResultCache {
+    public static final long DEFAULT_CAPACITY = 64L << 20;  // 64 MB
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);  // In access order
+    private long capacity;
+    private long bytes;  // Estimated memory of the cached tables
+    private long hits;
+    private long misses;  // Lookups finding no result or a stale one
+
+    private record Entry(Table table, Map<String, Long> versions, long bytes) {
+    }
+
+    public ResultCache(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Sets the memory cap of the cache, evicting the least recently used results above it
+     *
+     * @param capacity - Number of bytes the cached tables may take, 0 to disable the cache
+     */
+    public synchronized void setCapacity(long capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Cache capacity must not be negative: " + capacity);
+        this.capacity = capacity;
+        evict();
+    }
+
+    public synchronized long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the cached result of a query, if the tables it read still have the same versions
+     *
+     * @param key      - String representing the normalized query
+     * @param versions - Map of the current version of each table name
+     * @return Cached Table, or null if there is none or it is stale
+     */
+    public synchronized Table get(String key, Map<String, Long> versions) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        for (Map.Entry<String, Long> version : entry.versions().entrySet()) {
+            if (!version.getValue().equals(versions.get(version.getKey()))) {
+                remove(key);
+                misses++;
+                return null;
+            }
+        }
+        hits++;
+        return entry.table();
+    }
+
+    /**
+     * Caches the result of a query, unless it is larger than the whole cache
+     *
+     * @param key      - String representing the normalized query
+     * @param table    - Table resulting from the query
+     * @param versions - Map of the version of each table name the query read
+     */
+    public synchronized void put(String key, Table table, Map<String, Long> versions) {
+        long size = estimateBytes(table);
+        if (size > capacity) return;
+        remove(key);
+        entries.put(key, new Entry(table, Map.copyOf(versions), size));
+        bytes += size;
+        evict();
+    }
+
+    /**
+     * Drops the cached results that read a table, e.g. when it is replaced
+     *
+     * @param name - String representing the table name
+     */
+    public synchronized void invalidate(String name) {
+        entries.values().removeIf(entry -> {
+            if (!entry.versions().containsKey(name)) return false;
+            bytes -= entry.bytes();
+            return true;
+        });
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the estimated memory of the cached tables
+     *
+     * @return Number of bytes
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) bytes -= entry.bytes();
+    }
+
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > capacity && eldest.hasNext()) {
+            bytes -= eldest.next().bytes();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Estimates the heap memory of a table from the types of its columns
+     *
+     * @param table - Table to be measured
+     * @return Estimated number of bytes
+     */
+    static long estimateBytes(Table table) {
+        long bytes = 0;
+        for (int col = 0; col < table.getColumnOrder().size(); col++) {
+            long perRow = switch (table.getColumn(col)) {
+                case Column.IntValues ignored -> 4;
+                case Column.DoubleValues ignored -> 8;
+                case Column.BooleanValues ignored -> 1;
+                case Column.StringCodes ignored -> 4;  // The dictionary is shared with the table the values came from
+                default -> 16;
+            };
+            bytes += perRow * table.getRowCount();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,171 @@
+package norelations;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * A selection condition compiled against the columns of one table.
+ * Operands are resolved once, before the scan: column names become the column itself and constants are parsed
+ * up front, the operator is resolved to a test of the comparison, and the comparison is specialized to the column
+ * types: ints, doubles (an int constant widened), booleans and dictionary codes of strings are compared unboxed.
+ * Only columns of mixed values, or of types that differ otherwise, compare boxed values.
+ */
+@FunctionalInterface
+public interface RowPredicate {
+
+    /**
+     * Tests the condition for a row
+     *
+     * @param row - Index of the row
+     * @return True if the condition is satisfied, otherwise false
+     */
+    boolean test(int row);
+
+    /**
+     * Compiles a condition for a table
+     *
+     * @param table - Table the condition is evaluated on
+     * @param parts - Array of Strings representing the left operand, operator, and right operand of the condition
+     * @return RowPredicate for the condition
+     */
+    static RowPredicate compile(Table table, String[] parts) {
+        String left = parts[0].trim();
+        String op = parts[1];
+        String right = parts[2].trim();
+        IntPredicate matches = comparison(op);
+        Object leftConstant = Table.parseConstant(left);
+        Object rightConstant = Table.parseConstant(right);
+
+        if (leftConstant != null && rightConstant != null) {  // Nothing depends on the row, so evaluate once
+            boolean result = matches.test(Table.compareValues(leftConstant, rightConstant));
+            return row -> result;
+        }
+        if (leftConstant != null) {  // Put the column on the left: "5 < Age" is "Age > 5"
+            return compileColumnConstant(resolveColumn(table, right), flip(op), leftConstant);
+        }
+        Column leftColumn = resolveColumn(table, left);
+        if (rightConstant != null) {
+            return compileColumnConstant(leftColumn, op, rightConstant);
+        }
+        Column rightColumn = resolveColumn(table, right);
+        if (leftColumn instanceof Column.IntValues intLeft && rightColumn instanceof Column.IntValues intRight) {
+            return switch (op) {
+                case "<" -> row -> intLeft.getInt(row) < intRight.getInt(row);
+                case "<=" -> row -> intLeft.getInt(row) <= intRight.getInt(row);
+                case ">" -> row -> intLeft.getInt(row) > intRight.getInt(row);
+                case ">=" -> row -> intLeft.getInt(row) >= intRight.getInt(row);
+                case "=" -> row -> intLeft.getInt(row) == intRight.getInt(row);
+                default -> row -> intLeft.getInt(row) != intRight.getInt(row);
+            };
+        }
+        if (leftColumn instanceof Column.DoubleValues doubleLeft && rightColumn instanceof Column.DoubleValues doubleRight) {
+            return row -> matches.test(Double.compare(doubleLeft.getDouble(row), doubleRight.getDouble(row)));
+        }
+        return row -> matches.test(leftColumn.compareAt(row, rightColumn, row));
+    }
+
+    /**
+     * Compiles a comparison between a column and a constant, specialized to the type of the column
+     *
+     * @param column   - Column on the left of the operator
+     * @param op       - String representing the operator
+     * @param operand  - Object representing the constant on the right of the operator
+     * @return RowPredicate for the comparison
+     */
+    private static RowPredicate compileColumnConstant(Column column, String op, Object operand) {
+        IntPredicate matches = comparison(op);
+        Object constant = widen(column, operand);
+        if (column instanceof Column.IntValues intColumn && constant instanceof Integer i) {
+            int value = i;
+            return switch (op) {
+                case "<" -> row -> intColumn.getInt(row) < value;
+                case "<=" -> row -> intColumn.getInt(row) <= value;
+                case ">" -> row -> intColumn.getInt(row) > value;
+                case ">=" -> row -> intColumn.getInt(row) >= value;
+                case "=" -> row -> intColumn.getInt(row) == value;
+                default -> row -> intColumn.getInt(row) != value;
+            };
+        }
+        if (column instanceof Column.DoubleValues doubleColumn && constant instanceof Double d) {
+            double value = d;
+            return row -> matches.test(Double.compare(doubleColumn.getDouble(row), value));
+        }
+        if (column instanceof Column.BooleanValues booleanColumn && constant instanceof Boolean b) {
+            boolean value = b;
+            return row -> matches.test(Boolean.compare(booleanColumn.getBoolean(row), value));
+        }
+        if (column instanceof Column.StringCodes stringColumn && constant instanceof String s) {
+            // The dictionary is sorted, so compare codes against the constant's position in it
+            int position = Arrays.binarySearch(stringColumn.getDictionary(), s);
+            if (position >= 0) {
+                return row -> matches.test(Integer.compare(stringColumn.getCode(row), position));
+            }
+            int insertionPoint = -position - 1;  // Codes below it are smaller than the constant, the rest are larger
+            return row -> matches.test(stringColumn.getCode(row) < insertionPoint ? -1 : 1);
+        }
+        // The types differ (or the column holds mixed values), so compare the boxed values as before
+        return row -> matches.test(Table.compareValues(column.get(row), constant));
+    }
+
+    /**
+     * Resolves an operator once, to the test of the result of a comparison, e.g. Integer.compare
+     *
+     * @param op - String representing the operator
+     * @return IntPredicate testing the sign of a comparison
+     * @throws IllegalArgumentException if the operator is not supported
+     */
+    static IntPredicate comparison(String op) {
+        return switch (op) {
+            case "<=" -> compared -> compared <= 0;
+            case ">=" -> compared -> compared >= 0;
+            case "<" -> compared -> compared < 0;
+            case ">" -> compared -> compared > 0;
+            case "!=" -> compared -> compared != 0;
+            case "=" -> compared -> compared == 0;
+            default -> throw new IllegalArgumentException("Unsupported operator: " + op);
+        };
+    }
+
+    /**
+     * Widens an int constant compared with a column of doubles to a double, e.g. the 5 of Height>5
+     *
+     * @param column   - Column the constant is compared with
+     * @param constant - Object representing the constant
+     * @return Object representing the constant in the type of the column where it can be widened, else the constant
+     */
+    static Object widen(Column column, Object constant) {
+        return column instanceof Column.DoubleValues && constant instanceof Integer i ? (Object) i.doubleValue() : constant;
+    }
+
+    /**
+     * Resolves an operand naming a column, with or without its table name
+     *
+     * @param table   - Table the column belongs to
+     * @param operand - String representing the operand
+     * @return Column the operand refers to
+     */
+    private static Column resolveColumn(Table table, String operand) {
+        int index = table.getOperandColumn(operand);
+        if (index == -1) {
+            System.err.println("Column '" + operand + "' does not exist in the table");
+            throw new IllegalArgumentException("Column '" + operand + "' does not exist in the table");
+        }
+        return table.getColumn(index);
+    }
+
+    /**
+     * Returns the operator that gives the same result when the operands are swapped
+     *
+     * @param op - String representing the operator
+     * @return String representing the flipped operator
+     */
+    static String flip(String op) {
+        return switch (op) {
+            case "<" -> ">";
+            case ">" -> "<";
+            case "<=" -> ">=";
+            case ">=" -> "<=";
+            default -> op;
+        };
+    }
+}
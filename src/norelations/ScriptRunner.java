@@ -0,0 +1,342 @@
+package norelations;
+
+import com.google.common.base.Optional;
+import org.apache.logging.log4j.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Non-interactive mode: runs a script of the lines a user would type into the Controller, queries ended by finish.,
+ * explain. or explainAnalyze. and commands such as saveLast[name]. or exportLast[name]., e.g. the queries of a nightly job.
+ * Each statement reads and writes table names. A statement depends on the earlier statements writing a name it reads
+ * or writes, or reading a name it writes, and saveLast, exportLast, last and lastAsRelation depend on the query before
+ * them. Statements whose dependencies are done run concurrently on a thread pool, and the output of each statement is
+ * printed in script order. Commands on the whole catalog or the execution mode, e.g. persist[directory]. or
+ * parallelism[n]., wait for every earlier statement and every later statement waits for them.
+ */
+public final class ScriptRunner {
+    private static final Logger logger = LogManager.getLogger(ScriptRunner.class);
+    private static final Set<String> COMMANDS = Set.of("saveLast", "exportLast", "load", "store", "open", "createIndex",
+            "persist", "restore", "cache", "parallelism", "streaming");
+    private final Query query;
+    private final int threads;
+
+    /**
+     * A statement of a script
+     *
+     * @param line    - Number of the line the statement starts at
+     * @param text    - Text of the query, or the command
+     * @param ending  - Keyword ending the query, finish., explain. or explainAnalyze., null for a command
+     * @param reads   - Names the statement reads, a superset of the tables it reads
+     * @param writes  - Names of the tables the statement adds or changes, and of the files it exports as "file:" + name
+     * @param source  - Index of the query whose result the command uses, -1 if none
+     * @param barrier - Whether the statement waits for every earlier statement and every later one waits for it
+     */
+    record Statement(int line, String text, String ending, Set<String> reads, Set<String> writes, int source, boolean barrier) {
+        boolean isQuery() {
+            return ending != null;
+        }
+    }
+
+    private record Result(Table table, String output, boolean succeeded) {
+    }
+
+    /**
+     * @param query   - Query holding the catalog the script runs on
+     * @param threads - Number of statements run at the same time
+     */
+    public ScriptRunner(Query query, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Threads must be at least 1: " + threads);
+        this.query = query;
+        this.threads = threads;
+    }
+
+    /**
+     * Runs a script, printing the output of its statements in script order
+     *
+     * @param lines - List of the lines of the script
+     * @param out   - PrintStream the output is printed to
+     * @return Number of statements that failed
+     */
+    public int run(List<String> lines, PrintStream out) {
+        List<Statement> statements = parse(lines);
+        List<Set<Integer>> dependencies = dependencies(statements);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<CompletableFuture<Result>> results = new ArrayList<>();
+            for (int i = 0; i < statements.size(); i++) {
+                Statement statement = statements.get(i);
+                CompletableFuture<?>[] done = dependencies.get(i).stream().map(results::get).toArray(CompletableFuture[]::new);
+                CompletableFuture<Result> source = statement.source() == -1 ? null : results.get(statement.source());
+                results.add(CompletableFuture.allOf(done).thenApplyAsync(ignored ->
+                        execute(statement, source == null ? null : source.join().table()), executor));
+            }
+            int failed = 0;
+            for (CompletableFuture<Result> result : results) {
+                out.print(result.join().output());
+                if (!result.join().succeeded()) failed++;
+            }
+            return failed;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Splits a script into statements the way the Controller reads its input: lines up to one containing finish.,
+     * explain. or explainAnalyze. are a query, command lines are statements of their own, clear. drops the query being read and exit. ends the script
+     *
+     * @param lines - List of the lines of the script
+     * @return List of the statements in script order
+     */
+    static List<Statement> parse(List<String> lines) {
+        List<Statement> statements = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        int start = 0;  // Line the query being read starts at, 0 before its first line
+        int lastQuery = -1;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            String ending = ending(line);
+            if (ending != null) {
+                text.append(line, 0, line.indexOf(ending));
+                statements.add(query(start == 0 ? i + 1 : start, text.toString(), ending));
+                if (ending.equals("finish.")) lastQuery = statements.size() - 1;  // The result of an explained query is not kept
+                text.setLength(0);
+                start = 0;
+            } else if (line.toLowerCase().contains("exit.")) {
+                break;
+            } else if (line.equals("clear.")) {
+                text.setLength(0);
+                start = 0;
+            } else if (isCommand(line)) {
+                statements.add(command(i + 1, line, lastQuery));
+            } else if (!line.equals("help.") && !line.equals("print.")) {
+                if (start == 0) start = i + 1;
+                text.append(line).append("\n");
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * Returns the keyword ending a query on a line, finish., explain. or explainAnalyze., null if the line does not end one
+     */
+    static String ending(String line) {
+        return Stream.of("finish.", "explainAnalyze.", "explain.").filter(line::contains).findFirst().orElse(null);
+    }
+
+    static boolean isCommand(String line) {
+        if (line.equals("exportLast.") || line.equals("last.") || line.equals("lastAsRelation.") || line.equals("tables.") || line.equals("stats.")) return true;
+        return line.endsWith("].") && line.contains("[") && COMMANDS.contains(line.substring(0, line.indexOf('[')));
+    }
+
+    private static Statement query(int line, String text, String ending) {
+        Query.NamedTables namedTables = Query.splitNamedTables(Query.normalizeSpacing(text));
+        Set<String> reads = new HashSet<>(QueryParser.names(namedTables.query()));
+        Set<String> writes = new HashSet<>();
+        for (Query.NamedTable namedTable : namedTables.tables()) {
+            reads.add(namedTable.rows().replaceAll("[\\p{Ps}\\p{Pe} ]", "").trim());  // The rows may name another table
+            writes.add(namedTable.name());
+        }
+        return new Statement(line, text, ending, reads, writes, -1, false);
+    }
+
+    private static Statement command(int line, String text, int lastQuery) {
+        String name = commandName(text);
+        String first = text.contains("[") ? text.substring(text.indexOf('[') + 1, text.lastIndexOf(']')).split(",")[0].trim() : "";
+        return switch (name) {
+            case "saveLast" -> new Statement(line, text, null, Set.of(), Set.of(first), lastQuery, false);
+            case "exportLast" -> new Statement(line, text, null, Set.of(), Set.of("file:" + (first.isEmpty() ? "table" : first)), lastQuery, false);
+            case "last", "lastAsRelation" -> new Statement(line, text, null, Set.of(), Set.of(), lastQuery, false);
+            case "load", "store", "open", "createIndex" -> new Statement(line, text, null, Set.of(), Set.of(first), -1, false);
+            default -> new Statement(line, text, null, Set.of(), Set.of(), -1, true);
+        };
+    }
+
+    /**
+     * Returns the name of a command line, e.g. saveLast for saveLast[name].
+     */
+    static String commandName(String text) {
+        return text.contains("[") ? text.substring(0, text.indexOf('[')) : text.substring(0, text.length() - 1);
+    }
+
+    /**
+     * Finds the earlier statements each statement of a script has to wait for
+     *
+     * @param statements - List of the statements in script order
+     * @return List of the indexes of the statements each statement depends on
+     */
+    static List<Set<Integer>> dependencies(List<Statement> statements) {
+        List<Set<Integer>> dependencies = new ArrayList<>();
+        Map<String, Integer> writers = new HashMap<>();  // Statement that last wrote each name
+        Map<String, List<Integer>> readers = new HashMap<>();  // Statements that read each name since it was last written
+        int lastBarrier = -1;
+        for (int i = 0; i < statements.size(); i++) {
+            Statement statement = statements.get(i);
+            Set<Integer> depends = new TreeSet<>();
+            if (statement.barrier()) {
+                // The statements before the last barrier are done once it is
+                for (int j = Math.max(lastBarrier, 0); j < i; j++) depends.add(j);
+                lastBarrier = i;
+            } else if (lastBarrier != -1) {
+                depends.add(lastBarrier);
+            }
+            if (statement.source() != -1) depends.add(statement.source());
+            for (String name : statement.reads()) {
+                Integer writer = writers.get(name);
+                if (writer != null) depends.add(writer);
+            }
+            for (String name : statement.writes()) {
+                Integer writer = writers.get(name);
+                if (writer != null) depends.add(writer);
+                depends.addAll(readers.getOrDefault(name, List.of()));
+            }
+            for (String name : statement.reads()) readers.computeIfAbsent(name, key -> new ArrayList<>()).add(i);
+            for (String name : statement.writes()) {
+                writers.put(name, i);
+                readers.remove(name);
+            }
+            depends.remove(i);
+            dependencies.add(depends);
+        }
+        return dependencies;
+    }
+
+    /**
+     * Executes a statement, collecting its output
+     *
+     * @param statement - Statement to be executed
+     * @param last      - Table resulting from the query the statement uses, null if there is none
+     * @return Result holding the table resulting from a query and the output
+     */
+    private Result execute(Statement statement, Table last) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        Table table = null;
+        boolean succeeded;
+        try {
+            if (statement.isQuery() && !statement.ending().equals("finish.")) {
+                Optional<String> plan = statement.ending().equals("explain.") ? query.explain(statement.text()) : query.explainAnalyze(statement.text());
+                out.print(plan.isPresent() ? plan.get() : "No query.\n");
+                succeeded = true;
+            } else if (statement.isQuery()) {
+                Optional<Table> result = query.parseQuery(statement.text());
+                if (result.isPresent()) {
+                    table = result.get();
+                    table.printTable(out);
+                } else {
+                    out.println("No query.");
+                }
+                succeeded = true;
+            } else {
+                succeeded = executeCommand(statement.text(), last, out);
+            }
+        } catch (Exception e) {
+            logger.error("Error: " + e.getMessage());
+            succeeded = false;
+        }
+        if (!succeeded) logger.error("Statement at line " + statement.line() + " failed.");
+        return new Result(table, buffer.toString(StandardCharsets.UTF_8), succeeded);
+    }
+
+    /**
+     * Executes a command line, e.g. saveLast[name]. or stats. The commands of a script, of the Controller and of the
+     * sessions of a QueryServer are all executed here, so they take the same arguments.
+     *
+     * @param text - Command line
+     * @param last - Table resulting from the query the command uses, null if there is none
+     * @param out  - PrintStream the output of the command is printed to
+     * @return True if the command succeeded, false otherwise
+     */
+    boolean executeCommand(String text, Table last, PrintStream out) {
+        switch (commandName(text)) {
+            case "saveLast" -> {
+                String name = arguments(text, 1, 1).get(0);
+                if (!query.saveTable(name, last)) return false;
+                out.println("Saved last table as " + name + ".");
+            }
+            case "exportLast" -> {
+                List<String> args = text.equals("exportLast.") ? List.of("table") : arguments(text, 1, 2);
+                boolean gzip = args.size() > 1 && args.get(1).equals("gzip");
+                if (last == null) {
+                    out.println("No last table.");
+                    return false;
+                }
+                if (!ExportToCSV.exportToCSV(last, args.get(0), gzip)) return false;
+                out.println("Exported last table as " + args.get(0) + (gzip ? ".csv.gz" : ".csv"));
+            }
+            case "last", "lastAsRelation" -> {
+                if (last == null) {
+                    out.println("No last table.");
+                    return false;
+                }
+                if (text.equals("last.")) last.printTable(out);
+                else out.println(last);
+            }
+            case "tables" -> out.print(query.tablesToString());
+            case "stats" -> out.print(query.getMetrics().format());
+            case "load" -> {
+                List<String> args = arguments(text, 2, 3);
+                boolean loaded = args.size() == 3 ? query.loadTable(args.get(0), args.get(1), args.get(2)) : query.loadTable(args.get(0), args.get(1));
+                if (!loaded) return false;
+                out.println("Loaded " + args.get(1) + " as " + args.get(0) + ".");
+            }
+            case "store" -> {
+                List<String> args = arguments(text, 2, 2);
+                if (!query.storeTable(args.get(0), args.get(1))) return false;
+                out.println("Stored " + args.get(0) + " in " + args.get(1) + ".");
+            }
+            case "open" -> {
+                List<String> args = arguments(text, 2, 2);
+                if (!query.openTable(args.get(0), args.get(1))) return false;
+                out.println("Opened " + args.get(1) + " as " + args.get(0) + ".");
+            }
+            case "createIndex" -> {
+                List<String> args = arguments(text, 2, 2);
+                if (!query.createIndex(args.get(0), args.get(1))) return false;
+                out.println("Indexed " + args.get(1) + " of " + args.get(0) + ".");
+            }
+            case "persist" -> {
+                String directory = arguments(text, 1, 1).get(0);
+                if (!query.persistCatalog(directory)) return false;
+                out.println("Persisted tables to " + directory + ".");
+            }
+            case "restore" -> {
+                String directory = arguments(text, 1, 1).get(0);
+                if (!query.restoreCatalog(directory)) return false;
+                out.println("Restored tables from " + directory + ".");
+            }
+            case "cache" -> {
+                long megabytes = Long.parseLong(arguments(text, 1, 1).get(0));
+                query.setCacheCapacity(megabytes << 20);
+                out.println("Result cache capacity set to " + megabytes + " MB.");
+            }
+            case "parallelism" -> {
+                ParallelExecution.setParallelism(Integer.parseInt(arguments(text, 1, 1).get(0)));
+                out.println("Parallelism set to " + ParallelExecution.getParallelism() + ".");
+            }
+            case "streaming" -> {
+                String mode = arguments(text, 1, 1).get(0);
+                if (!mode.equals("on") && !mode.equals("off")) throw new IllegalArgumentException("Invalid streaming mode: " + mode);
+                query.setStreaming(mode.equals("on"));
+                out.println("Streaming execution " + mode + ".");
+            }
+            default -> throw new IllegalArgumentException("Unknown command: " + text);
+        }
+        return true;
+    }
+
+    /**
+     * Reads the comma separated arguments between the brackets of a command, the last one keeps any further commas
+     */
+    private static List<String> arguments(String text, int min, int max) {
+        String[] args = text.substring(text.indexOf('[') + 1, text.lastIndexOf(']')).split(",", max);
+        if (args.length < min) throw new IllegalArgumentException("Expected " + min + " arguments: " + text);
+        return Arrays.stream(args).map(String::trim).toList();
+    }
+}
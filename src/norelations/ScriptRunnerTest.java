@@ -0,0 +1,68 @@
+package norelations;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptRunnerTest {
+    private static final List<String> SCRIPT = List.of(
+            "people = {Name, Age",
+            "'John', 25",
+            "'Jane', 23}",
+            "finish.",
+            "pets = {Owner, Pet",
+            "'John', 'Rex'}",
+            "finish.",
+            "σ Age > 24 (people)",
+            "finish.",
+            "saveLast[adults].",
+            "π Pet (pets)",
+            "finish.",
+            "adults ⨝ Name=Owner pets",
+            "finish.",
+            "cache[0].",
+            "π Name (adults)",
+            "finish.");
+
+    @Test
+    void testDependencies() {
+        List<ScriptRunner.Statement> statements = ScriptRunner.parse(SCRIPT);
+        assertEquals(8, statements.size());
+        assertEquals(8, statements.get(2).line());
+        assertEquals(Set.of("adults"), statements.get(3).writes());
+        assertEquals(2, statements.get(3).source());
+
+        List<Set<Integer>> dependencies = ScriptRunner.dependencies(statements);
+        assertEquals(Set.of(), dependencies.get(1));  // Defining pets is independent of people
+        assertEquals(Set.of(0), dependencies.get(2));
+        assertEquals(Set.of(2), dependencies.get(3));
+        assertEquals(Set.of(1), dependencies.get(4));
+        assertEquals(Set.of(1, 3), dependencies.get(5));
+        assertEquals(Set.of(0, 1, 2, 3, 4, 5), dependencies.get(6));  // cache[0]. waits for everything before it
+        assertEquals(Set.of(3, 6), dependencies.get(7));
+    }
+
+    @Test
+    void testRunInScriptOrder() {
+        Query query = new Query();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        assertEquals(0, new ScriptRunner(query, 4).run(SCRIPT, new PrintStream(buffer, true, StandardCharsets.UTF_8)));
+
+        String output = buffer.toString(StandardCharsets.UTF_8);
+        int saved = output.indexOf("Saved last table as adults.");
+        assertTrue(saved > output.indexOf("| 'John' | 25  |"));
+        assertTrue(output.indexOf("'Rex'") > saved);
+        assertTrue(output.indexOf("Result cache capacity set to 0 MB.") > output.indexOf("| Name   | Age | Owner  | Pet   |"));
+        assertEquals(1, query.parseQuery("adults").get().getRowCount());
+
+        // A failing statement is counted, its dependents still run
+        List<String> failing = List.of("σ Age > 24 (missing)", "finish.", "saveLast[nothing].", "π Name (people)", "finish.");
+        assertEquals(2, new ScriptRunner(query, 2).run(failing, new PrintStream(new ByteArrayOutputStream())));
+    }
+}
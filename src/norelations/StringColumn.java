@@ -0,0 +1,138 @@
+package norelations;
+
+import java.util.*;
+
+/**
+ * Column of String values stored as dictionary codes.
+ * The dictionary holds each distinct value once, in sorted order, so comparing two codes of the same
+ * dictionary gives the same result as comparing the strings themselves.
+ */
+public class StringColumn extends Column implements Column.StringCodes {
+    private final int[] codes;
+    private final String[] dictionary;
+
+    StringColumn(int[] codes, String[] dictionary) {
+        this.codes = codes;
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public int getCode(int row) {
+        return codes[row];
+    }
+
+    @Override
+    public String[] getDictionary() {
+        return dictionary;
+    }
+
+    @Override
+    public int size() {
+        return codes.length;
+    }
+
+    @Override
+    public Object get(int row) {
+        return dictionary[codes[row]];
+    }
+
+    @Override
+    public Column gather(int[] rows) {
+        int[] newCodes = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            newCodes[i] = codes[rows[i]];
+        }
+        return new StringColumn(newCodes, dictionary);  // The dictionary is shared, not copied
+    }
+
+    @Override
+    public int hashAt(int row) {
+        return dictionary[codes[row]].hashCode();
+    }
+
+    @Override
+    public boolean equalsAt(int row, Column other, int otherRow) {
+        if (other instanceof StringColumn stringColumn) {
+            if (stringColumn.dictionary == dictionary) return codes[row] == stringColumn.codes[otherRow];
+            return dictionary[codes[row]].equals(stringColumn.dictionary[stringColumn.codes[otherRow]]);
+        }
+        return super.equalsAt(row, other, otherRow);
+    }
+
+    @Override
+    public int compareAt(int row, Column other, int otherRow) {
+        if (other instanceof StringColumn stringColumn) {
+            if (stringColumn.dictionary == dictionary) return Integer.compare(codes[row], stringColumn.codes[otherRow]);
+            return dictionary[codes[row]].compareTo(stringColumn.dictionary[stringColumn.codes[otherRow]]);
+        }
+        return super.compareAt(row, other, otherRow);
+    }
+
+    @Override
+    public int[] sortedRows() {
+        return sortRowsByKey(codes);
+    }
+
+    /**
+     * Concatenates StringColumns, merging their dictionaries into one sorted dictionary and remapping their codes
+     */
+    static StringColumn concatColumns(List<Column> parts) {
+        TreeSet<String> words = new TreeSet<>();
+        for (Column part : parts) words.addAll(Arrays.asList(((StringColumn) part).dictionary));
+        String[] dictionary = words.toArray(new String[0]);
+        int[] codes = new int[parts.stream().mapToInt(Column::size).sum()];
+        int pos = 0;
+        for (Column part : parts) {
+            StringColumn strings = (StringColumn) part;
+            int[] remap = new int[strings.dictionary.length];
+            for (int code = 0; code < remap.length; code++) {
+                remap[code] = Arrays.binarySearch(dictionary, strings.dictionary[code]);
+            }
+            for (int code : strings.codes) codes[pos++] = remap[code];
+        }
+        return new StringColumn(codes, dictionary);
+    }
+
+    static class Builder extends TypedBuilder {
+        private final HashMap<String, Integer> codeOf;
+        private final ArrayList<String> words;
+        private int[] codes;
+        private int size;
+
+        Builder(int capacity) {
+            codeOf = new HashMap<>();
+            words = new ArrayList<>();
+            codes = new int[Math.max(capacity, 8)];
+        }
+
+        @Override
+        boolean add(Object value) {
+            if (!(value instanceof String s)) return false;
+            Integer code = codeOf.get(s);
+            if (code == null) {
+                code = words.size();
+                codeOf.put(s, code);
+                words.add(s);
+            }
+            if (size == codes.length) codes = Arrays.copyOf(codes, size * 2);
+            codes[size++] = code;
+            return true;
+        }
+
+        @Override
+        Column build() {
+            // Sort the dictionary and remap the codes so that code order matches string order
+            String[] dictionary = words.toArray(new String[0]);
+            Arrays.sort(dictionary);
+            int[] remap = new int[dictionary.length];
+            for (int newCode = 0; newCode < dictionary.length; newCode++) {
+                remap[codeOf.get(dictionary[newCode])] = newCode;
+            }
+            int[] newCodes = new int[size];
+            for (int row = 0; row < size; row++) {
+                newCodes[row] = remap[codes[row]];
+            }
+            return new StringColumn(newCodes, dictionary);
+        }
+    }
+}
@@ -0,0 +1,1555 @@
+package norelations;
+
+import java.io.PrintStream;
+import java.util.*;
+
+public class Table {
+    public static final ArrayList<String> OPERATORS = new ArrayList<>(Arrays.asList("!=", "<=", ">=", "<", ">", "="));
+    private static final int INDEX_SCAN_RATIO = 4;  // A selection uses an index range of at most 1/4 of the rows
+    private final ArrayList<Column> columns;  // Stores values in the table, one Column per column
+    private final ArrayList<Class<?>> colType;  // Stores the type of data for each column
+    private final HashMap<String, Integer> colIndex;  // Stores the index of each column
+    private int rowCount;  // Stores the number of rows
+    private ArrayList<ArrayList<Object>> table;  // Row view of the columns, materialized by getTable() when first needed
+    private TableStatistics statistics;  // Statistics for the optimizer, computed by getStatistics() when first needed
+
+    /**
+     * Constructor for Table class
+     */
+    private Table() {
+        colType = new ArrayList<>();
+        colIndex = new HashMap<>();
+        columns = new ArrayList<>();
+    }
+
+    public Table(ArrayList<String> rows) {
+        colType = new ArrayList<>();
+        colIndex = new HashMap<>();
+        columns = new ArrayList<>();
+
+        buildTable(rows);
+    }
+
+    /**
+     * Constructor for Table class
+     *
+     * @param colTypes - ArrayList of column types
+     * @param colIndex - HashMap of column names and their index
+     * @param rows     - ArrayList of rows
+     */
+    public Table(ArrayList<Class<?>> colTypes, HashMap<String, Integer> colIndex, ArrayList<ArrayList<Object>> rows) {
+        this.colType = colTypes;
+        this.colIndex = colIndex;
+        columns = new ArrayList<>();
+        for (int i = 0; i < colTypes.size(); i++) {
+            columns.add(Column.fromRows(colTypes.get(i), rows, i));
+        }
+        rowCount = rows.size();
+    }
+
+    /**
+     * Constructor for Table class
+     *
+     * @param colTypes - ArrayList of column types
+     * @param colIndex - HashMap of column names and their index
+     * @param columns  - ArrayList of columns, all with the same number of values
+     * @param rowCount - Number of rows
+     */
+    public Table(ArrayList<Class<?>> colTypes, HashMap<String, Integer> colIndex, ArrayList<Column> columns, int rowCount) {
+        this.colType = colTypes;
+        this.colIndex = colIndex;
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    public static boolean isTable(ArrayList<String> rows) {
+        return parseRows(rows) != null;
+    }
+
+    /**
+     * Builds a table from rows of comma separated values, the first row holding the column names
+     *
+     * @param rows - ArrayList of rows
+     * @return New Table, or null if the rows do not form a table
+     */
+    public static Table parseRows(ArrayList<String> rows) {
+        Table table = new Table();
+        boolean buildSuccess = false;
+        try {
+            buildSuccess = table.buildTable(rows, true);
+        } catch (Exception ignored) {
+        }
+
+        return buildSuccess ? table : null;
+    }
+
+    /**
+     * Returns the table with the specified name
+     *
+     * @param rows         - ArrayList of rows
+     * @param disablePrint - Boolean to disable printing of error messages
+     * @return Table with the specified name
+     */
+    private boolean buildTable(ArrayList<String> rows, boolean disablePrint) {
+        if (rows.size() < 2) {
+            return false;
+        }
+
+        ArrayList<String> colName = parseRow(rows.get(0));
+        ArrayList<String> firstValues = parseRow(rows.get(1)); // Fixed line
+        updateCols(colName, firstValues);
+
+        ArrayList<Column.Builder> builders = new ArrayList<>();
+        for (Class<?> type : colType) {
+            builders.add(Column.builder(type, rows.size() - 1));
+        }
+        for (int i = 1; i < rows.size(); i++) {
+            ArrayList<Object> row = parseAndValidateRow(rows.get(i), colName.size(), i, disablePrint);
+            if (row == null) {
+                return false;
+            }
+            for (int j = 0; j < row.size(); j++) {
+                builders.get(j).add(row.get(j));
+            }
+        }
+        for (Column.Builder builder : builders) {
+            columns.add(builder.build());
+        }
+        rowCount = rows.size() - 1;
+        return true;
+    }
+
+    /**
+     * Parses a row from the table.
+     *
+     * @param row The row to parse.
+     * @return An ArrayList of Strings, where each String is a column value from the row.
+     */
+    private ArrayList<String> parseRow(String row) {
+        return new ArrayList<>(Arrays.asList(row.replace(" ", "").split(",")));
+    }
+
+    /**
+     * Parses and validates a row from the table.
+     *
+     * @param rowStr       The row to parse and validate.
+     * @param colCount     The expected number of columns in the row.
+     * @param rowIndex     The index of the row (used for error messages).
+     * @param disablePrint If true, error messages will not be printed.
+     * @return An ArrayList of Objects, where each Object is a parsed and validated column value from the row.
+     * Returns null if the row is invalid.
+     */
+    private ArrayList<Object> parseAndValidateRow(String rowStr, int colCount, int rowIndex, boolean disablePrint) {
+        String[] cols = parseRow(rowStr).toArray(new String[0]);
+        if (cols.length != colCount) {
+            if (!disablePrint) System.out.println("Error: Invalid number of columns at row " + rowIndex);
+            return null;
+        }
+
+        ArrayList<Object> row = new ArrayList<>();
+        for (int j = 0; j < cols.length; j++) {
+            Object value = parseValue(cols[j]);
+            if (value == null) {
+                if (!disablePrint) System.out.println("Error: Invalid data type at row " + rowIndex + ", column " + j);
+                return null;
+            }
+            row.add(value);
+        }
+        return row;
+    }
+
+    /**
+     * Parses a value from a column in the table.
+     *
+     * @param col The column value to parse.
+     * @return The parsed value, as an Object. The type of the Object will be String, Double, Boolean, or Integer,
+     * depending on the format of the column value.
+     */
+    private Object parseValue(String col) {
+        if (isString(col)) return col.substring(1, col.length() - 1);
+        if (col.contains(".")) return Double.parseDouble(col);
+        if (col.contains("true") || col.contains("false")) return Boolean.parseBoolean(col);
+        return Integer.parseInt(col);
+    }
+
+    /**
+     * Returns the table.
+     * The rows are materialized from the columns the first time they are requested, so prefer
+     * getRowCount() and the table operations when only the values are needed.
+     *
+     * @return The table, as an ArrayList of ArrayLists of Objects. Each inner ArrayList represents a row in the table,
+     * and each Object in the inner ArrayList represents a column value in the row.
+     */
+    public ArrayList<ArrayList<Object>> getTable() {
+        if (table == null) {
+            ArrayList<ArrayList<Object>> rows = new ArrayList<>(rowCount);
+            for (int row = 0; row < rowCount; row++) {
+                rows.add(getRow(row));
+            }
+            table = rows;
+        }
+        return table;
+    }
+
+    /**
+     * Returns the values of a row.
+     *
+     * @param row The index of the row.
+     * @return An ArrayList of the column values in the row.
+     */
+    private ArrayList<Object> getRow(int row) {
+        ArrayList<Object> values = new ArrayList<>(columns.size());
+        for (Column column : columns) {
+            values.add(column.get(row));
+        }
+        return values;
+    }
+
+    /**
+     * Returns the number of rows in the table.
+     *
+     * @return The number of rows.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the column names in the table.
+     *
+     * @return A Set of Strings, where each String is a column name in the table.
+     */
+    public Set<String> getColumns() {
+        return colIndex.keySet();
+    }
+
+    /**
+     * Takes an ArrayList of rows and builds the table
+     *
+     * @param rows - ArrayList of rows
+     */
+    private void buildTable(ArrayList<String> rows) {
+        buildTable(rows, false);
+    }
+
+    /**
+     * Takes a row of values and converts it to the respective data types, then updates the column types and index
+     *
+     * @param colName - ArrayList of column names
+     * @param row     - Array of values
+     */
+    private void updateCols(ArrayList<String> colName, ArrayList<String> row) {
+        for (int i = 0; i < colName.size(); i++) {
+            String col = row.get(i);
+            if (isString(col)) colType.add(String.class);
+            else if (col.contains(".")) colType.add(Double.class);
+            else if (col.contains("true") || col.contains("false")) colType.add(Boolean.class);
+            else colType.add(Integer.class);
+
+            colIndex.put(colName.get(i), i);
+        }
+    }
+
+    /**
+     * Returns a new table with the specified columns
+     *
+     * @param colNames - TreeSet of column names
+     * @return New Table with projection applied
+     */
+    public Table projection(TreeSet<String> colNames) {
+        ArrayList<Class<?>> newColType = new ArrayList<>();
+        HashMap<String, Integer> newColIndex = new HashMap<>();
+        ArrayList<Column> newColumns = new ArrayList<>();
+
+        int i = 0;  // Index for new table
+        // Loop through each column name and add it to the new table. Columns are immutable, so they are shared, not copied
+        for (String colName : colNames) {
+            newColIndex.put(colName, i++);
+            if (!this.colIndex.containsKey(colName)) {
+                System.err.println("Error: Column '" + colName + "' does not exist in the table");
+                return null;
+            }
+            newColType.add(this.colType.get(this.colIndex.get(colName)));
+            newColumns.add(this.columns.get(this.colIndex.get(colName)));
+        }
+
+        return new Table(newColType, newColIndex, newColumns, rowCount);
+    }
+
+    /**
+     * Returns a new table with the specified rows based on the selection condition
+     *
+     * @param condition - String representing the condition to be applied, comparisons can be combined with AND, OR, NOT and brackets
+     * @return New Table with selection applied
+     */
+    public Table select(String condition) {
+        Condition parsed = Condition.parse(condition);
+        if (parsed == null) {
+            System.err.println("Error: Invalid condition: " + condition);
+            return null;
+        }
+        return select(parsed);
+    }
+
+    /**
+     * Returns a new table with the specified rows based on the selection condition
+     *
+     * @param condition - Condition to be applied
+     * @return New Table with selection applied
+     */
+    public Table select(Condition condition) {
+        // Resolve the operands once, then process rows based on the selection condition in a single pass
+        RowPredicate predicate = condition.compile(this);
+        // A selective comparison on an indexed column narrows the scan down to the rows in its index range
+        ColumnIndex.Range range = condition.indexRange(this);
+        if (range != null && range.size() <= rowCount / INDEX_SCAN_RATIO) {
+            OperatorProfile.recordAlgorithm("index range scan");
+            int[] candidates = range.rows();
+            List<int[]> chunkMatches = ParallelExecution.mapChunks(candidates.length, (from, to) -> {
+                int[] matches = new int[to - from];
+                int matchCount = 0;
+                for (int i = from; i < to; i++) {
+                    if (predicate.test(candidates[i])) matches[matchCount++] = candidates[i];
+                }
+                return Arrays.copyOf(matches, matchCount);
+            });
+            return gatherRows(chunkMatches.size() == 1 ? chunkMatches.getFirst() : concat(chunkMatches));
+        }
+        // Blocks of rows of mapped columns whose min and max rule out the condition are skipped without reading them
+        boolean mapped = columns.stream().anyMatch(column -> column instanceof MappedColumn);
+        OperatorProfile.recordAlgorithm(mapped ? "scan skipping blocks" : "scan");
+        // In parallel mode each chunk of rows is scanned on its own thread, the matches are concatenated in row order
+        List<int[]> chunkMatches = ParallelExecution.mapChunks(rowCount, (from, to) -> {
+            int[] matches = new int[to - from];
+            int matchCount = 0;
+            for (int start = from; start < to; ) {
+                int block = start / MappedColumn.BLOCK_ROWS;
+                int end = mapped ? Math.min(to, (block + 1) * MappedColumn.BLOCK_ROWS) : to;
+                if (!mapped || condition.mayMatch(this, block)) {
+                    for (int row = start; row < end; row++) {
+                        // Evaluate the condition for each row
+                        if (predicate.test(row)) {
+                            // Add matching rows to the new table
+                            matches[matchCount++] = row;
+                        }
+                    }
+                }
+                start = end;
+            }
+            return Arrays.copyOf(matches, matchCount);
+        });
+
+        return gatherRows(chunkMatches.size() == 1 ? chunkMatches.getFirst() : concat(chunkMatches));
+    }
+
+    private static int[] concat(List<int[]> arrays) {
+        int length = 0;
+        for (int[] array : arrays) length += array.length;
+        int[] result = new int[length];
+        int position = 0;
+        for (int[] array : arrays) {
+            System.arraycopy(array, 0, result, position, array.length);
+            position += array.length;
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new table with the specified set operation applied.
+     * Rows are equal when all their values are equal, and the result has no duplicate rows. The rows are put in hash
+     * tables: the result has the rows of this table first, in their order, then the new rows of the other table.
+     *
+     * @param table    - Table to be used in the set operation
+     * @param operator - Set operation to be applied (union ∪, intersection ∩, difference -)
+     * @return New Table with set operation applied
+     */
+    public Table setOperation(Table table, char operator) {
+        return setOperation(table, operator, false);
+    }
+
+    /**
+     * Returns a new table with the specified set operation applied, optionally by merging sorted tables.
+     * With merge, two tables whose rows are sorted are merged in one pass without hash tables and the result is
+     * sorted; the order is checked first, and tables that are not sorted, or hold columns of mixed values, are hashed
+     * as by setOperation(table, operator).
+     *
+     * @param table    - Table to be used in the set operation
+     * @param operator - Set operation to be applied (union ∪, intersection ∩, difference -)
+     * @param merge    - True to merge the tables if both are sorted by their rows
+     * @return New Table with set operation applied
+     */
+    public Table setOperation(Table table, char operator, boolean merge) {
+        if (differentColumns(table)) {
+            System.out.println("Error: Tables must have the same column names");
+            return null;
+        }
+        if (operator != '∪' && operator != '∩' && operator != '-') {
+            System.out.println("Error: Invalid set operation");
+            return null;
+        }
+        // Values of mixed types cannot be compared, hashing only needs equality
+        if (merge && hasTypedColumns() && table.hasTypedColumns() && isSorted() && table.isSorted()) {
+            OperatorProfile.recordAlgorithm("merge");
+            return mergeSetOperation(table, operator);
+        }
+
+        OperatorProfile.recordAlgorithm("hash");
+        int[] hashes = rowHashes();
+        int[] otherHashes = table.rowHashes();
+        switch (operator) {
+            case '∪' -> {
+                RowSet set = new RowSet(this, hashes, table, otherHashes, rowCount + table.rowCount);
+                for (int row = 0; row < rowCount; row++) set.add(row);
+                int distinctRows = set.size;
+                for (int row = 0; row < table.rowCount; row++) set.add(-row - 1);
+                return set.size == distinctRows ? gatherRows(Arrays.copyOf(set.refs, distinctRows)) : buildRows(table, set.refs, set.size);
+            }
+            case '∩' -> {
+                if (table.rowCount < rowCount) {
+                    // Hash the smaller table, then keep the first row of this table matching each of its rows
+                    RowSet set = new RowSet(this, hashes, table, otherHashes, table.rowCount);
+                    for (int row = 0; row < table.rowCount; row++) set.add(-row - 1);
+                    int[] matches = new int[Math.min(rowCount, set.size)];
+                    int matchCount = 0;
+                    for (int row = 0; row < rowCount; row++) {
+                        int index = set.find(row);
+                        if (index != -1 && !set.marked.get(index)) {
+                            set.marked.set(index);
+                            matches[matchCount++] = row;
+                        }
+                    }
+                    return gatherRows(Arrays.copyOf(matches, matchCount));
+                }
+                return gatherRows(markDistinctRows(table, hashes, otherHashes, true));
+            }
+            default -> {
+                return gatherRows(markDistinctRows(table, hashes, otherHashes, false));
+            }
+        }
+    }
+
+    /**
+     * Helper method to find the distinct rows of this table, marking the rows that are also in another table
+     *
+     * @param table       - Table with the same columns
+     * @param hashes      - Array of the row hash codes of this table
+     * @param otherHashes - Array of the row hash codes of the other table
+     * @param marked      - True to return the distinct rows that are in the other table, false for the ones that are not
+     * @return Array of row indexes of this table, in row order
+     */
+    private int[] markDistinctRows(Table table, int[] hashes, int[] otherHashes, boolean marked) {
+        RowSet set = new RowSet(this, hashes, table, otherHashes, rowCount);
+        for (int row = 0; row < rowCount; row++) set.add(row);
+        for (int row = 0; row < table.rowCount; row++) {
+            int index = set.find(-row - 1);
+            if (index != -1) set.marked.set(index);
+        }
+        int[] rows = new int[marked ? set.marked.cardinality() : set.size - set.marked.cardinality()];
+        int count = 0;
+        for (int index = 0; index < set.size; index++) {
+            if (set.marked.get(index) == marked) rows[count++] = set.refs[index];
+        }
+        return rows;
+    }
+
+    /**
+     * Helper method to apply a set operation to two tables sorted by their rows, by merging them
+     *
+     * @param table    - Table with the same columns, sorted
+     * @param operator - Set operation to be applied (union ∪, intersection ∩, difference -)
+     * @return New Table with set operation applied, sorted
+     */
+    private Table mergeSetOperation(Table table, char operator) {
+        int[] refs = new int[rowCount + table.rowCount];
+        int size = 0;
+        int row = 0, otherRow = 0;
+        while (row < rowCount || otherRow < table.rowCount) {
+            int compare = row == rowCount ? 1 : otherRow == table.rowCount ? -1 : compareRows(row, table, otherRow);
+            if (compare < 0) {
+                if (operator != '∩') refs[size++] = row;
+                row = nextDistinctRow(row);
+            } else if (compare > 0) {
+                if (operator == '∪') refs[size++] = -otherRow - 1;
+                otherRow = table.nextDistinctRow(otherRow);
+            } else {
+                if (operator != '-') refs[size++] = row;
+                row = nextDistinctRow(row);
+                otherRow = table.nextDistinctRow(otherRow);
+            }
+        }
+        return buildRows(table, refs, size);
+    }
+
+    /**
+     * Helper method to check if the rows are sorted, comparing values column by column
+     *
+     * @return True if every row is less than or equal to the next row, false otherwise
+     */
+    private boolean isSorted() {
+        for (int row = 1; row < rowCount; row++) {
+            if (compareRows(row - 1, this, row) > 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Helper method to check that every column holds values of one type, so the rows can be compared
+     */
+    private boolean hasTypedColumns() {
+        for (Column column : columns) {
+            if (column instanceof ObjectColumn) return false;
+        }
+        return true;
+    }
+
+    private int nextDistinctRow(int row) {
+        int next = row + 1;
+        while (next < rowCount && rowEquals(row, this, next)) next++;
+        return next;
+    }
+
+    /**
+     * Helper method to compare a row with a row of another table with the same columns, column by column
+     *
+     * @param row      - Index of the row in this table
+     * @param table    - Table the other row belongs to
+     * @param otherRow - Index of the row in the other table
+     * @return 0 if the rows are equal, a negative number if this row is smaller, a positive number otherwise
+     */
+    private int compareRows(int row, Table table, int otherRow) {
+        for (int col = 0; col < columns.size(); col++) {
+            int compare = columns.get(col).compareAt(row, table.columns.get(col), otherRow);
+            if (compare != 0) return compare;
+        }
+        return 0;
+    }
+
+    /**
+     * Helper method to create a table with rows of this table and of another table with the same columns
+     *
+     * @param table - Table with the same columns
+     * @param refs  - Array of rows, a row of this table (>= 0) or of the other table (-row - 1)
+     * @param size  - Number of rows in refs
+     * @return New Table with the rows in the order given
+     */
+    private Table buildRows(Table table, int[] refs, int size) {
+        ArrayList<Column.Builder> builders = new ArrayList<>();
+        for (Class<?> type : colType) {
+            builders.add(Column.builder(type, size));
+        }
+        for (int i = 0; i < size; i++) {
+            Table source = refs[i] >= 0 ? this : table;
+            int row = refs[i] >= 0 ? refs[i] : -refs[i] - 1;
+            for (int col = 0; col < builders.size(); col++) {
+                builders.get(col).addFrom(source.columns.get(col), row);
+            }
+        }
+        ArrayList<Column> newColumns = new ArrayList<>();
+        builders.forEach(builder -> newColumns.add(builder.build()));
+        return new Table(new ArrayList<>(colType), new HashMap<>(colIndex), newColumns, size);
+    }
+
+    /**
+     * Helper method to compute the hash code of every row, equal to the hash code of the row as an ArrayList.
+     * The hash codes are combined one column at a time.
+     *
+     * @return Array of the hash codes of the rows
+     */
+    private int[] rowHashes() {
+        int[] hashes = new int[rowCount];
+        Arrays.fill(hashes, 1);
+        for (Column column : columns) {
+            for (int row = 0; row < rowCount; row++) {
+                hashes[row] = 31 * hashes[row] + column.hashAt(row);
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * Hash set of distinct rows from two tables with the same columns, using open addressing.
+     * It is sized for the expected number of rows up front, so it never grows.
+     */
+    private static final class RowSet {
+        private final Table left;
+        private final int[] leftHashes;
+        private final Table right;
+        private final int[] rightHashes;
+        private final int[] slots;  // Insertion index of the row in each slot, -1 if the slot is empty
+        private final int[] refs;  // Rows in insertion order, a row of the left table (>= 0) or of the right table (-row - 1)
+        private final BitSet marked = new BitSet();  // Marks rows by their insertion index
+        private int size;
+
+        private RowSet(Table left, int[] leftHashes, Table right, int[] rightHashes, int expectedRows) {
+            this.left = left;
+            this.leftHashes = leftHashes;
+            this.right = right;
+            this.rightHashes = rightHashes;
+            slots = new int[Integer.highestOneBit(Math.max(expectedRows, 1) * 2 - 1) * 2];  // At most half full
+            Arrays.fill(slots, -1);
+            refs = new int[expectedRows];
+        }
+
+        /**
+         * Adds a row unless an equal row is in the set
+         *
+         * @param ref - Row of the left table (>= 0) or of the right table (-row - 1)
+         * @return True if the row was added
+         */
+        private boolean add(int ref) {
+            int slot = slotOf(ref);
+            if (slots[slot] != -1) return false;
+            slots[slot] = size;
+            refs[size++] = ref;
+            return true;
+        }
+
+        /**
+         * Finds a row equal to a row
+         *
+         * @param ref - Row of the left table (>= 0) or of the right table (-row - 1)
+         * @return Insertion index of the equal row, or -1 if there is none
+         */
+        private int find(int ref) {
+            return slots[slotOf(ref)];
+        }
+
+        /**
+         * Returns the slot of the row equal to a row, or the empty slot where it would be added
+         */
+        private int slotOf(int ref) {
+            int hash = hash(ref);
+            int mask = slots.length - 1;
+            int slot = spreadHash(hash) & mask;
+            while (slots[slot] != -1) {
+                int other = refs[slots[slot]];
+                if (hash(other) == hash && equal(other, ref)) break;
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private int hash(int ref) {
+            return ref >= 0 ? leftHashes[ref] : rightHashes[-ref - 1];
+        }
+
+        private boolean equal(int ref, int otherRef) {
+            Table table = ref >= 0 ? left : right;
+            Table otherTable = otherRef >= 0 ? left : right;
+            return table.rowEquals(ref >= 0 ? ref : -ref - 1, otherTable, otherRef >= 0 ? otherRef : -otherRef - 1);
+        }
+    }
+
+    /**
+     * Helper method to check if a row equals a row of another table with the same columns
+     *
+     * @param row      - Index of the row in this table
+     * @param table    - Table the other row belongs to
+     * @param otherRow - Index of the row in the other table
+     * @return True if all values are equal, otherwise false
+     */
+    private boolean rowEquals(int row, Table table, int otherRow) {
+        for (int col = 0; col < columns.size(); col++) {
+            if (!columns.get(col).equalsAt(row, table.columns.get(col), otherRow)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Helper method to create a table with the specified rows of this table
+     *
+     * @param rows - Array of row indexes, in the order they appear in the new table
+     * @return New Table with the same columns
+     */
+    private Table gatherRows(int[] rows) {
+        ArrayList<Column> newColumns = gatherColumns(columns, rows, -1);
+        return new Table(new ArrayList<>(colType), new HashMap<>(colIndex), newColumns, rows.length);
+    }
+
+    /**
+     * Returns a new table with a range of the rows of this table
+     *
+     * @param from - Index of the first row
+     * @param to   - Index after the last row
+     * @return New Table with the rows from the first row up to, but not including, the last row
+     */
+    public Table slice(int from, int to) {
+        int[] rows = new int[to - from];
+        for (int i = 0; i < rows.length; i++) rows[i] = from + i;
+        return gatherRows(rows);
+    }
+
+    /**
+     * Collects batches of rows with the same columns into one table
+     */
+    public static final class Appender implements BatchConsumer {
+        private final Table schema;
+        private final ArrayList<Column.Builder> builders = new ArrayList<>();
+        private int rowCount;
+
+        /**
+         * Constructor for Appender class
+         *
+         * @param schema - Table with the columns of the batches, its rows are not collected
+         */
+        public Appender(Table schema) {
+            this.schema = schema;
+            for (Class<?> type : schema.colType) builders.add(Column.builder(type, 16));
+        }
+
+        @Override
+        public boolean accept(Table batch) {
+            if (!batch.colIndex.equals(schema.colIndex)) {
+                System.err.println("Error: Batch columns " + batch.getColsByIndex() + " do not match " + schema.getColsByIndex());
+                return false;
+            }
+            for (int col = 0; col < builders.size(); col++) {
+                Column column = batch.columns.get(col);
+                Column.Builder builder = builders.get(col);
+                for (int row = 0; row < batch.rowCount; row++) builder.addFrom(column, row);
+            }
+            rowCount += batch.rowCount;
+            return true;
+        }
+
+        /**
+         * Returns the collected rows
+         *
+         * @return New Table with the rows of all the batches in the order they were received
+         */
+        public Table build() {
+            ArrayList<Column> columns = new ArrayList<>();
+            for (Column.Builder builder : builders) columns.add(builder.build());
+            return new Table(new ArrayList<>(schema.colType), new HashMap<>(schema.colIndex), columns, rowCount);
+        }
+    }
+
+    /**
+     * Returns a new table with the specified join operation applied
+     *
+     * @param table     - Table to be joined
+     * @param condition - String representing the condition to be applied in form "table1.column1=table2.column2"
+     * @return New Table with join operation applied
+     */
+    public Table join(Table table, String condition) {
+        // A self-join reads the same columns on both sides, join() never modifies either table
+        String[] parts = breakCondition(condition);
+        if (parts == null) {
+            System.err.println("Error: Invalid condition: " + condition);
+            return null;
+        }
+        return join(table, parts, null);
+    }
+
+    /**
+     * Helper method to join two tables
+     *
+     * @param table - Table to be joined
+     * @param parts - Array of Strings representing the left operand, operator, and right operand of the condition
+     * @param build - JoinBuild holding the hash table or sorted order of the table to be joined, or null to build them
+     * @return New Table with join operation applied
+     */
+    private Table join(Table table, String[] parts, JoinBuild build) {
+        ArrayList<Class<?>> newColType = new ArrayList<>(this.colType);
+        HashMap<String, Integer> newColIndex = new HashMap<>(this.colIndex);
+        int removedCol = createColumnsWithCondition(table, newColIndex, newColType, parts);  // Update columns and return the index of a duplicate column if it exists
+
+        JoinPairs pairs = new JoinPairs();
+        int leftCol = this.getOperandColumn(parts[0]);
+        int rightCol = table.getOperandColumn(parts[2]);
+        boolean comparableColumns = leftCol != -1 && rightCol != -1 && this.colType.get(leftCol).equals(table.colType.get(rightCol));
+        if (comparableColumns && parts[1].equals("=")) {
+            if (build == null) {
+                hashJoin(table, leftCol, rightCol, pairs);
+            } else {
+                OperatorProfile.recordAlgorithm("hash join, built once");
+                build.probe(rightCol, this.columns.get(leftCol), pairs);
+            }
+        } else if (comparableColumns && !parts[1].equals("!=")) {
+            Column leftColumn = this.columns.get(leftCol);
+            Column rightColumn = table.columns.get(rightCol);
+            // A batch of left rows is joined in row order, only the built table needs sorting
+            OperatorProfile.recordAlgorithm("sorted range join");
+            int[] leftRows = build == null ? sortedRows(leftColumn) : allRows();
+            int[] rightRows = build == null ? sortedRows(rightColumn) : build.sortedRows(rightCol);
+            rangeJoin(leftColumn, leftRows, rightColumn, rightRows, parts[1], pairs);
+        } else {
+            OperatorProfile.recordAlgorithm("nested loop join");
+            nestedLoopJoin(table, parts, pairs);
+        }
+        if (newColIndex.size() != newColType.size()) {
+            System.err.println("Error: Duplicate column names");
+            return null;
+        }
+        return new Table(newColType, newColIndex, mergeColumns(table, pairs, removedCol), pairs.size);
+    }
+
+    /**
+     * Prepares this table to be the right table of a join with many left tables of the same columns, e.g. the
+     * batches of a streamed input. The hash table or sorted order of this table is built once, on the first join.
+     *
+     * @param condition - String representing the condition to be applied in form "table1.column1=table2.column2"
+     * @return JoinBuild joining left tables with this table, or null if the condition is invalid
+     */
+    public JoinBuild buildJoin(String condition) {
+        String[] parts = breakCondition(condition);
+        if (parts == null) {
+            System.err.println("Error: Invalid condition: " + condition);
+            return null;
+        }
+        return new JoinBuild(this, parts);
+    }
+
+    /**
+     * The right table of a join, with the hash table or sorted order built for joining it with many left tables
+     */
+    public static final class JoinBuild {
+        private final Table table;
+        private final String[] parts;
+        private HashIndex hashIndex;
+        private int[] sortedRows;
+
+        private JoinBuild(Table table, String[] parts) {
+            this.table = table;
+            this.parts = parts;
+        }
+
+        /**
+         * Joins a left table with the built table
+         *
+         * @param left - Table to be joined on the left
+         * @return New Table with join operation applied
+         */
+        public Table join(Table left) {
+            return left.join(table, parts, this);
+        }
+
+        private void probe(int col, Column probeColumn, JoinPairs pairs) {
+            ColumnIndex index = table.columns.get(col).getIndex();
+            if (index != null) {
+                probeIndex(index, probeColumn, true, pairs);
+                return;
+            }
+            if (hashIndex == null) hashIndex = new HashIndex(table.columns.get(col));
+            hashIndex.probe(probeColumn, true, pairs);
+        }
+
+        private int[] sortedRows(int col) {
+            if (sortedRows == null) sortedRows = Table.sortedRows(table.columns.get(col));
+            return sortedRows;
+        }
+    }
+
+    /**
+     * Helper method to join two tables on an equality condition using a hash table.
+     * The hash table is built on the smaller table and probed with the larger one. If only one of the join columns
+     * has a ColumnIndex, the index is probed instead, with the other table, and no hash table is built.
+     *
+     * @param table    - Table to be joined
+     * @param leftCol  - Index of the join column in this table
+     * @param rightCol - Index of the join column in the table to be joined
+     * @param pairs    - JoinPairs the matching rows are added to
+     */
+    private void hashJoin(Table table, int leftCol, int rightCol, JoinPairs pairs) {
+        boolean leftIndexed = this.columns.get(leftCol).getIndex() != null;
+        boolean rightIndexed = table.columns.get(rightCol).getIndex() != null;
+        boolean buildLeft = leftIndexed != rightIndexed ? leftIndexed : this.rowCount < table.rowCount;
+        Column buildColumn = buildLeft ? this.columns.get(leftCol) : table.columns.get(rightCol);
+        Column probeColumn = buildLeft ? table.columns.get(rightCol) : this.columns.get(leftCol);
+        // An index of the build column finds the same rows in the same order as a hash table built for the join
+        ColumnIndex index = buildColumn.getIndex();
+        OperatorProfile.recordAlgorithm((index != null ? "index join" : "hash join") + ", build " + (buildLeft ? "left" : "right"));
+        if (index != null) probeIndex(index, probeColumn, !buildLeft, pairs);
+        else new HashIndex(buildColumn).probe(probeColumn, !buildLeft, pairs);
+    }
+
+    /**
+     * Looks up every row of a column in the index of the build column, adding the matching pairs of rows
+     *
+     * @param index       - ColumnIndex of the build column
+     * @param probeColumn - Column whose values are looked up
+     * @param probeLeft   - True if the probe column belongs to the left table of the join
+     * @param pairs       - JoinPairs the matching rows are added to
+     */
+    private static void probeIndex(ColumnIndex index, Column probeColumn, boolean probeLeft, JoinPairs pairs) {
+        List<JoinPairs> chunkPairs = ParallelExecution.mapChunks(probeColumn.size(), (from, to) -> {
+            JoinPairs matches = new JoinPairs();
+            for (int probeRow = from; probeRow < to; probeRow++) {
+                int position = index.find(probeColumn, probeRow);
+                if (position == -1) continue;
+                // The rows of a value are contiguous in the sorted rows and in row order
+                for (; position < index.size() && index.equalsAt(position, probeColumn, probeRow); position++) {
+                    if (probeLeft) matches.add(probeRow, index.rowAt(position));
+                    else matches.add(index.rowAt(position), probeRow);
+                }
+            }
+            return matches;
+        });
+        pairs.addAll(chunkPairs);
+    }
+
+    /**
+     * Returns the rows of a column sorted by value, from its index if it has one
+     */
+    private static int[] sortedRows(Column column) {
+        ColumnIndex index = column.getIndex();
+        return index != null ? index.sortedRows() : column.sortedRows();
+    }
+
+    /**
+     * Hash table over the rows of a column, chaining the rows by the hash of their value
+     */
+    private static final class HashIndex {
+        private final Column column;
+        private final int[] head;  // First row of each bucket, -1 if the bucket is empty
+        private final int[] next;  // Next row in the same bucket, -1 at the end of the chain
+
+        private HashIndex(Column column) {
+            this.column = column;
+            int rows = column.size();
+            head = new int[Integer.highestOneBit(Math.max(rows, 1) * 2 - 1) * 2];
+            next = new int[rows];
+            Arrays.fill(head, -1);
+            for (int row = rows - 1; row >= 0; row--) {  // Inserting backwards keeps each chain in row order
+                int bucket = spreadHash(column.hashAt(row)) & (head.length - 1);
+                next[row] = head[bucket];
+                head[bucket] = row;
+            }
+        }
+
+        /**
+         * Looks up every row of a column, adding the matching pairs of rows
+         *
+         * @param probeColumn - Column whose values are looked up
+         * @param probeLeft   - True if the probe column belongs to the left table of the join
+         * @param pairs       - JoinPairs the matching rows are added to
+         */
+        private void probe(Column probeColumn, boolean probeLeft, JoinPairs pairs) {
+            // The hash table is only read, so in parallel mode chunks of probe rows are looked up on their own threads
+            List<JoinPairs> chunkPairs = ParallelExecution.mapChunks(probeColumn.size(), (from, to) -> {
+                JoinPairs matches = new JoinPairs();
+                for (int probeRow = from; probeRow < to; probeRow++) {
+                    int bucket = spreadHash(probeColumn.hashAt(probeRow)) & (head.length - 1);
+                    for (int buildRow = head[bucket]; buildRow != -1; buildRow = next[buildRow]) {
+                        if (column.equalsAt(buildRow, probeColumn, probeRow)) {
+                            if (probeLeft) matches.add(probeRow, buildRow);
+                            else matches.add(buildRow, probeRow);
+                        }
+                    }
+                }
+                return matches;
+            });
+            pairs.addAll(chunkPairs);
+        }
+    }
+
+    private static int spreadHash(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Helper method to join two tables on an inequality condition (&lt;, &lt;=, &gt;, &gt;=).
+     * The right rows are sorted on their condition column, then for each left row the matching slice
+     * of right rows is found by binary search, so only matching pairs are visited.
+     *
+     * @param leftColumn  - Condition column of this table
+     * @param leftRows    - Array of the left row indexes in the order they are joined
+     * @param rightColumn - Condition column of the table to be joined
+     * @param rightRows   - Array of the right row indexes sorted by their value in the right column
+     * @param op          - String representing the operator, one of &lt;, &lt;=, &gt;, &gt;=
+     * @param pairs       - JoinPairs the matching rows are added to
+     */
+    private void rangeJoin(Column leftColumn, int[] leftRows, Column rightColumn, int[] rightRows, String op, JoinPairs pairs) {
+        if (!List.of("<", "<=", ">", ">=").contains(op)) throw new IllegalArgumentException("Unsupported operator: " + op);
+        // Each chunk of left rows searches the sorted right rows on its own thread in parallel mode
+        List<JoinPairs> chunkPairs = ParallelExecution.mapChunks(leftRows.length, (start, end) -> {
+            JoinPairs matches = new JoinPairs();
+            for (int position = start; position < end; position++) {
+                int leftRow = leftRows[position];
+                // Find the slice [from, to) of right rows satisfying "left value op right value"
+                int from = 0, to = rightRows.length;
+                switch (op) {
+                    case "<" -> from = searchBound(rightColumn, rightRows, leftColumn, leftRow, false);
+                    case "<=" -> from = searchBound(rightColumn, rightRows, leftColumn, leftRow, true);
+                    case ">" -> to = searchBound(rightColumn, rightRows, leftColumn, leftRow, true);
+                    default -> to = searchBound(rightColumn, rightRows, leftColumn, leftRow, false);
+                }
+                for (int i = from; i < to; i++) {
+                    matches.add(leftRow, rightRows[i]);
+                }
+            }
+            return matches;
+        });
+        pairs.addAll(chunkPairs);
+    }
+
+    private int[] allRows() {
+        int[] rows = new int[rowCount];
+        for (int row = 0; row < rowCount; row++) rows[row] = row;
+        return rows;
+    }
+
+    /**
+     * Helper method to binary search rows sorted on a column
+     *
+     * @param column    - Column the rows are sorted on
+     * @param rows      - Array of row indexes sorted by their value in the column
+     * @param other     - Column holding the value to search for
+     * @param otherRow  - Index of the row holding the value to search for
+     * @param inclusive - If true, find the first row whose value is &gt;= value, otherwise the first row whose value is &gt; value
+     * @return Position in rows of the first row past the bound, or the number of rows if there is none
+     */
+    private int searchBound(Column column, int[] rows, Column other, int otherRow, boolean inclusive) {
+        int low = 0, high = rows.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int compare = column.compareAt(rows[mid], other, otherRow);
+            if (compare < 0 || (!inclusive && compare == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Helper method to join two tables by evaluating the condition for every pair of rows
+     *
+     * @param table - Table to be joined
+     * @param parts - Array of Strings representing the left operand, operator, and right operand of the condition
+     * @param pairs - JoinPairs the matching rows are added to
+     */
+    private void nestedLoopJoin(Table table, String[] parts, JoinPairs pairs) {
+        List<JoinPairs> chunkPairs = ParallelExecution.mapChunks(this.rowCount, (from, to) -> {
+            JoinPairs matches = new JoinPairs();
+            for (int row1 = from; row1 < to; row1++) {
+                for (int row2 = 0; row2 < table.rowCount; row2++) {
+                    if (evaluateCondition(row1, table, row2, parts)) {
+                        matches.add(row1, row2);
+                    }
+                }
+            }
+            return matches;
+        });
+        pairs.addAll(chunkPairs);
+    }
+
+    /**
+     * Helper method to create/fix columns for the join operation
+     *
+     * @param table       - Table to be joined
+     * @param newColIndex - HashMap of column names and their index
+     * @param newColType  - ArrayList of column types
+     * @param parts       - Array of Strings representing the left operand, operator, and right operand of the condition
+     * @return Index of a removed column if it exists, otherwise -1
+     */
+    private int createColumnsWithCondition(Table table, HashMap<String, Integer> newColIndex, ArrayList<Class<?>> newColType, String[] parts) {
+        int i = this.colIndex.size();
+        newColType.addAll(table.colType);
+        String[] newColName = new String[2];  // Stores the new column names
+        String[] conditionParts = new String[2];
+        int removedColIndex = -1;  // Index of a removed column if it exists, otherwise -1
+
+        // Store the column name without the table names
+        conditionParts[0] = parts[0].contains(".") ? parts[0].substring(parts[0].indexOf(".") + 1) : parts[0];
+        conditionParts[1] = parts[2].contains(".") ? parts[2].substring(parts[2].indexOf(".") + 1) : parts[2];
+        newColName[0] = conditionParts[0];
+        newColName[1] = conditionParts[1];
+
+        if (conditionParts[0].equals(conditionParts[1])) {  // Duplicate column names
+            if (parts[1].equals("=")) {  // Duplicate column must be removed
+                if (!this.colIndex.containsKey(conditionParts[0])) {
+                    System.err.println("Error: Column in condition does not exist in the table");
+                    return -1;
+                }
+                newColName[1] = null;
+            } else {  // Change the name of the duplicate columns
+                newColName[0] = parts[0];
+                newColName[1] = parts[2];
+                if (parts[0].equals(parts[2])) {  // table.column format was used
+                    newColName[0] += "_1";
+                    newColName[1] += "_2";
+                }
+            }
+        }
+
+        // if the column name of the left table is changed, update the new table
+        if (!newColIndex.containsKey(newColName[0])) {
+            int index = newColIndex.remove(conditionParts[0]);
+            newColIndex.put(newColName[0], index);
+        }
+
+        // Add columns from the right table
+        for (String colName : table.getColsByIndex()) {
+            if (newColName[1] != null && colName.equals(conditionParts[1]) && !(colName.equals(newColName[1]))) {  // case where column names are changed
+                newColIndex.put(newColName[1], i++);
+            } else if (!newColIndex.containsKey(colName)) {  // case where column names are not changed
+                newColIndex.put(colName, i++);
+            } else {  // case where duplicate column was removed
+                removedColIndex = table.colIndex.get(colName);
+                newColType.remove(this.colType.size() + removedColIndex);
+            }
+        }
+
+        return removedColIndex;
+    }
+
+    /**
+     * Helper method to merge columns for the join operation
+     *
+     * @param table          - Table that was joined
+     * @param pairs          - JoinPairs of matching rows from this table and the joined table
+     * @param duplicateIndex - Index of a removed column if it exists, otherwise -1
+     * @return ArrayList of columns for the new table
+     */
+    private ArrayList<Column> mergeColumns(Table table, JoinPairs pairs, int duplicateIndex) {
+        int[] leftRows = Arrays.copyOf(pairs.left, pairs.size);
+        int[] rightRows = Arrays.copyOf(pairs.right, pairs.size);
+        ArrayList<Column> newColumns = gatherColumns(this.columns, leftRows, -1);
+        newColumns.addAll(gatherColumns(table.columns, rightRows, duplicateIndex));
+        return newColumns;
+    }
+
+    /**
+     * Helper method to gather the values at the specified rows of each column, one column per task in parallel mode
+     *
+     * @param columns - ArrayList of columns
+     * @param rows    - Array of row indexes
+     * @param skip    - Index of a column to leave out, or -1
+     * @return ArrayList of the gathered columns
+     */
+    private static ArrayList<Column> gatherColumns(ArrayList<Column> columns, int[] rows, int skip) {
+        Column[] gathered = new Column[columns.size()];
+        ArrayList<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            int col = i;
+            if (col != skip) tasks.add(() -> gathered[col] = columns.get(col).gather(rows));
+        }
+        ParallelExecution.runAll(tasks, rows.length);
+        ArrayList<Column> newColumns = new ArrayList<>(columns.size());
+        for (Column column : gathered) {
+            if (column != null) newColumns.add(column);
+        }
+        return newColumns;
+    }
+
+    /**
+     * Row indexes of the matching rows of a join, from the left and the right table
+     */
+    private static final class JoinPairs {
+        private int[] left = new int[16];
+        private int[] right = new int[16];
+        private int size;
+
+        private void add(int leftRow, int rightRow) {
+            if (size == left.length) {
+                left = Arrays.copyOf(left, size * 2);
+                right = Arrays.copyOf(right, size * 2);
+            }
+            left[size] = leftRow;
+            right[size++] = rightRow;
+        }
+
+        private void addAll(List<JoinPairs> chunks) {
+            for (JoinPairs chunk : chunks) {
+                if (size + chunk.size > left.length) {
+                    left = Arrays.copyOf(left, Math.max(size + chunk.size, size * 2));
+                    right = Arrays.copyOf(right, left.length);
+                }
+                System.arraycopy(chunk.left, 0, left, size, chunk.size);
+                System.arraycopy(chunk.right, 0, right, size, chunk.size);
+                size += chunk.size;
+            }
+        }
+    }
+
+    /**
+     * Returns an ArrayList of column names sorted by their index
+     *
+     * @return ArrayList of column names
+     */
+    private ArrayList<String> getColsByIndex() {
+        ArrayList<String> cols = new ArrayList<>();
+        colIndex.entrySet().stream().sorted(HashMap.Entry.comparingByValue()).forEach(entry -> cols.add(entry.getKey()));
+        return cols;
+    }
+
+    /**
+     * Helper method to break the condition into its parts
+     *
+     * @param condition - String representing the condition to be applied
+     * @return Array of Strings length 3 representing the left operand, operator, and right operand
+     */
+    private String[] breakCondition(String condition) {
+        String[] parts = new String[3];
+        String op = null;
+        for (String operator : OPERATORS) {
+            if (condition.contains(operator)) {
+                op = operator;
+                break;
+            }
+        }
+        if (op == null) {
+            System.err.println("Invalid condition: " + condition);
+            return null;
+        }
+
+        parts[0] = condition.substring(0, condition.indexOf(op)).trim();
+        parts[1] = op;
+        parts[2] = condition.substring(condition.indexOf(op) + op.length()).trim();
+
+        return parts;
+    }
+
+    /**
+     * Helper method to evaluate the selection condition for two given rows
+     *
+     * @param row1  - Index of the row in the left table
+     * @param table - Table to be used in the join operation
+     * @param row2  - Index of the row in the right table
+     * @param parts - Array of Strings representing the left operand, operator, and right operand of the condition
+     * @return True if the condition is satisfied, otherwise false
+     */
+    private boolean evaluateCondition(int row1, Table table, int row2, String[] parts) {
+        if (parts == null) {
+            return false;
+        }
+        String op = parts[1];
+        // Remove the table name from the column names if it exists
+        Object leftValue = getOperandObj(parts[0].trim(), this, row1);
+        Object rightValue = getOperandObj(parts[2].trim(), table, row2);
+
+        return evaluateCondition(leftValue, rightValue, op);
+    }
+
+    /**
+     * Helper method to evaluate the selection condition for two given values
+     *
+     * @param leftValue  - Object representing the left value
+     * @param rightValue - Object representing the right value
+     * @param op         - String representing the operator
+     * @return True if the condition is satisfied, otherwise false
+     */
+    private boolean evaluateCondition(Object leftValue, Object rightValue, String op) {
+        return matchesComparison(compareValues(leftValue, rightValue), op);
+    }
+
+    /**
+     * Helper method to check if the result of a comparison satisfies an operator
+     *
+     * @param compareValues - Result of comparing the left value to the right value
+     * @param op            - String representing the operator
+     * @return True if the condition is satisfied, otherwise false
+     */
+    static boolean matchesComparison(int compareValues, String op) {
+        return switch (op) {
+            case "<=" -> compareValues <= 0;
+            case ">=" -> compareValues >= 0;
+            case "<" -> compareValues < 0;
+            case ">" -> compareValues > 0;
+            case "!=" -> compareValues != 0;
+            case "=" -> compareValues == 0;
+            default -> {
+                System.out.println("Unsupported operator: " + op);
+                yield false;
+            }
+        };
+    }
+
+    /**
+     * Helper method to evaluate the value of an operand
+     *
+     * @param operand - String representing the operand
+     * @param table   - Table to be used in the join operation
+     * @param row     - Index of the row in the table
+     * @return Object representing the value of the operand
+     */
+    private Object getOperandObj(String operand, Table table, int row) {
+        Object constant = parseConstant(operand);
+        if (constant != null) {
+            return constant;
+        } else {
+            // o.w. Operand is a column name
+            String tempOperand = operand.substring(operand.indexOf(".") + 1);
+            if (!table.colIndex.containsKey(operand) && !table.colIndex.containsKey(tempOperand)) {
+                System.err.println("Column '" + operand + "' does not exist in the table");
+                return null;
+            }
+            return table.columns.get(table.colIndex.getOrDefault(operand, table.colIndex.get(tempOperand))).get(row);  // Return the value of the column in the row
+        }
+    }
+
+    /**
+     * Helper method to parse an operand that is a constant
+     *
+     * @param operand - String representing the operand
+     * @return Object representing the value of the constant (String, Boolean, Integer or Double), or null if the operand is not a constant
+     */
+    static Object parseConstant(String operand) {
+        if (isString(operand)) {  // Operand is a string
+            return operand.substring(1, operand.length() - 1);
+        } else if (operand.equalsIgnoreCase("true") || operand.equalsIgnoreCase("false")) {  // Operand is a boolean
+            return Boolean.parseBoolean(operand);
+        }
+        try {  // Operand is an integer
+            return Integer.parseInt(operand);
+        } catch (Exception ignored) {
+        }
+        try {  // Operand is a double
+            return Double.parseDouble(operand);
+        } catch (Exception ignored) {
+        }
+        return null;
+    }
+
+    /**
+     * Helper method to find the column an operand refers to, without evaluating it for a row
+     *
+     * @param operand - String representing the operand, a column name with or without its table name
+     * @return Index of the column in the table, or -1 if the operand is a constant or not a column of the table
+     */
+    int getOperandColumn(String operand) {
+        operand = operand.trim();
+        if (parseConstant(operand) != null) {
+            return -1;
+        }
+        String tempOperand = operand.substring(operand.indexOf(".") + 1);
+        return colIndex.getOrDefault(operand, colIndex.getOrDefault(tempOperand, -1));
+    }
+
+    /**
+     * Helper method to find the name of the column an operand refers to
+     *
+     * @param operand - String representing the operand, a column name with or without its table name
+     * @return Name of the column in the table, or null if the operand is a constant or not a column of the table
+     */
+    String getOperandColumnName(String operand) {
+        int index = getOperandColumn(operand);
+        return index == -1 ? null : getColsByIndex().get(index);
+    }
+
+    /**
+     * Returns the statistics of the table, computing them the first time.
+     *
+     * @return TableStatistics of the table.
+     */
+    public TableStatistics getStatistics() {
+        if (statistics == null) statistics = TableStatistics.compute(this);
+        return statistics;
+    }
+
+    /**
+     * Checks if the statistics of the table have been computed, so they can be used without scanning the table.
+     *
+     * @return True if getStatistics() has been called, otherwise false.
+     */
+    public boolean hasStatistics() {
+        return statistics != null;
+    }
+
+    /**
+     * Sets statistics that were computed before, e.g. stored with the table in a file, so they are not computed again.
+     *
+     * @param statistics - TableStatistics of the table.
+     */
+    void setStatistics(TableStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Returns a table with the same columns in a different order. Columns are immutable, so they are shared, not copied.
+     *
+     * @param colNames - List of all the column names in the new order
+     * @return New Table with the columns in the given order, or null if the names are not the columns of the table
+     */
+    public Table orderColumns(List<String> colNames) {
+        if (colNames.size() != colIndex.size() || !colIndex.keySet().containsAll(colNames)) {
+            System.err.println("Error: Columns " + colNames + " are not the columns of the table");
+            return null;
+        }
+        ArrayList<Class<?>> newColType = new ArrayList<>();
+        HashMap<String, Integer> newColIndex = new HashMap<>();
+        ArrayList<Column> newColumns = new ArrayList<>();
+        for (String colName : colNames) {
+            newColIndex.put(colName, newColumns.size());
+            newColType.add(colType.get(colIndex.get(colName)));
+            newColumns.add(columns.get(colIndex.get(colName)));
+        }
+        return new Table(newColType, newColIndex, newColumns, rowCount);
+    }
+
+    /**
+     * Returns the column names ordered by their index.
+     *
+     * @return List of column names.
+     */
+    public List<String> getColumnOrder() {
+        return getColsByIndex();
+    }
+
+    /**
+     * Returns an empty table with the same columns as this table.
+     *
+     * @return New Table without rows.
+     */
+    public Table emptyCopy() {
+        return gatherRows(new int[0]);
+    }
+
+    /**
+     * Returns a column of the table.
+     *
+     * @param index The index of the column.
+     * @return The Column at the index.
+     */
+    public Column getColumn(int index) {
+        return columns.get(index);
+    }
+
+    /**
+     * Returns the type of a column of the table.
+     *
+     * @param index The index of the column.
+     * @return Class of the values in the column.
+     */
+    public Class<?> getColumnType(int index) {
+        return colType.get(index);
+    }
+
+    /**
+     * Creates a secondary index of a column, used by selections comparing it with a constant and joins on it
+     *
+     * @param column - String representing the column name, with or without the table name
+     * @return True if the index was created or already existed, false if the table has no such column
+     */
+    public boolean createIndex(String column) {
+        int index = getOperandColumn(column);
+        if (index == -1) {
+            System.err.println("Error: Invalid column: " + column);
+            return false;
+        }
+        columns.get(index).createIndex();
+        return true;
+    }
+
+    /**
+     * Helper method to check if the column types of two tables are the same
+     *
+     * @param table - Table to be compared
+     * @return True if the column types are the same, otherwise false
+     */
+    private boolean differentColumns(Table table) {
+        return !this.colType.equals(table.colType) || !this.colIndex.equals(table.colIndex);
+    }
+
+    private static boolean isString(String input) {
+        return input.startsWith("'") && input.endsWith("'");
+    }
+
+    /**
+     * Helper method to compare two values
+     *
+     * @param leftValue  - Object representing the left value
+     * @param rightValue - Object representing the right value
+     * @return 0 if the values are equal, -1 if the left value is less than the right value, 1 if the left value is greater than the right value
+     */
+    static int compareValues(Object leftValue, Object rightValue) {
+        if (leftValue instanceof Comparable && rightValue instanceof Comparable) {
+            @SuppressWarnings("unchecked") Comparable<Object> leftComparable = (Comparable<Object>) leftValue;
+            return leftComparable.compareTo(rightValue);
+        }
+        throw new IllegalArgumentException("Cannot compare non-comparable values");
+    }
+
+    /**
+     * Prints the table aligned by column
+     */
+    public void printTable() {
+        printTable(System.out);
+    }
+
+    /**
+     * Prints the table aligned by column to a stream
+     *
+     * @param out - PrintStream the table is printed to
+     */
+    public void printTable(PrintStream out) {
+        // Calculate column widths based on the largest element and column name in each column
+        int[] colWidths = new int[colIndex.size()];
+
+        // Consider column names
+        for (String columnName : colIndex.keySet()) {
+            int columnIndex = colIndex.get(columnName);
+            colWidths[columnIndex] = Math.max(colWidths[columnIndex], columnName.length());
+        }
+
+        // Consider data elements
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            for (int row = 0; row < rowCount; row++) {
+                Object value = column.get(row);
+                int currentWidth = String.valueOf(value).length();
+                if (value instanceof String) currentWidth += 2;  // Account for quotes
+                colWidths[i] = Math.max(colWidths[i], currentWidth);
+            }
+        }
+
+        // Print top border
+        printBorder(out, colWidths);
+
+        // Print header
+        for (String columnName : this.getColsByIndex()) {
+            out.printf("| %-" + colWidths[colIndex.get(columnName)] + "s ", columnName);
+        }
+        out.println("|");
+
+        // Print middle border
+        printBorder(out, colWidths);
+
+        // Print rows
+        for (int row = 0; row < rowCount; row++) {
+            for (int i = 0; i < columns.size(); i++) {
+                Object value = columns.get(i).get(row);
+                if (value instanceof String) value = "'" + value + "'";  // Add quotes to strings
+                out.printf("| %-" + colWidths[i] + "s ", value);
+            }
+            out.println("|");
+        }
+
+        // Print bottom border
+        printBorder(out, colWidths);
+    }
+
+    /**
+     * Returns table as string in relation format
+     *
+     * @return String representation of table
+     */
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        for (String columnName : this.getColsByIndex()) {
+            sb.append(columnName).append(", ");
+        }
+        sb.delete(sb.length() - 2, sb.length());
+        sb.append("\n");
+        for (int row = 0; row < rowCount; row++) {
+            for (Column column : columns) {
+                sb.append(column.get(row)).append(", ");
+            }
+            sb.delete(sb.length() - 2, sb.length());
+            sb.append("\n");
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    private void printBorder(PrintStream out, int[] colWidths) {
+        for (int width : colWidths) {
+            out.print("+" + "-".repeat(width + 2));  // 2 accounts for padding and border
+        }
+        out.println("+");
+    }
+
+}
@@ -0,0 +1,396 @@
+package norelations;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Binary columnar file format for tables, so saved tables are reloaded without parsing text and keep their types.
+ * A file holds a header with the column names and types, the values of each column, and a footer with the statistics
+ * of each column (number of distinct values, min and max), so they are not computed again when the table is loaded.
+ * Each column is compressed: ints and the dictionary codes of strings are run-length encoded or bit-packed relative
+ * to their minimum, whichever is smaller, strings are stored as a sorted dictionary, booleans as a bitmap, and doubles
+ * are run-length encoded or stored plain. Columns of mixed values store each value with a type tag.
+ */
+public final class TableFile {
+    static final String EXTENSION = ".tbl";
+    private static final int MAGIC = 0x52544246;
+    private static final int VERSION = 1;
+    // Tags of the column types and of the values of mixed columns and statistics
+    private static final byte INT = 'I', DOUBLE = 'D', BOOLEAN = 'B', STRING = 'S', MIXED = 'M', NULL = 'N';
+    // Encodings of the values of a column
+    private static final byte PLAIN = 0, RUN_LENGTH = 1, BIT_PACKED = 2, DICTIONARY = 3, BITMAP = 4, TAGGED = 5;
+
+    private TableFile() {
+    }
+
+    /**
+     * Writes a table to a file
+     *
+     * @param table - Table to write
+     * @param path  - String representing the path of the file
+     * @return True if the table was written, false otherwise
+     */
+    public static boolean write(Table table, String path) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(Paths.get(path)), 1 << 16))) {
+            write(table, out);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {  // Including InvalidPathException
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reads a table from a file written by write()
+     *
+     * @param path - String representing the path of the file
+     * @return New Table with its statistics, or null if the file cannot be read or is not a valid table file
+     */
+    public static Table read(String path) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(path)), 1 << 16))) {
+            return read(in);
+        } catch (EOFException e) {
+            System.out.println("Error: Truncated table file " + path);
+            return null;
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("Error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void write(Table table, DataOutputStream out) throws IOException {
+        List<String> names = table.getColumnOrder();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(names.size());
+        out.writeInt(table.getRowCount());
+        for (int col = 0; col < names.size(); col++) {
+            writeString(out, names.get(col));
+            out.writeByte(typeTag(table.getColumnType(col)));
+        }
+        for (int col = 0; col < names.size(); col++) {
+            writeColumn(out, table.getColumn(col));
+        }
+        TableStatistics statistics = table.getStatistics();
+        for (String name : names) {
+            TableStatistics.ColumnStatistics column = statistics.getColumn(name);
+            out.writeInt(column.distinctCount());
+            writeValue(out, column.min());
+            writeValue(out, column.max());
+        }
+        out.writeInt(MAGIC);  // Marks a complete file
+    }
+
+    private static Table read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not a table file");
+        int version = in.readInt();
+        if (version != VERSION) throw new IOException("Unsupported table file version " + version);
+        int colCount = in.readInt();
+        int rowCount = in.readInt();
+        ArrayList<String> names = new ArrayList<>();
+        ArrayList<Class<?>> colType = new ArrayList<>();
+        HashMap<String, Integer> colIndex = new HashMap<>();
+        for (int col = 0; col < colCount; col++) {
+            String name = readString(in);
+            if (colIndex.putIfAbsent(name, col) != null) throw new IOException("Duplicate column name '" + name + "'");
+            names.add(name);
+            colType.add(typeOf(in.readByte()));
+        }
+        ArrayList<Column> columns = new ArrayList<>();
+        for (int col = 0; col < colCount; col++) {
+            columns.add(readColumn(in, rowCount));
+        }
+        HashMap<String, TableStatistics.ColumnStatistics> statistics = new HashMap<>();
+        for (String name : names) {
+            statistics.put(name, new TableStatistics.ColumnStatistics(in.readInt(), readValue(in), readValue(in)));
+        }
+        if (in.readInt() != MAGIC) throw new IOException("Invalid table file footer");
+
+        Table table = new Table(colType, colIndex, columns, rowCount);
+        table.setStatistics(new TableStatistics(rowCount, statistics));
+        return table;
+    }
+
+    private static byte typeTag(Class<?> type) {
+        if (type == Integer.class) return INT;
+        if (type == Double.class) return DOUBLE;
+        if (type == Boolean.class) return BOOLEAN;
+        if (type == String.class) return STRING;
+        throw new IllegalArgumentException("Cannot store a column of type " + type.getSimpleName());
+    }
+
+    private static Class<?> typeOf(byte tag) throws IOException {
+        return switch (tag) {
+            case INT -> Integer.class;
+            case DOUBLE -> Double.class;
+            case BOOLEAN -> Boolean.class;
+            case STRING -> String.class;
+            default -> throw new IOException("Unknown column type " + tag);
+        };
+    }
+
+    /**
+     * Writes the values of a column: the kind of column, its encoding, then the encoded values
+     */
+    private static void writeColumn(DataOutputStream out, Column column) throws IOException {
+        switch (column) {
+            case Column.IntValues ints -> {
+                out.writeByte(INT);
+                int[] values = new int[column.size()];
+                for (int row = 0; row < values.length; row++) values[row] = ints.getInt(row);
+                writeInts(out, values);
+            }
+            case Column.DoubleValues doubles -> {
+                out.writeByte(DOUBLE);
+                writeDoubles(out, doubles, column.size());
+            }
+            case Column.BooleanValues booleans -> {
+                out.writeByte(BOOLEAN);
+                out.writeByte(BITMAP);
+                BitSet bits = new BitSet(column.size());
+                for (int row = 0; row < column.size(); row++) {
+                    if (booleans.getBoolean(row)) bits.set(row);
+                }
+                long[] words = bits.toLongArray();
+                out.writeInt(words.length);
+                for (long word : words) out.writeLong(word);
+            }
+            case Column.StringCodes strings -> {
+                out.writeByte(STRING);
+                out.writeByte(DICTIONARY);
+                String[] dictionary = strings.getDictionary();
+                out.writeInt(dictionary.length);
+                for (String word : dictionary) writeString(out, word);
+                int[] codes = new int[column.size()];
+                for (int row = 0; row < codes.length; row++) codes[row] = strings.getCode(row);
+                writeInts(out, codes);
+            }
+            default -> {
+                out.writeByte(MIXED);
+                out.writeByte(TAGGED);
+                for (int row = 0; row < column.size(); row++) writeValue(out, column.get(row));
+            }
+        }
+    }
+
+    private static Column readColumn(DataInputStream in, int rowCount) throws IOException {
+        byte kind = in.readByte();
+        return switch (kind) {
+            case INT -> new IntColumn(readInts(in, rowCount));
+            case DOUBLE -> new DoubleColumn(readDoubles(in, rowCount));
+            case BOOLEAN -> {
+                expectEncoding(in, BITMAP);
+                long[] words = new long[in.readInt()];
+                for (int i = 0; i < words.length; i++) words[i] = in.readLong();
+                yield new BooleanColumn(BitSet.valueOf(words), rowCount);
+            }
+            case STRING -> {
+                expectEncoding(in, DICTIONARY);
+                String[] dictionary = new String[in.readInt()];
+                for (int i = 0; i < dictionary.length; i++) dictionary[i] = readString(in);
+                int[] codes = readInts(in, rowCount);
+                for (int code : codes) {
+                    if (code < 0 || code >= dictionary.length) throw new IOException("Invalid dictionary code " + code);
+                }
+                yield new StringColumn(codes, dictionary);
+            }
+            case MIXED -> {
+                expectEncoding(in, TAGGED);
+                Object[] values = new Object[rowCount];
+                for (int row = 0; row < rowCount; row++) values[row] = readValue(in);
+                yield new ObjectColumn(values);
+            }
+            default -> throw new IOException("Unknown column kind " + kind);
+        };
+    }
+
+    private static void expectEncoding(DataInputStream in, byte encoding) throws IOException {
+        byte found = in.readByte();
+        if (found != encoding) throw new IOException("Unknown column encoding " + found);
+    }
+
+    /**
+     * Writes ints run-length encoded if they have few runs, otherwise bit-packed as their difference to the minimum,
+     * using as many bits per value as the difference between the minimum and the maximum needs
+     */
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE, runs = 0;
+        for (int i = 0; i < values.length; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+            if (i == 0 || values[i] != values[i - 1]) runs++;
+        }
+        int width = values.length == 0 ? 0 : 64 - Long.numberOfLeadingZeros((long) max - min);
+        long packedBytes = ((long) values.length * width + 63) / 64 * 8;
+        if (runs * 8L <= packedBytes) {
+            out.writeByte(RUN_LENGTH);
+            out.writeInt(runs);
+            for (int i = 0; i < values.length; ) {
+                int start = i;
+                while (i < values.length && values[i] == values[start]) i++;
+                out.writeInt(values[start]);
+                out.writeInt(i - start);
+            }
+            return;
+        }
+        out.writeByte(BIT_PACKED);
+        out.writeInt(min);
+        out.writeByte(width);
+        long word = 0;
+        int bits = 0;  // Number of bits used in word
+        for (int value : values) {
+            long delta = (long) value - min;
+            word |= delta << bits;
+            if (bits + width >= 64) {
+                out.writeLong(word);
+                word = delta >>> (64 - bits);  // The bits of the value that did not fit
+                bits += width - 64;
+            } else {
+                bits += width;
+            }
+        }
+        if (bits > 0) out.writeLong(word);
+    }
+
+    private static int[] readInts(DataInputStream in, int count) throws IOException {
+        int[] values = new int[count];
+        byte encoding = in.readByte();
+        if (encoding == RUN_LENGTH) {
+            int runs = in.readInt();
+            int pos = 0;
+            for (int run = 0; run < runs; run++) {
+                int value = in.readInt(), length = in.readInt();
+                if (length < 0 || length > count - pos) throw new IOException("Invalid run length " + length);
+                Arrays.fill(values, pos, pos + length, value);
+                pos += length;
+            }
+            if (pos != count) throw new IOException("Column has " + pos + " values instead of " + count);
+        } else if (encoding == BIT_PACKED) {
+            int min = in.readInt();
+            int width = in.readUnsignedByte();
+            if (width > 32) throw new IOException("Invalid bit width " + width);
+            long mask = (1L << width) - 1;
+            long word = 0;
+            int bits = 0;  // Number of unread bits in word
+            for (int i = 0; i < count; i++) {
+                long delta;
+                if (bits >= width) {
+                    delta = word & mask;
+                    word >>>= width;
+                    bits -= width;
+                } else {
+                    long next = in.readLong();
+                    delta = (word | next << bits) & mask;
+                    word = next >>> (width - bits);
+                    bits += 64 - width;
+                }
+                values[i] = (int) (min + delta);
+            }
+        } else {
+            throw new IOException("Unknown column encoding " + encoding);
+        }
+        return values;
+    }
+
+    /**
+     * Writes doubles run-length encoded if that is smaller, otherwise plain
+     */
+    private static void writeDoubles(DataOutputStream out, Column.DoubleValues column, int size) throws IOException {
+        int runs = 0;
+        for (int row = 0; row < size; row++) {
+            if (row == 0 || Double.compare(column.getDouble(row), column.getDouble(row - 1)) != 0) runs++;
+        }
+        if (runs * 12L <= size * 8L) {
+            out.writeByte(RUN_LENGTH);
+            out.writeInt(runs);
+            for (int row = 0; row < size; ) {
+                int start = row;
+                while (row < size && Double.compare(column.getDouble(row), column.getDouble(start)) == 0) row++;
+                out.writeDouble(column.getDouble(start));
+                out.writeInt(row - start);
+            }
+            return;
+        }
+        out.writeByte(PLAIN);
+        for (int row = 0; row < size; row++) out.writeDouble(column.getDouble(row));
+    }
+
+    private static double[] readDoubles(DataInputStream in, int count) throws IOException {
+        double[] values = new double[count];
+        byte encoding = in.readByte();
+        if (encoding == RUN_LENGTH) {
+            int runs = in.readInt();
+            int pos = 0;
+            for (int run = 0; run < runs; run++) {
+                double value = in.readDouble();
+                int length = in.readInt();
+                if (length < 0 || length > count - pos) throw new IOException("Invalid run length " + length);
+                Arrays.fill(values, pos, pos + length, value);
+                pos += length;
+            }
+            if (pos != count) throw new IOException("Column has " + pos + " values instead of " + count);
+        } else if (encoding == PLAIN) {
+            for (int i = 0; i < count; i++) values[i] = in.readDouble();
+        } else {
+            throw new IOException("Unknown column encoding " + encoding);
+        }
+        return values;
+    }
+
+    /**
+     * Writes a value with a tag for its type
+     */
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        switch (value) {
+            case null -> out.writeByte(NULL);
+            case Integer i -> {
+                out.writeByte(INT);
+                out.writeInt(i);
+            }
+            case Double d -> {
+                out.writeByte(DOUBLE);
+                out.writeDouble(d);
+            }
+            case Boolean b -> {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean(b);
+            }
+            case String s -> {
+                out.writeByte(STRING);
+                writeString(out, s);
+            }
+            default -> throw new IllegalArgumentException("Cannot store a value of type " + value.getClass().getSimpleName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case NULL -> null;
+            case INT -> in.readInt();
+            case DOUBLE -> in.readDouble();
+            case BOOLEAN -> in.readBoolean();
+            case STRING -> readString(in);
+            default -> throw new IOException("Unknown value type " + tag);
+        };
+    }
+
+    /**
+     * Writes a string as its length and UTF-8 bytes, unlike writeUTF it has no length limit
+     */
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) throw new IOException("Invalid string length " + length);
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) throw new EOFException();
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,91 @@
+package norelations;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableFileTest {
+
+    private static String tempFile() throws IOException {
+        Path file = Files.createTempFile("table", TableFile.EXTENSION);
+        file.toFile().deleteOnExit();
+        return file.toString();
+    }
+
+    private static Table roundTrip(Table table) throws IOException {
+        String path = tempFile();
+        assertTrue(TableFile.write(table, path));
+        Table read = TableFile.read(path);
+        assertNotNull(read);
+        assertEquals(table.getColumnOrder(), read.getColumnOrder());
+        assertEquals(table.getTable(), read.getTable());
+        return read;
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Table table = new Table(new ArrayList<>(Arrays.asList("Name, Age, Height, Member", "'John', 25, 6.0, true",
+                "'Jane', -23, 5.5, false", "'Jack', 2000000000, 5.5, true")));
+        Table read = roundTrip(table);
+        assertInstanceOf(IntColumn.class, read.getColumn(1));
+        assertInstanceOf(StringColumn.class, read.getColumn(0));
+        assertTrue(read.hasStatistics());
+        assertEquals(2, read.getStatistics().getColumn("Height").distinctCount());
+        assertEquals(-23, read.getStatistics().getColumn("Age").min());
+        assertEquals(1, read.select("Name='Jane' AND Member=false").getRowCount());
+        roundTrip(table.emptyCopy());
+    }
+
+    @Test
+    void testEncodings() throws IOException {
+        // Runs, bit-packed ints of every width, repeated and distinct doubles, and a column of mixed values
+        ArrayList<Class<?>> colType = new ArrayList<>(List.of(Integer.class, Integer.class, Double.class, Double.class, String.class, Integer.class));
+        HashMap<String, Integer> colIndex = new HashMap<>(Map.of("runs", 0, "packed", 1, "same", 2, "spread", 3, "word", 4, "mixed", 5));
+        ArrayList<ArrayList<Object>> rows = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            int bits = i % 33;
+            int packed = bits == 0 ? 0 : random.nextInt() >>> (32 - bits);
+            rows.add(new ArrayList<>(Arrays.asList(i / 1000, packed - (bits == 32 ? 0 : 1 << 20), 1.5, random.nextDouble(),
+                    "w" + i % 37, i % 3 == 0 ? (Object) 0.5 : (Object) i)));
+        }
+        Table read = roundTrip(new Table(colType, colIndex, rows));
+        assertInstanceOf(ObjectColumn.class, read.getColumn(5));
+    }
+
+    @Test
+    void testInvalidFiles() throws IOException {
+        String path = tempFile();
+        Files.writeString(Path.of(path), "Name,Age\nJohn,25\n");
+        assertNull(TableFile.read(path));
+        Table table = new Table(new ArrayList<>(Arrays.asList("Name, Age", "'John', 25")));
+        assertTrue(TableFile.write(table, path));
+        byte[] bytes = Files.readAllBytes(Path.of(path));
+        Files.write(Path.of(path), Arrays.copyOf(bytes, bytes.length - 6));
+        assertNull(TableFile.read(path));
+        assertNull(TableFile.read("does/not/exist" + TableFile.EXTENSION));
+    }
+
+    @Test
+    void testPersistCatalog() throws IOException {
+        Path directory = Files.createTempDirectory("catalog");
+        directory.toFile().deleteOnExit();
+        Query query = new Query();
+        query.parseQuery("people = {Name, Age\n'John', 25\n'Jane', 23} π Name people");
+        assertTrue(query.saveTable("names"));
+        assertTrue(query.persistCatalog(directory.toString()));
+        for (String name : List.of("people", "names")) directory.resolve(name + TableFile.EXTENSION).toFile().deleteOnExit();
+
+        Query restored = new Query();
+        assertTrue(restored.restoreCatalog(directory.toString()));
+        assertEquals(query.getTable("people").getTable(), restored.getTable("people").getTable());
+        assertEquals(1, restored.parseQuery("σ Age>24 people").get().getRowCount());
+        assertEquals(2, restored.getTable("names").getRowCount());
+        assertFalse(restored.restoreCatalog(directory.toString()));  // The tables already exist
+    }
+}
@@ -0,0 +1,90 @@
+package norelations;
+
+import java.util.*;
+
+/**
+ * Statistics of a table used to estimate the cost of a plan: the number of rows and, for each column,
+ * the number of distinct values and the smallest and largest value.
+ */
+public class TableStatistics {
+    private final int rowCount;
+    private final HashMap<String, ColumnStatistics> columns;
+
+    TableStatistics(int rowCount, HashMap<String, ColumnStatistics> columns) {
+        this.rowCount = rowCount;
+        this.columns = columns;
+    }
+
+    /**
+     * Computes the statistics of a table
+     *
+     * @param table - Table to compute the statistics of
+     * @return New TableStatistics
+     */
+    public static TableStatistics compute(Table table) {
+        HashMap<String, ColumnStatistics> columns = new HashMap<>();
+        for (String name : table.getColumns()) {
+            columns.put(name, ColumnStatistics.compute(table.getColumn(table.getOperandColumn(name))));
+        }
+        return new TableStatistics(table.getRowCount(), columns);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the statistics of a column
+     *
+     * @param name - Name of the column
+     * @return ColumnStatistics, or null if the table has no such column
+     */
+    public ColumnStatistics getColumn(String name) {
+        return columns.get(name);
+    }
+
+    @Override
+    public String toString() {
+        return "rows=" + rowCount + " " + columns;
+    }
+
+    /**
+     * Statistics of one column
+     *
+     * @param distinctCount - Number of distinct values
+     * @param min           - Smallest value, or null if the column is empty or its values are not comparable
+     * @param max           - Largest value, or null if the column is empty or its values are not comparable
+     */
+    public record ColumnStatistics(int distinctCount, Object min, Object max) {
+
+        static ColumnStatistics compute(Column column) {
+            if (column.size() == 0) return new ColumnStatistics(0, null, null);
+            int[] sorted;
+            try {
+                sorted = column.sortedRows();
+            } catch (ClassCastException e) {  // Values of different types, they can only be counted
+                HashSet<Object> values = new HashSet<>();
+                for (int row = 0; row < column.size(); row++) values.add(column.get(row));
+                return new ColumnStatistics(values.size(), null, null);
+            }
+            int distinct = 1;
+            for (int i = 1; i < sorted.length; i++) {
+                if (!column.equalsAt(sorted[i], column, sorted[i - 1])) distinct++;
+            }
+            return new ColumnStatistics(distinct, column.get(sorted[0]), column.get(sorted[sorted.length - 1]));
+        }
+
+        /**
+         * Estimates the fraction of values below a constant, assuming values are spread evenly between min and max
+         *
+         * @param value - Object representing the constant
+         * @return Fraction between 0 and 1, or -1 if it cannot be estimated (e.g. for strings)
+         */
+        public double fractionBelow(Object value) {
+            if (!(min instanceof Number low) || !(max instanceof Number high) || !(value instanceof Number number)) return -1;
+            double range = high.doubleValue() - low.doubleValue();
+            if (range <= 0) return number.doubleValue() > low.doubleValue() ? 1 : 0;
+            return Math.clamp((number.doubleValue() - low.doubleValue()) / range, 0, 1);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package norelations;
+
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableTest {
+
+    @Test
+    void testSelect() {
+        ArrayList<String> rows = new ArrayList<>(Arrays.asList("Name, Age, Height", "'John', 25, 6.0", "'Jane', 23, 5.5", "'Jack', 27, 5.9"));
+        Table table = new Table(rows);
+        Table selectedTable = table.select("Age>25");
+        assertEquals(1, selectedTable.getTable().size());
+    }
+
+    @Test
+    void testSelectCompiledCondition() {
+        ArrayList<String> rows = new ArrayList<>(Arrays.asList("Name, Age, Height", "'John', 25, 6.0", "'Jane', 23, 5.5", "'Jack', 27, 5.9"));
+        Table table = new Table(rows);
+        assertEquals(2, table.select("25<=Age").getTable().size());
+        assertEquals(2, table.select("Name<'Jb'").getTable().size());
+        assertEquals(1, table.select("Name='Jane'").getTable().size());
+        assertEquals(2, table.select("Height>5.5").getTable().size());
+        assertEquals(3, table.select("Height>5").getTable().size());  // The int constant is widened to a double
+        assertEquals(1, table.select("6=Height").getTable().size());
+        assertEquals(3, table.select("Age=Age").getTable().size());
+        assertEquals(3, table.select("Height<=Height").getTable().size());
+        assertEquals(0, table.select("Age!=Age").getTable().size());
+        assertEquals(0, table.select("1=2").getTable().size());
+        assertThrows(IllegalArgumentException.class, () -> table.select("Weight>25"));
+    }
+
+    @Test
+    void testSelectCompoundCondition() {
+        ArrayList<String> rows = new ArrayList<>(Arrays.asList("Name, Age, Height", "'John', 25, 6.0", "'Jane', 23, 5.5", "'Jack', 27, 5.9", "'Jill', 31, 5.4"));
+        Table table = new Table(rows);
+        assertEquals(2, table.select("Age>23 AND Height>5.5").getTable().size());
+        assertEquals(2, table.select("Age<24 OR Name='Jill'").getTable().size());
+        assertEquals(3, table.select("NOT Name='Jane'").getTable().size());
+        assertEquals(1, table.select("(Age > 24 OR Height < 5.6) AND NOT (Name = 'Jill' OR Name = 'Jack') AND Height > 5.5").getTable().size());
+        assertEquals(1, table.select("Name='a AND b' OR Age=31").getTable().size());
+        assertNull(table.select("Age>23 AND"));
+    }
+
+    @Test
+    void testProjection() {
+        ArrayList<String> rows = new ArrayList<>(Arrays.asList("Name, Age, Height", "'John', 25, 6.0", "'Jane', 23, 5.5", "'Jack', 27, 5.9"));
+        Table table = new Table(rows);
+        Table projectedTable = table.projection(new TreeSet<>(Arrays.asList("Name", "Age")));
+        assertEquals(new HashSet<>(Arrays.asList("Name", "Age")), projectedTable.getColumns());
+    }
+
+    @Test
+    void testJoin() {
+        ArrayList<String> rows1 = new ArrayList<>(Arrays.asList("Name, Age", "'John', 25", "'Jane', 23", "'Jack', 27"));
+        ArrayList<String> rows2 = new ArrayList<>(Arrays.asList("Name, Height", "'John', 6.0", "'Jane', 5.5", "'Jack', 5.9"));
+        Table table1 = new Table(rows1);
+        Table table2 = new Table(rows2);
+        Table joinedTable = table1.join(table2, "Name=Name");
+        assertEquals(3, joinedTable.getTable().size());
+    }
+
+    @Test
+    void testHashJoin() {
+        ArrayList<String> rows1 = new ArrayList<>(Arrays.asList("id, Name", "1, 'John'", "2, 'Jane'", "3, 'Jack'", "4, 'Jill'"));
+        ArrayList<String> rows2 = new ArrayList<>(Arrays.asList("sid, Course", "1, 'Math'", "1, 'Physics'", "3, 'Network'"));
+        Table table1 = new Table(rows1);
+        Table table2 = new Table(rows2);
+        Table joinedTable = table1.join(table2, "id=sid");
+        assertEquals(3, joinedTable.getTable().size());
+        assertEquals(new HashSet<>(Arrays.asList("id", "Name", "sid", "Course")), joinedTable.getColumns());
+        for (ArrayList<Object> row : joinedTable.getTable()) {
+            assertEquals(row.get(0), row.get(2));  // left columns come first, then right columns
+        }
+        assertEquals(0, table1.join(table2, "id=sid").select("id=2").getTable().size());
+        assertEquals(9, table1.join(table2, "id!=sid").getTable().size());
+    }
+
+    @Test
+    void testRangeJoin() {
+        ArrayList<String> rows1 = new ArrayList<>(Arrays.asList("Name, Start", "'John', 2", "'Jane', 5", "'Jack', 9"));
+        ArrayList<String> rows2 = new ArrayList<>(Arrays.asList("Event, Time", "'a', 1", "'b', 5", "'c', 7", "'d', 5"));
+        Table table1 = new Table(rows1);
+        Table table2 = new Table(rows2);
+        assertEquals(4, table1.join(table2, "Start<Time").getTable().size());
+        assertEquals(6, table1.join(table2, "Start<=Time").getTable().size());
+        assertEquals(6, table1.join(table2, "Start>Time").getTable().size());
+        assertEquals(8, table1.join(table2, "Start>=Time").getTable().size());
+        for (ArrayList<Object> row : table1.join(table2, "Start<Time").getTable()) {
+            assertTrue((Integer) row.get(1) < (Integer) row.get(3));
+        }
+    }
+
+    @Test
+    void testParallelExecution() {
+        ArrayList<String> rows1 = new ArrayList<>(List.of("id, Value"));
+        ArrayList<String> rows2 = new ArrayList<>(List.of("key, Label"));
+        for (int i = 0; i < 30000; i++) {
+            rows1.add(i + ", " + i % 97);
+            if (i % 3 == 0) rows2.add(i % 1000 + ", 'label" + i % 11 + "'");
+        }
+        Table table1 = new Table(rows1);
+        Table table2 = new Table(rows2);
+        Table selected = table1.select("Value<40 OR id>29000");
+        Table joined = table1.join(table2, "id=key");
+        Table rangeJoined = table1.select("id<10000").join(table2.select("key<3"), "id<key");
+        try {
+            ParallelExecution.setParallelism(4);
+            // Chunks are processed on several threads, but the rows come out in the same order
+            assertEquals(selected.getTable(), table1.select("Value<40 OR id>29000").getTable());
+            assertEquals(joined.getTable(), table1.join(table2, "id=key").getTable());
+            assertEquals(rangeJoined.getTable(), table1.select("id<10000").join(table2.select("key<3"), "id<key").getTable());
+        } finally {
+            ParallelExecution.setParallelism(1);
+        }
+    }
+
+    @Test
+    void testColumnarStorage() {
+        ArrayList<String> rows = new ArrayList<>(Arrays.asList("Name, Age, Height, Member", "'John', 25, 6.0, true", "'Jane', 23, 5.5, false", "'Jack', 27, 5.9, true"));
+        Table table = new Table(rows);
+        assertEquals(3, table.getRowCount());
+        assertEquals(Arrays.asList("Jane", 23, 5.5, false), table.getTable().get(1));
+        assertEquals(2, table.select("Member=true").getRowCount());
+        Table projectedTable = table.projection(new TreeSet<>(Arrays.asList("Name", "Age")));
+        assertEquals(Arrays.asList(27, "Jack"), projectedTable.select("Name='Jack'").getTable().getFirst());
+
+        // Columns whose values do not all share the column type keep their values as they are
+        Table mixed = new Table(new ArrayList<>(Arrays.asList("id, value", "1, 2", "2, 2.5")));
+        assertEquals(Arrays.asList(2, 2.5), Arrays.asList(mixed.getTable().get(0).get(1), mixed.getTable().get(1).get(1)));
+    }
+
+    @Test
+    void testSetOperations() {
+        ArrayList<String> rows1 = new ArrayList<>(Arrays.asList("Name, Age", "'John', 25", "'Jane', 23", "'Jack', 27"));
+        ArrayList<String> rows2 = new ArrayList<>(Arrays.asList("Name, Age", "'John', 25", "'Jane', 23"));
+        Table table1 = new Table(rows1);
+        Table table2 = new Table(rows2);
+        Table intersectedTable = table1.setOperation(table2, '∩');
+        assertEquals(2, intersectedTable.getTable().size());
+    }
+
+    @Test
+    void testUnion() {
+        ArrayList<String> rows1 = new ArrayList<>(Arrays.asList("Name, Age", "'John', 25", "'Jane', 23"));
+        ArrayList<String> rows2 = new ArrayList<>(Arrays.asList("Name, Age", "'Jack', 27"));
+        Table table1 = new Table(rows1);
+        Table table2 = new Table(rows2);
+        Table unionTable = table1.setOperation(table2, '∪');
+        assertEquals(3, unionTable.getTable().size());
+    }
+
+    @Test
+    void testDifference() {
+        ArrayList<String> rows1 = new ArrayList<>(Arrays.asList("Name, Age", "'John', 25", "'Jane', 23", "'Jack', 27"));
+        ArrayList<String> rows2 = new ArrayList<>(Arrays.asList("Name, Age", "'John', 25", "'Jane', 23"));
+        Table table1 = new Table(rows1);
+        Table table2 = new Table(rows2);
+        Table differenceTable = table1.setOperation(table2, '-');
+        assertEquals(1, differenceTable.getTable().size());
+    }
+
+    @Test
+    void testSetOperationsWithEqualHashCodes() {
+        // [0, 31] and [1, 0] have the same hash code as lists, but are different rows
+        Table sorted1 = new Table(new ArrayList<>(Arrays.asList("a, b", "0, 31", "0, 31", "2, 5")));
+        Table sorted2 = new Table(new ArrayList<>(Arrays.asList("a, b", "1, 0", "2, 5")));
+        Table unsorted1 = new Table(new ArrayList<>(Arrays.asList("a, b", "2, 5", "0, 31", "0, 31")));
+        Table unsorted2 = new Table(new ArrayList<>(Arrays.asList("a, b", "2, 5", "1, 0")));
+
+        // Sorted tables are merged when asked to, the others are hashed
+        for (Table[] tables : List.of(new Table[]{sorted1, sorted2}, new Table[]{unsorted1, unsorted2}, new Table[]{unsorted2, unsorted1})) {
+            for (boolean merge : new boolean[]{false, true}) {
+                assertEquals(3, tables[0].setOperation(tables[1], '∪', merge).getRowCount());
+                assertEquals(List.of(Arrays.asList(2, 5)), tables[0].setOperation(tables[1], '∩', merge).getTable());
+                assertEquals(1, tables[0].setOperation(tables[1], '-', merge).getRowCount());
+            }
+        }
+        assertEquals(List.of(Arrays.asList(0, 31), Arrays.asList(1, 0), Arrays.asList(2, 5)), sorted1.setOperation(sorted2, '∪', true).getTable());
+        assertEquals(List.of(Arrays.asList(0, 31), Arrays.asList(2, 5), Arrays.asList(1, 0)), sorted1.setOperation(sorted2, '∪').getTable());
+        assertEquals(List.of(Arrays.asList(2, 5), Arrays.asList(0, 31), Arrays.asList(1, 0)), unsorted1.setOperation(unsorted2, '∪', true).getTable());
+    }
+
+    @Test
+    void testIndexedSelectAndJoin() {
+        ArrayList<String> rows = new ArrayList<>(List.of("id, group, score, name"));
+        Random random = new Random(5);
+        for (int i = 0; i < 2000; i++) {
+            rows.add(i + ", " + random.nextInt(40) + ", " + random.nextInt(20) / 2.0 + ", 'n" + random.nextInt(300) + "'");
+        }
+        Table plain = new Table(new ArrayList<>(rows));
+        Table indexed = new Table(new ArrayList<>(rows));
+        assertTrue(indexed.createIndex("group"));
+        assertTrue(indexed.createIndex("score"));
+        assertTrue(indexed.createIndex("name"));
+        assertFalse(indexed.createIndex("missing"));
+        assertNotNull(indexed.projection(new TreeSet<>(List.of("group", "name"))).getColumn(0).getIndex());
+
+        // The rows found through an index are the rows of a scan, in the same order
+        for (String condition : List.of("group = 7", "group < 2", "3 >= group", "group = 7 AND id > 1000", "score = 0.0",
+                "score >= 9.5", "name = 'n12'", "name < 'n100'", "name = 'missing'", "group = 7 OR id < 5",
+                "group != 7", "group > 20", "group = 3 AND name > 'n2' AND score < 4.0")) {
+            assertEquals(plain.select(condition).getTable(), indexed.select(condition).getTable(), condition);
+        }
+        assertThrows(ClassCastException.class, () -> indexed.select("group = 2.0"));  // Compared as by a scan
+
+        Table groups = new Table(new ArrayList<>(Arrays.asList("g, label", "7, 'seven'", "3, 'three'", "7, 'again'", "99, 'none'")));
+        // An index on the larger table is probed with the smaller one, the pairs come out in another order
+        assertEquals(new HashSet<>(groups.join(plain, "g=group").getTable()), new HashSet<>(groups.join(indexed, "g=group").getTable()));
+        assertEquals(new HashSet<>(plain.join(groups, "group=g").getTable()), new HashSet<>(indexed.join(groups, "group=g").getTable()));
+        assertEquals(plain.join(groups, "group=g").getRowCount(), indexed.join(groups, "group=g").getRowCount());
+        for (String[] conditions : List.of(new String[]{"g<group", "group>g"}, new String[]{"g>=group", "group<=g"})) {
+            assertEquals(groups.join(plain, conditions[0]).getTable(), groups.join(indexed, conditions[0]).getTable(), conditions[0]);
+            assertEquals(plain.join(groups, conditions[1]).getTable(), indexed.join(groups, conditions[1]).getTable(), conditions[1]);
+        }
+        assertEquals(plain.buildJoin("g=group").join(groups).getTable(), indexed.buildJoin("g=group").join(groups).getTable());
+    }
+}